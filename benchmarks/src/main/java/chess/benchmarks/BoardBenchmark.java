@@ -0,0 +1,55 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Copying, comparing and hashing boards, which the server does when storing games
+ * and the move generator does when checking moves.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BoardBenchmark {
+    @Param({"opening", "opening-closed", "middlegame", "middlegame-castled", "endgame", "endgame-minor"})
+    public String position;
+
+    private ChessBoard board;
+    private ChessBoard same;
+
+    @Setup
+    public void setUp() {
+        board = Positions.load(position).getBoard();
+        same = new ChessBoard(board);
+    }
+
+    @Benchmark
+    public ChessBoard copy() {
+        return new ChessBoard(board);
+    }
+
+    @Benchmark
+    public boolean equalsSame() {
+        return board.equals(same);
+    }
+
+    @Benchmark
+    public int hashCodeBoard() {
+        return board.hashCode();
+    }
+}
@@ -0,0 +1,164 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.GameCodec;
+import chess.InvalidMoveException;
+import com.google.gson.Gson;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The game-state queries the server makes on every move.
+ * <p>
+ * ChessGame caches legal moves until the board changes, which would turn repeated
+ * queries into cache hits. Benchmarks that should measure a fresh generation make
+ * and take back a move first; {@link #pushPopMove()} measures that overhead alone.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GameBenchmark {
+    @Param({"opening", "opening-closed", "middlegame", "middlegame-castled", "endgame", "endgame-minor"})
+    public String position;
+
+    private ChessGame game;
+    private ChessGame.TeamColor turn;
+    private ChessMove move;
+    private ChessPosition[] ownPieces;
+    private String fen;
+    private byte[] encoded;
+    private String json;
+    private final Gson gson = new Gson();
+
+    @Setup
+    public void setUp() {
+        game = Positions.load(position);
+        turn = game.getTeamTurn();
+        move = game.generateLegalMoves(turn).get(0);
+        List<ChessPosition> found = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getTeamColor() == turn) {
+                    found.add(new ChessPosition(row, col));
+                }
+            }
+        }
+        ownPieces = found.toArray(new ChessPosition[0]);
+        fen = game.toFen();
+        encoded = GameCodec.encode(game);
+        json = gson.toJson(game);
+    }
+
+    @Benchmark
+    public void pushPopMove() {
+        game.pushMove(move);
+        game.popMove();
+    }
+
+    /**
+     * validMoves for every piece of the side to move, as a client highlighting
+     * moves would ask for them
+     */
+    @Benchmark
+    public void validMoves(Blackhole blackhole) {
+        game.pushMove(move);
+        game.popMove();
+        for (ChessPosition square : ownPieces) {
+            blackhole.consume(game.validMoves(square));
+        }
+    }
+
+    @Benchmark
+    public List<ChessMove> generateLegalMoves() {
+        game.pushMove(move);
+        game.popMove();
+        return game.generateLegalMoves(turn);
+    }
+
+    @Benchmark
+    public boolean isInCheck() {
+        return game.isInCheck(turn);
+    }
+
+    @Benchmark
+    public boolean isInCheckmate() {
+        game.pushMove(move);
+        game.popMove();
+        return game.isInCheckmate(turn);
+    }
+
+    @Benchmark
+    public boolean isInStalemate() {
+        game.pushMove(move);
+        game.popMove();
+        return game.isInStalemate(turn);
+    }
+
+    /**
+     * A validated move on a copy of the game, which includes the checkmate and
+     * stalemate test makeMove runs afterwards
+     */
+    @Benchmark
+    public ChessGame makeMove() throws InvalidMoveException {
+        ChessGame copy = new ChessGame(game);
+        copy.makeMove(move);
+        return copy;
+    }
+
+    @Benchmark
+    public ChessGame copyGame() {
+        return new ChessGame(game);
+    }
+
+    @Benchmark
+    public String toFen() {
+        return game.toFen();
+    }
+
+    @Benchmark
+    public ChessGame fromFen() {
+        return ChessGame.fromFen(fen);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return GameCodec.encode(game);
+    }
+
+    @Benchmark
+    public ChessGame decode() {
+        return GameCodec.decode(encoded);
+    }
+
+    // The JSON the games table held before the binary format, for comparison
+    @Benchmark
+    public String toJson() {
+        return gson.toJson(game);
+    }
+
+    @Benchmark
+    public ChessGame fromJson() {
+        return gson.fromJson(json, ChessGame.class);
+    }
+}
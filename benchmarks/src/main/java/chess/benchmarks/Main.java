@@ -0,0 +1,24 @@
+package chess.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the JMH benchmarks with the GC profiler attached, so every result comes
+ * with bytes allocated per operation alongside the time.
+ * <p>
+ * Takes the usual JMH command line, e.g. {@code GameBenchmark.validMoves -p position=endgame}
+ * to run one benchmark on one position.
+ */
+public class Main {
+    public static void main(String[] args) throws Exception {
+        Options options = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
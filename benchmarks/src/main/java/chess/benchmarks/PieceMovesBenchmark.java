@@ -0,0 +1,69 @@
+package chess.benchmarks;
+
+import chess.ChessBoard;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pseudo-legal move generation for every piece of one type on the board, both
+ * colors, via {@link ChessPiece#pieceMoves}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PieceMovesBenchmark {
+    @Param({"KING", "QUEEN", "BISHOP", "KNIGHT", "ROOK", "PAWN"})
+    public ChessPiece.PieceType pieceType;
+
+    @Param({"opening", "opening-closed", "middlegame", "middlegame-castled", "endgame", "endgame-minor"})
+    public String position;
+
+    private ChessBoard board;
+    private ChessPosition[] squares;
+    private ChessPiece[] pieces;
+
+    @Setup
+    public void setUp() {
+        board = Positions.load(position).getBoard();
+        List<ChessPosition> found = new ArrayList<>();
+        for (int row = 1; row <= 8; row++) {
+            for (int col = 1; col <= 8; col++) {
+                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
+                if (piece != null && piece.getPieceType() == pieceType) {
+                    found.add(new ChessPosition(row, col));
+                }
+            }
+        }
+        squares = found.toArray(new ChessPosition[0]);
+        pieces = new ChessPiece[squares.length];
+        for (int i = 0; i < squares.length; i++) {
+            pieces[i] = board.getPiece(squares[i]);
+        }
+    }
+
+    @Benchmark
+    public void pieceMoves(Blackhole blackhole) {
+        for (int i = 0; i < squares.length; i++) {
+            blackhole.consume(pieces[i].pieceMoves(board, squares[i]));
+        }
+    }
+}
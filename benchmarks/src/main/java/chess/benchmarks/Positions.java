@@ -0,0 +1,30 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+
+import java.util.Map;
+
+/**
+ * The positions every benchmark runs against, two from each phase of the game so
+ * results are not skewed by a crowded or an empty board.
+ */
+final class Positions {
+    private static final Map<String, String> CORPUS = Map.of(
+            "opening", "r1bqkbnr/pppp1ppp/2n5/4p3/2B1P3/5N2/PPPP1PPP/RNBQK2R b KQkq - 3 3",
+            "opening-closed", "rnbqkb1r/ppp2ppp/4pn2/3p4/2PP4/2N5/PP2PPPP/R1BQKBNR w KQkq - 2 4",
+            "middlegame", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "middlegame-castled", "r2q1rk1/pp2bppp/2n1bn2/2pp4/3P4/2NBPN2/PPQ2PPP/R1B2RK1 w - - 4 10",
+            "endgame", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "endgame-minor", "8/8/4kpp1/3p4/p6P/2B4b/6P1/6K1 w - - 0 40");
+
+    private Positions() {
+    }
+
+    static ChessGame load(String name) {
+        String fen = CORPUS.get(name);
+        if (fen == null) {
+            throw new IllegalArgumentException("Unknown position: " + name);
+        }
+        return ChessGame.fromFen(fen);
+    }
+}
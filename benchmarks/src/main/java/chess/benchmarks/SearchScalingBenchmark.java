@@ -0,0 +1,96 @@
+package chess.benchmarks;
+
+import chess.ChessGame;
+import chess.TranspositionTable;
+import chess.search.ParallelSearch;
+import chess.search.SearchLimits;
+import chess.search.SearchResult;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * How parallel search scales with threads: the time to finish a fixed depth, and
+ * the nodes searched per second across all threads. Run with
+ * {@code -p threads=1,2,4,8,16,32} to cover the machine.
+ * <p>
+ * The table is cleared before every search so each one starts cold, as a search
+ * for a new game would.
+ */
+@State(Scope.Benchmark)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SearchScalingBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int threads;
+
+    @Param({"opening", "middlegame", "endgame"})
+    public String position;
+
+    @Param({"6"})
+    public int depth;
+
+    private ParallelSearch search;
+    private TranspositionTable table;
+    private ChessGame game;
+
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    @State(Scope.Thread)
+    public static class Nodes {
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        table = new TranspositionTable(1 << 20);
+        search = new ParallelSearch(threads, table);
+        game = Positions.load(position);
+    }
+
+    @Setup(Level.Invocation)
+    public void clearTable() {
+        table.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        search.close();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    public SearchResult timeToDepth() {
+        return search.search(game, SearchLimits.depth(depth));
+    }
+
+    /**
+     * Reports nodes per millisecond as the {@code nodes} secondary result
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    public SearchResult nodesPerSecond(Nodes counter) {
+        SearchResult result = search.search(game, SearchLimits.depth(depth));
+        counter.nodes += result.nodes();
+        return result;
+    }
+}
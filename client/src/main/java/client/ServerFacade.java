@@ -4,6 +4,8 @@ import com.google.gson.Gson;
 import java.io.*;
 import java.net.*;
 import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
 
 import model.*;
 import model.JoinGameRequest;
@@ -14,6 +16,10 @@ public class ServerFacade {
 
     private final String serverUrl;
     private final Gson gson = new Gson();
+    // The last list fetched from each game list endpoint, with the tag the server gave it
+    private final Map<String, CachedList> listCache = new HashMap<>();
+
+    private record CachedList(String tag, ListGamesResult result) {}
 
     public ServerFacade(int port) {
         this.serverUrl = "http://localhost:" + port;
@@ -41,15 +47,37 @@ public class ServerFacade {
     }
 
 public ListGamesResult listGames(String authToken) throws IOException {
-    HttpURLConnection connection = makeConnection("GET", "/game", authToken);
-    connection.connect();
-    checkResponse(connection);
+    return listGames(authToken, "");
+}
+
+    /**
+     * Lists the games matching a GET /game query string, such as "open=true". A
+     * list fetched before is sent back to the server by its tag, and reused
+     * without downloading it again if the server says it is still current.
+     */
+    public ListGamesResult listGames(String authToken, String query) throws IOException {
+        String endpoint = query.isEmpty() ? "/game" : "/game?" + query;
+        HttpURLConnection connection = makeConnection("GET", endpoint, authToken);
+        CachedList cached = listCache.get(endpoint);
+        if (cached != null) {
+            connection.setRequestProperty("If-None-Match", cached.tag());
+        }
+        connection.connect();
+        if (cached != null && connection.getResponseCode() == HttpURLConnection.HTTP_NOT_MODIFIED) {
+            return cached.result();
+        }
+        checkResponse(connection);
 
-    try (InputStream is = connection.getInputStream()) {
-        String raw = new String(is.readAllBytes());
-        return gson.fromJson(raw, ListGamesResult.class);
+        try (InputStream is = connection.getInputStream()) {
+            String raw = new String(is.readAllBytes());
+            ListGamesResult result = gson.fromJson(raw, ListGamesResult.class);
+            String tag = connection.getHeaderField("ETag");
+            if (tag != null) {
+                listCache.put(endpoint, new CachedList(tag, result));
+            }
+            return result;
+        }
     }
-}
 
     public SuccessResponse joinGame(int gameID, String playerColor, String authToken) throws IOException {
         HttpURLConnection connection = makeConnection("PUT", "/game", authToken);
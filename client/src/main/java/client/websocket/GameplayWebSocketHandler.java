@@ -5,11 +5,14 @@ import javax.websocket.*;
 import chess.ChessBoard;
 import chess.ChessGame;
 import chess.ChessMove;
+import model.AnalysisResult;
 import model.data.GameData;
 import ui.ChessBoardUI;
+import websocket.commands.AnalyzeCommand;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
 import websocket.commands.UserGameCommand.CommandType;
+import websocket.messages.AnalysisMessage;
 import websocket.messages.ErrorMessage;
 import websocket.messages.NotificationMessage;
 import websocket.messages.ServerMessage;
@@ -91,6 +94,41 @@ public class GameplayWebSocketHandler extends Endpoint {
                     promptForMove();
                 }
                 break;
+
+            case ANALYSIS:
+                printAnalysis(((AnalysisMessage) serverMessage).getAnalysis());
+                break;
+        }
+    }
+
+    private void printAnalysis(AnalysisResult analysis) {
+        String score = analysis.mate() != 0
+                ? "mate in " + Math.abs(analysis.mate()) + (analysis.mate() > 0 ? " for white" : " for black")
+                : String.format("%+.2f", analysis.score() / 100.0);
+        System.out.println("Engine: " + score + " (depth " + analysis.depth() + ")");
+        if (!analysis.bestLine().isEmpty()) {
+            System.out.println("Best line: " + analysis.bestLine().stream()
+                    .map(this::formatMove).collect(Collectors.joining(" ")));
+        }
+        for (AnalysisResult.Candidate candidate : analysis.candidates()) {
+            String value = candidate.mate() != 0 ? "#" + candidate.mate() : String.format("%+.2f", candidate.score() / 100.0);
+            System.out.println("  " + formatMove(candidate.move()) + "  " + value);
+        }
+    }
+
+    private String formatMove(ChessMove move) {
+        return formatPosition(move.getStartPosition()) + formatPosition(move.getEndPosition());
+    }
+
+    private String formatPosition(ChessPosition position) {
+        return (char) ('a' + position.getColumn() - 1) + String.valueOf(position.getRow());
+    }
+
+    private void sendAnalyzeCommand() {
+        try {
+            session.getBasicRemote().sendText(GSON.toJson(new AnalyzeCommand(authToken, gameID)));
+        } catch (Exception e) {
+            System.err.println("Failed to send ANALYZE command: " + e.getMessage());
         }
     }
 
@@ -344,6 +382,8 @@ public class GameplayWebSocketHandler extends Endpoint {
             } else if (input.equalsIgnoreCase("exit")) {
                 sendLeaveCommand();
                 break;
+            } else if (input.equalsIgnoreCase("hint")) {
+                sendAnalyzeCommand();
             } else if (input.matches("^[a-h][1-8]\\s+[a-h][1-8]$")) {
                 String[] parts = input.split("\\s+");
                 sendMove(parts[0], parts[1]);
@@ -362,7 +402,7 @@ public class GameplayWebSocketHandler extends Endpoint {
             System.out.println("Waiting for opponent to move. You may still type 'resign' or 'exit':");
             startOpponentWaitPrompt();
         } else {
-            System.out.println("⏳ You are observing the game. Type a square like 'e2' to highlight moves, or 'exit' to leave:");
+            System.out.println("⏳ You are observing the game. Type a square like 'e2' to highlight moves, 'hint' for analysis, or 'exit' to leave:");
             startObserverPrompt();
         }
     }
@@ -399,10 +439,12 @@ public class GameplayWebSocketHandler extends Endpoint {
                     sendLeaveCommand();
                     running = false;
                     break;
+                } else if (input.equalsIgnoreCase("hint")) {
+                    sendAnalyzeCommand();
                 } else if (input.matches("^[a-h][1-8]$")) {
                     handleHighlight(input);
                 } else {
-                    System.out.println("Invalid command. Type a square like 'e2' to highlight moves, or 'exit' to leave.");
+                    System.out.println("Invalid command. Type a square like 'e2' to highlight moves, 'hint' for analysis, or 'exit' to leave.");
                 }
             }
         }).start();
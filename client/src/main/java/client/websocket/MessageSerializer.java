@@ -1,6 +1,7 @@
 package client.websocket;
 
 import com.google.gson.Gson;
+import websocket.messages.AnalysisMessage;
 import websocket.messages.ErrorMessage;
 import websocket.messages.LoadGameMessage;
 import websocket.messages.NotificationMessage;
@@ -19,6 +20,8 @@ public class MessageSerializer {
                 return GSON.fromJson(json, NotificationMessage.class);
             case ERROR:
                 return GSON.fromJson(json, ErrorMessage.class);
+            case ANALYSIS:
+                return GSON.fromJson(json, AnalysisMessage.class);
             default:
                 throw new IllegalArgumentException("Unknown server message type");
         }
@@ -10,6 +10,8 @@ import model.ListGamesResult;
 
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 import java.util.stream.Collectors;
@@ -130,6 +132,8 @@ public class ChessClient {
                 === MENU ===
                 - Create Game
                 - List Games
+                - List Open Games
+                - List My Games
                 - Play Game
                 - Observe Game
                 - Help
@@ -142,7 +146,7 @@ public class ChessClient {
         String command = scanner.nextLine().trim().toLowerCase();
 
         switch (command) {
-            case "help" -> System.out.println("Commands: logout, create game, list games, play game, observe game");
+            case "help" -> System.out.println("Commands: logout, create game, list games, list open games, list my games, play game, observe game");
             case "logout" -> {
                 facade.logout(authToken);
                 authToken = null;
@@ -151,7 +155,9 @@ public class ChessClient {
                 System.out.println("Logged out");
             }
             case "create game" -> handleCreateGame();
-            case "list games" -> handleListGames();
+            case "list games" -> handleListGames("");
+            case "list open games" -> handleListGames("open=true&inProgress=true");
+            case "list my games" -> handleListGames("player=" + URLEncoder.encode(currentUsername, StandardCharsets.UTF_8));
             case "play game" -> {
                 handlePlayGame();
                 return;
@@ -177,8 +183,8 @@ public class ChessClient {
         }
     }
 
-    private void handleListGames() throws IOException {
-        var result = facade.listGames(authToken);
+    private void handleListGames(String query) throws IOException {
+        var result = facade.listGames(authToken, query);
         cachedGames = result.games();
         int i = 1;
         for (var game : cachedGames) {
@@ -0,0 +1,311 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import model.ListGamesResult;
+import model.data.AuthData;
+import model.data.GameData;
+import model.data.UserData;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Answers auth token lookups from memory, so authenticating a request does not
+ * take a connection and a query each time.
+ * <p>
+ * Tokens found are kept for the TTL; tokens not found are kept as negative
+ * entries for a shorter TTL, so a client retrying a bad token does not reach the
+ * database either. When the cache is full the least recently used entry goes.
+ * {@link #createAuth} caches the new token, and {@link #deleteAuth} and
+ * {@link #clear} drop what they delete, so logins and logouts through this
+ * server take effect at once. Tokens created or deleted behind its back are
+ * seen once their entries expire.
+ * <p>
+ * A lookup that misses reads the database without holding the lock. If a token
+ * is created or deleted while that read is in flight, its result is not cached,
+ * so a slow lookup can never undo a login or a logout.
+ */
+public final class AuthCachingDataAccess implements DataAccess {
+    private final DataAccess delegate;
+    private final int maxEntries;
+    private final long ttlNanos;
+    private final long negativeTtlNanos;
+    private final LongSupplier clock;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // In access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every invalidation; a lookup only caches what it read if this has not moved
+    private long invalidations;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder negativeHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param auth null for a negative entry
+     */
+    private record Entry(AuthData auth, long expiresAt) {}
+
+    /**
+     * @param maxEntries        tokens, found or not, to keep at most
+     * @param ttlMillis         how long a token found stays cached
+     * @param negativeTtlMillis how long a token not found stays cached; 0 to not
+     *                          cache them
+     */
+    public AuthCachingDataAccess(DataAccess delegate, int maxEntries, long ttlMillis, long negativeTtlMillis) {
+        this(delegate, maxEntries, ttlMillis, negativeTtlMillis, System::nanoTime);
+    }
+
+    AuthCachingDataAccess(DataAccess delegate, int maxEntries, long ttlMillis, long negativeTtlMillis,
+                          LongSupplier clock) {
+        if (maxEntries < 1 || ttlMillis < 1 || negativeTtlMillis < 0) {
+            throw new IllegalArgumentException("Cache size and TTL must be at least 1, negative TTL at least 0");
+        }
+        this.delegate = delegate;
+        this.maxEntries = maxEntries;
+        this.ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMillis);
+        this.negativeTtlNanos = TimeUnit.MILLISECONDS.toNanos(negativeTtlMillis);
+        this.clock = clock;
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        if (authToken == null) {
+            return null;
+        }
+        long seen;
+        lock.lock();
+        try {
+            Entry entry = entries.get(authToken);
+            if (entry != null) {
+                if (clock.getAsLong() - entry.expiresAt() < 0) {
+                    (entry.auth() == null ? negativeHits : hits).increment();
+                    return entry.auth();
+                }
+                entries.remove(authToken);
+            }
+            seen = invalidations;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        AuthData auth = delegate.getAuth(authToken);
+        if (auth != null || negativeTtlNanos > 0) {
+            lock.lock();
+            try {
+                if (invalidations == seen) {
+                    put(authToken, auth);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        return auth;
+    }
+
+    @Override
+    public String getUsernameFromAuth(String authToken) throws DataAccessException {
+        AuthData auth = getAuth(authToken);
+        if (auth == null) {
+            throw new DataAccessException("Error: Auth token not found: " + authToken);
+        }
+        return auth.username();
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+        lock.lock();
+        try {
+            // Also an invalidation: a lookup in flight may have read the token as missing
+            invalidations++;
+            put(auth.authToken(), auth);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        try {
+            delegate.deleteAuth(authToken);
+        } finally {
+            lock.lock();
+            try {
+                invalidations++;
+                entries.remove(authToken);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public void clear() throws DataAccessException {
+        try {
+            delegate.clear();
+        } finally {
+            invalidateAll();
+        }
+    }
+
+    /**
+     * Drops every cached token, for when the auth table was changed some other way
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            invalidations++;
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Caches a lookup's result, evicting the least recently used entries to make
+     * room. Expired entries are dropped when next looked up, or evicted in turn.
+     * Called holding the lock.
+     */
+    private void put(String authToken, AuthData auth) {
+        long now = clock.getAsLong();
+        entries.put(authToken, new Entry(auth, now + (auth == null ? negativeTtlNanos : ttlNanos)));
+        if (entries.size() <= maxEntries) {
+            return;
+        }
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return lookups answered by a cached token
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return lookups answered by a cached "not found"
+     */
+    public long negativeHits() {
+        return negativeHits.sum();
+    }
+
+    /**
+     * @return lookups that went to the database
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return entries dropped to make room, not counting expired or invalidated ones
+     */
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long answered = hits() + negativeHits();
+        long total = answered + misses();
+        return total == 0 ? 0 : (double) answered / total;
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public void createHashedUser(UserData user) throws DataAccessException {
+        delegate.createHashedUser(user);
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return delegate.createGame(game);
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        return delegate.listGames();
+    }
+
+    @Override
+    public void streamGameSummaries(GameQuery query, Consumer<ListGamesResult.GameSummary> sink) throws DataAccessException {
+        delegate.streamGameSummaries(query, sink);
+    }
+
+    @Override
+    public String gamesVersion() throws DataAccessException {
+        return delegate.gamesVersion();
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public void updateGame(int gameID, ChessGame game) throws DataAccessException {
+        delegate.updateGame(gameID, game);
+    }
+
+    @Override
+    public void recordMove(int gameID, ChessGame game) throws DataAccessException {
+        delegate.recordMove(gameID, game);
+    }
+
+    @Override
+    public void addObserver(int gameID, String username) throws DataAccessException {
+        delegate.addObserver(gameID, username);
+    }
+
+    @Override
+    public void setWhiteUsername(int gameID, String username) throws DataAccessException {
+        delegate.setWhiteUsername(gameID, username);
+    }
+
+    @Override
+    public void setBlackUsername(int gameID, String username) throws DataAccessException {
+        delegate.setBlackUsername(gameID, username);
+    }
+
+    @Override
+    public void updateGameData(int gameID, GameData game) throws DataAccessException {
+        delegate.updateGameData(gameID, game);
+    }
+
+    @Override
+    public void updateBoard(int gameID, ChessBoard board) throws DataAccessException {
+        delegate.updateBoard(gameID, board);
+    }
+}
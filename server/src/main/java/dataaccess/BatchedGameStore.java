@@ -0,0 +1,19 @@
+package dataaccess;
+
+import java.util.Collection;
+
+/**
+ * A game store that can take many games' pending writes in one go
+ */
+interface BatchedGameStore {
+    /**
+     * Stores the writes all together, or none of them
+     */
+    void writeBatch(Collection<PendingWrites> writes) throws DataAccessException;
+
+    /**
+     * @return whether the game's row is still there; writes to a game that is
+     * gone can never be stored
+     */
+    boolean gameExists(int gameID) throws DataAccessException;
+}
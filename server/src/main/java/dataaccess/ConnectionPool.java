@@ -0,0 +1,410 @@
+package dataaccess;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A bounded pool of open database connections, so a DAO call borrows one
+ * instead of paying for a new TCP connection and login each time.
+ * <p>
+ * Callers get a wrapper whose {@code close()} hands the connection back, so the
+ * usual try-with-resources blocks work unchanged. A connection that has sat idle
+ * a while is checked before it is lent out, idle connections are closed after
+ * {@link Settings#idleTimeoutMillis()}, and every connection is retired after
+ * {@link Settings#maxLifetimeMillis()} so none outlives the server's own
+ * timeouts. When all connections are in use, callers wait up to
+ * {@link Settings#acquireTimeoutMillis()} for one to come back.
+ */
+public final class ConnectionPool implements AutoCloseable {
+    /**
+     * Opens a new connection to the database
+     */
+    interface Factory {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * @param maxSize                connections open at once, in use or idle
+     * @param acquireTimeoutMillis   how long a caller waits for a free connection
+     * @param idleTimeoutMillis      how long a connection may sit unused before it is closed
+     * @param maxLifetimeMillis      how long a connection is kept at all
+     * @param validateAfterMillis    idle time after which a connection is checked before use
+     * @param validationTimeoutSeconds how long that check may take
+     */
+    record Settings(int maxSize, long acquireTimeoutMillis, long idleTimeoutMillis, long maxLifetimeMillis,
+                    long validateAfterMillis, int validationTimeoutSeconds) {
+        static final Settings DEFAULT = new Settings(10, 5_000, 300_000, 1_800_000, 1_000, 2);
+
+        Settings {
+            if (maxSize < 1 || acquireTimeoutMillis < 0 || idleTimeoutMillis < 1 || maxLifetimeMillis < 1
+                    || validateAfterMillis < 0 || validationTimeoutSeconds < 1) {
+                throw new IllegalArgumentException("Invalid connection pool settings");
+            }
+        }
+
+        /**
+         * Reads the {@code db.pool.*} properties, using the defaults for any left out
+         */
+        static Settings from(Properties props) {
+            return new Settings(
+                    Integer.parseInt(props.getProperty("db.pool.maxSize", String.valueOf(DEFAULT.maxSize))),
+                    Long.parseLong(props.getProperty("db.pool.acquireTimeoutMillis", String.valueOf(DEFAULT.acquireTimeoutMillis))),
+                    Long.parseLong(props.getProperty("db.pool.idleTimeoutMillis", String.valueOf(DEFAULT.idleTimeoutMillis))),
+                    Long.parseLong(props.getProperty("db.pool.maxLifetimeMillis", String.valueOf(DEFAULT.maxLifetimeMillis))),
+                    Long.parseLong(props.getProperty("db.pool.validateAfterMillis", String.valueOf(DEFAULT.validateAfterMillis))),
+                    Integer.parseInt(props.getProperty("db.pool.validationTimeoutSeconds", String.valueOf(DEFAULT.validationTimeoutSeconds))));
+        }
+    }
+
+    private static final class Pooled {
+        final Connection connection;
+        final long createdAt;
+        long returnedAt;
+
+        Pooled(Connection connection, long now) {
+            this.connection = connection;
+            this.createdAt = now;
+            this.returnedAt = now;
+        }
+    }
+
+    private final Factory factory;
+    private final Settings settings;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition returned = lock.newCondition();
+    // Most recently returned last, so busy periods reuse warm connections and the
+    // rest age out
+    private final Deque<Pooled> idle = new ArrayDeque<>();
+    private final ScheduledExecutorService evictor;
+    private int open;
+    private int waiters;
+    private boolean closed;
+
+    private final LongAdder acquired = new LongAdder();
+    private final LongAdder acquireNanos = new LongAdder();
+    private final LongAccumulator maxAcquireNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+
+    ConnectionPool(Factory factory, Settings settings) {
+        this.factory = factory;
+        this.settings = settings;
+        evictor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "db-pool-evictor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long period = Math.max(1, Math.min(settings.idleTimeoutMillis(), settings.maxLifetimeMillis()) / 2);
+        evictor.scheduleWithFixedDelay(this::evict, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Borrows a connection, opening one if none is idle and the pool has room.
+     * Closing the returned connection gives it back.
+     *
+     * @throws SQLTransientConnectionException if none is free within the acquire timeout
+     */
+    Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(settings.acquireTimeoutMillis());
+        while (true) {
+            Pooled pooled = null;
+            boolean openNew = false;
+            lock.lock();
+            try {
+                while (!closed && idle.isEmpty() && open >= settings.maxSize()) {
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        timeouts.increment();
+                        throw new SQLTransientConnectionException("Timed out after " + settings.acquireTimeoutMillis()
+                                + "ms waiting for a database connection");
+                    }
+                    waiters++;
+                    try {
+                        returned.awaitNanos(remaining);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                        throw new SQLTransientConnectionException("Interrupted waiting for a database connection", ex);
+                    } finally {
+                        waiters--;
+                    }
+                }
+                if (closed) {
+                    throw new SQLException("Connection pool is closed");
+                }
+                if (!idle.isEmpty()) {
+                    pooled = idle.pollLast();
+                } else {
+                    open++;
+                    openNew = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+
+            // Opening and checking connections talk to the database, so happen outside the lock
+            if (openNew) {
+                try {
+                    pooled = new Pooled(factory.open(), System.currentTimeMillis());
+                    created.increment();
+                } catch (SQLException | RuntimeException ex) {
+                    forget();
+                    throw ex;
+                }
+            } else if (!usable(pooled)) {
+                retire(pooled);
+                continue;
+            }
+            long waited = System.nanoTime() - start;
+            acquired.increment();
+            acquireNanos.add(waited);
+            maxAcquireNanos.accumulate(waited);
+            return lend(pooled);
+        }
+    }
+
+    private boolean usable(Pooled pooled) {
+        long now = System.currentTimeMillis();
+        if (now - pooled.createdAt >= settings.maxLifetimeMillis()) {
+            return false;
+        }
+        if (now - pooled.returnedAt < settings.validateAfterMillis()) {
+            return true;
+        }
+        try {
+            return pooled.connection.isValid(settings.validationTimeoutSeconds());
+        } catch (SQLException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Takes a connection back. One left mid-transaction is rolled back; one that
+     * is broken or too old is closed instead.
+     */
+    private void giveBack(Pooled pooled) {
+        boolean keep;
+        try {
+            if (!pooled.connection.getAutoCommit()) {
+                pooled.connection.rollback();
+                pooled.connection.setAutoCommit(true);
+            }
+            keep = !pooled.connection.isClosed()
+                    && System.currentTimeMillis() - pooled.createdAt < settings.maxLifetimeMillis();
+        } catch (SQLException ex) {
+            keep = false;
+        }
+        if (keep) {
+            lock.lock();
+            try {
+                if (!closed) {
+                    pooled.returnedAt = System.currentTimeMillis();
+                    idle.addLast(pooled);
+                    returned.signal();
+                    return;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        retire(pooled);
+    }
+
+    private void retire(Pooled pooled) {
+        try {
+            pooled.connection.close();
+        } catch (SQLException ignored) {
+            // It is being thrown away either way
+        }
+        retired.increment();
+        forget();
+    }
+
+    /**
+     * Frees the slot of a connection that is gone, waking a waiter to open another
+     */
+    private void forget() {
+        lock.lock();
+        try {
+            open--;
+            returned.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes idle connections that have gone unused too long or reached their
+     * lifetime. Runs on the evictor thread.
+     */
+    private void evict() {
+        long now = System.currentTimeMillis();
+        List<Pooled> expired = new ArrayList<>();
+        lock.lock();
+        try {
+            for (Iterator<Pooled> it = idle.iterator(); it.hasNext(); ) {
+                Pooled pooled = it.next();
+                if (now - pooled.returnedAt >= settings.idleTimeoutMillis()
+                        || now - pooled.createdAt >= settings.maxLifetimeMillis()) {
+                    it.remove();
+                    expired.add(pooled);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        expired.forEach(this::retire);
+    }
+
+    private Connection lend(Pooled pooled) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new Lent(pooled));
+    }
+
+    /**
+     * Passes calls through to the pooled connection until the borrower closes it
+     */
+    private final class Lent implements InvocationHandler {
+        private final Pooled pooled;
+        private boolean done;
+
+        Lent(Pooled pooled) {
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close" -> {
+                    if (!done) {
+                        done = true;
+                        giveBack(pooled);
+                    }
+                    return null;
+                }
+                case "isClosed" -> {
+                    return done || pooled.connection.isClosed();
+                }
+                case "equals" -> {
+                    return proxy == args[0];
+                }
+                case "hashCode" -> {
+                    return System.identityHashCode(proxy);
+                }
+                case "toString" -> {
+                    return "Pooled" + pooled.connection;
+                }
+                default -> {
+                    if (done) {
+                        throw new SQLException("Connection has been returned to the pool");
+                    }
+                    try {
+                        return method.invoke(pooled.connection, args);
+                    } catch (InvocationTargetException ex) {
+                        throw ex.getCause();
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the idle connections and stops lending. Connections still borrowed
+     * are closed as they come back.
+     */
+    @Override
+    public void close() {
+        List<Pooled> remaining;
+        lock.lock();
+        try {
+            closed = true;
+            remaining = new ArrayList<>(idle);
+            idle.clear();
+            returned.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        evictor.shutdownNow();
+        remaining.forEach(this::retire);
+    }
+
+    /**
+     * @return connections currently borrowed
+     */
+    public int active() {
+        lock.lock();
+        try {
+            return open - idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int idle() {
+        lock.lock();
+        try {
+            return idle.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return callers waiting for a connection to come back
+     */
+    public int waiters() {
+        lock.lock();
+        try {
+            return waiters;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long acquired() {
+        return acquired.sum();
+    }
+
+    /**
+     * @return the mean time to get a connection, including any wait, or 0 before any
+     */
+    public double averageAcquireMillis() {
+        long count = acquired.sum();
+        return count == 0 ? 0 : acquireNanos.sum() / 1e6 / count;
+    }
+
+    public double maxAcquireMillis() {
+        return maxAcquireNanos.get() / 1e6;
+    }
+
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    public long created() {
+        return created.sum();
+    }
+
+    public long retired() {
+        return retired.sum();
+    }
+}
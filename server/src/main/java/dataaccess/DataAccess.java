@@ -4,14 +4,24 @@ import model.data.UserData;
 import model.data.AuthData;
 import model.data.GameData;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+
 import chess.ChessGame;
+import model.ListGamesResult;
 
 public interface DataAccess {
     void clear() throws DataAccessException;
     UserData getUser(String username) throws DataAccessException;
 
     void createUser(UserData username) throws DataAccessException;
+
+    /**
+     * Like {@link #createUser}, for a user whose password the caller has already
+     * hashed, so the password is stored as given
+     */
+    void createHashedUser(UserData user) throws DataAccessException;
     void createAuth(AuthData auth) throws DataAccessException;
 
     AuthData getAuth(String authToken) throws DataAccessException;
@@ -20,9 +30,35 @@ public interface DataAccess {
     int createGame(GameData game) throws DataAccessException;
     List<GameData> listGames() throws DataAccessException;
 
+    /**
+     * Passes the summary of each game the query matches to the sink, in ID order,
+     * without loading any game's state.
+     */
+    void streamGameSummaries(GameQuery query, Consumer<ListGamesResult.GameSummary> sink) throws DataAccessException;
+
+    default List<ListGamesResult.GameSummary> listGameSummaries(GameQuery query) throws DataAccessException {
+        List<ListGamesResult.GameSummary> summaries = new ArrayList<>();
+        streamGameSummaries(query, summaries::add);
+        return summaries;
+    }
+
+    /**
+     * @return an opaque version that changes after any write that could change
+     * what {@link #streamGameSummaries} returns, and never repeats an earlier
+     * one, even across restarts. A summary read after this call is at least
+     * this new.
+     */
+    String gamesVersion() throws DataAccessException;
+
     GameData getGame(int gameID) throws DataAccessException;
     void updateGame(int gameID, ChessGame game) throws DataAccessException;
 
+    /**
+     * Saves the move just added to the end of the game's history. Cheaper than
+     * {@link #updateGame}, which writes the whole game.
+     */
+    void recordMove(int gameID, ChessGame game) throws DataAccessException;
+
     void addObserver(int gameID, String username) throws DataAccessException;
 
     String getUsernameFromAuth(String authToken) throws DataAccessException;
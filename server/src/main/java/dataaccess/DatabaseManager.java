@@ -8,6 +8,8 @@ public class DatabaseManager {
     private static String dbUsername;
     private static String dbPassword;
     private static String connectionUrl;
+    private static ConnectionPool.Settings poolSettings;
+    private static ConnectionPool pool;
 
     /*
      * Load the database information for the db.properties file.
@@ -30,10 +32,11 @@ public class DatabaseManager {
     }
 
     /**
-     * Create a connection to the database and sets the catalog based upon the
-     * properties specified in db.properties. Connections to the database should
-     * be short-lived, and you must close the connection when you are done with it.
-     * The easiest way to do that is with a try-with-resource block.
+     * Borrow a connection to the database from the pool, with the catalog set
+     * based upon the properties specified in db.properties. Connections to the
+     * database should be short-lived, and you must close the connection when you
+     * are done with it, which returns it to the pool. The easiest way to do that
+     * is with a try-with-resource block.
      * <br/>
      * <code>
      * try (var conn = DatabaseManager.getConnection()) {
@@ -43,15 +46,50 @@ public class DatabaseManager {
      */
     static Connection getConnection() throws DataAccessException {
         try {
-            //do not wrap the following line with a try-with-resources
-            var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
-            conn.setCatalog(databaseName);
-            return conn;
+            return pool().getConnection();
         } catch (SQLException ex) {
             throw new DataAccessException("Error: failed to get connection", ex);
         }
     }
 
+    /**
+     * @return the pool connections are borrowed from, for its metrics, or null if
+     * no connection has been asked for yet
+     */
+    public static synchronized ConnectionPool connectionPool() {
+        return pool;
+    }
+
+    // Opened on first use rather than at class load, so the database exists by then
+    private static synchronized ConnectionPool pool() {
+        if (pool == null) {
+            pool = new ConnectionPool(DatabaseManager::openConnection, poolSettings);
+        }
+        return pool;
+    }
+
+    /**
+     * Closes the pool's connections. A later {@link #getConnection()} starts a new pool.
+     */
+    public static synchronized void closePool() {
+        if (pool != null) {
+            pool.close();
+            pool = null;
+        }
+    }
+
+    private static Connection openConnection() throws SQLException {
+        //do not wrap the following line with a try-with-resources
+        var conn = DriverManager.getConnection(connectionUrl, dbUsername, dbPassword);
+        try {
+            conn.setCatalog(databaseName);
+        } catch (SQLException ex) {
+            conn.close();
+            throw ex;
+        }
+        return conn;
+    }
+
     private static void loadPropertiesFromResources() {
         try (var propStream = Thread.currentThread().getContextClassLoader().getResourceAsStream("db.properties")) {
             if (propStream == null) {
@@ -72,7 +110,9 @@ public class DatabaseManager {
 
         var host = props.getProperty("db.host");
         var port = Integer.parseInt(props.getProperty("db.port"));
-        connectionUrl = String.format("jdbc:mysql://%s:%d", host, port);
+        // Lets the driver send a batch of inserts as one multi-row statement
+        connectionUrl = String.format("jdbc:mysql://%s:%d?rewriteBatchedStatements=true", host, port);
+        poolSettings = ConnectionPool.Settings.from(props);
     }
 
     public static void createTables() throws DataAccessException {
@@ -98,11 +138,69 @@ public class DatabaseManager {
                 blackUsername VARCHAR(255),
                 gameName VARCHAR(255),
                 gameData TEXT NOT NULL,
-                observers TEXT
+                gameState MEDIUMBLOB,
+                snapshotPly INT NOT NULL DEFAULT 0,
+                gameOver TINYINT NOT NULL DEFAULT 0,
+                observers TEXT,
+                INDEX games_white (whiteUsername),
+                INDEX games_black (blackUsername)
             )
         """);
+            addColumn(conn, stmt, "games", "gameState", "MEDIUMBLOB AFTER gameData");
+            addColumn(conn, stmt, "games", "snapshotPly", "INT NOT NULL DEFAULT 0 AFTER gameState");
+            addColumn(conn, stmt, "games", "gameOver", "TINYINT NOT NULL DEFAULT 0 AFTER snapshotPly");
+            addIndex(conn, stmt, "games", "games_white", "whiteUsername");
+            addIndex(conn, stmt, "games", "games_black", "blackUsername");
+            stmt.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS game_moves (
+                gameID INT NOT NULL,
+                ply INT NOT NULL,
+                move SMALLINT NOT NULL,
+                playedAt TIMESTAMP(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+                PRIMARY KEY (gameID, ply),
+                FOREIGN KEY (gameID) REFERENCES games(gameID) ON DELETE CASCADE
+            )
+        """);
+            // One row, bumped in the same transaction as every write that can change a game summary
+            stmt.executeUpdate("""
+            CREATE TABLE IF NOT EXISTS games_version (
+                id TINYINT PRIMARY KEY,
+                version BIGINT NOT NULL
+            )
+        """);
+            stmt.executeUpdate("INSERT IGNORE INTO games_version (id, version) VALUES (1, 0)");
         } catch (SQLException ex) {
             throw new DataAccessException("Error creating tables", ex);
         }
     }
+
+    /**
+     * Adds a column to a table created before the column existed. Games used to be
+     * stored only as JSON in gameData; their rows are read from the JSON until
+     * they are next written, and count as in progress until then.
+     */
+    private static void addColumn(Connection conn, Statement stmt, String table, String column, String definition)
+            throws SQLException {
+        try (ResultSet columns = conn.getMetaData().getColumns(databaseName, null, table, column)) {
+            if (columns.next()) {
+                return;
+            }
+        }
+        stmt.executeUpdate("ALTER TABLE " + table + " ADD COLUMN " + column + " " + definition);
+    }
+
+    /**
+     * Adds an index to a table created before the index existed
+     */
+    private static void addIndex(Connection conn, Statement stmt, String table, String index, String column)
+            throws SQLException {
+        try (ResultSet indexes = conn.getMetaData().getIndexInfo(databaseName, null, table, false, false)) {
+            while (indexes.next()) {
+                if (index.equalsIgnoreCase(indexes.getString("INDEX_NAME"))) {
+                    return;
+                }
+            }
+        }
+        stmt.executeUpdate("CREATE INDEX " + index + " ON " + table + " (" + column + ")");
+    }
 }
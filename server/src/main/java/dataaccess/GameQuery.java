@@ -0,0 +1,42 @@
+package dataaccess;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Which games to list, and which page of them. Pages are keyset pages: games
+ * come in ascending ID order, starting after {@code afterGameID}, so each page
+ * is found through the primary key however deep into the list it is.
+ *
+ * @param afterGameID    list games with a greater ID; 0 for the first page
+ * @param limit          at most this many games, or 0 for no limit
+ * @param openSeatsOnly  only games with a seat free
+ * @param player         only games this user plays in, or null for anyone's
+ * @param inProgressOnly only games that are not over
+ */
+public record GameQuery(int afterGameID, int limit, boolean openSeatsOnly, String player, boolean inProgressOnly) {
+    public static final GameQuery ALL = new GameQuery(0, 0, false, null, false);
+
+    public GameQuery {
+        if (afterGameID < 0 || limit < 0) {
+            throw new IllegalArgumentException("Page position and limit cannot be negative");
+        }
+    }
+
+    /**
+     * @return the same filters, for the page after the given game
+     */
+    public GameQuery after(int gameID) {
+        return new GameQuery(gameID, limit, openSeatsOnly, player, inProgressOnly);
+    }
+
+    /**
+     * @return the query as text that two queries share only if they are equal,
+     * with the player URL-encoded so the text holds no quotes, commas or spaces
+     */
+    public String canonical() {
+        String text = "after=" + afterGameID + "&limit=" + limit + "&open=" + openSeatsOnly
+                + "&inProgress=" + inProgressOnly;
+        return player == null ? text : text + "&player=" + URLEncoder.encode(player, StandardCharsets.UTF_8);
+    }
+}
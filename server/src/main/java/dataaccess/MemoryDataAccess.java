@@ -2,11 +2,14 @@ package dataaccess;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
 import chess.ChessBoard;
 
 import java.util.ArrayList;
 import java.util.List;
 import chess.ChessGame;
+import model.ListGamesResult;
 import model.data.AuthData;
 import model.data.GameData;
 import model.data.UserData;
@@ -15,11 +18,14 @@ public class MemoryDataAccess implements DataAccess{
     private final Map<String, UserData> users = new HashMap<>();
     private final Map<Integer, GameData> games = new HashMap<>();
     private final Map<String, AuthData> authTokens = new HashMap<>();
+    // Starts from the clock so a new instance never repeats an earlier one's versions
+    private long gamesVersion = System.currentTimeMillis() * 1_000;
 
     public void clear(){
         users.clear();
         games.clear();
         authTokens.clear();
+        gamesVersion++;
     }
 
     public UserData getUser(String username) {
@@ -30,6 +36,11 @@ public class MemoryDataAccess implements DataAccess{
         users.put(user.username(), user);
     }
 
+    @Override
+    public void createHashedUser(UserData user) {
+        users.put(user.username(), user);
+    }
+
     public void createAuth(AuthData auth) {
         authTokens.put(auth.authToken(), auth);
     }
@@ -45,14 +56,43 @@ public class MemoryDataAccess implements DataAccess{
     @Override
     public int createGame(GameData game) {
         games.put(game.gameID(), game);
+        gamesVersion++;
         return game.gameID();
     }
 
+    @Override
+    public String gamesVersion() {
+        return Long.toString(gamesVersion);
+    }
+
     @Override
     public List<GameData> listGames() {
         return new ArrayList<>(games.values());
     }
 
+    @Override
+    public void streamGameSummaries(GameQuery query, Consumer<ListGamesResult.GameSummary> sink) {
+        int sent = 0;
+        for (GameData game : new TreeMap<>(games).tailMap(query.afterGameID(), false).values()) {
+            if (query.limit() != 0 && sent == query.limit()) {
+                return;
+            }
+            if (query.openSeatsOnly() && game.whiteUsername() != null && game.blackUsername() != null) {
+                continue;
+            }
+            if (query.player() != null && !query.player().equals(game.whiteUsername())
+                    && !query.player().equals(game.blackUsername())) {
+                continue;
+            }
+            if (query.inProgressOnly() && game.game() != null && game.game().isGameOver()) {
+                continue;
+            }
+            sink.accept(new ListGamesResult.GameSummary(
+                    game.gameID(), game.whiteUsername(), game.blackUsername(), game.gameName()));
+            sent++;
+        }
+    }
+
     @Override
     public GameData getGame(int gameID) {
         return games.get(gameID);
@@ -72,7 +112,13 @@ public class MemoryDataAccess implements DataAccess{
                 game,
                 old.observers()
         ));
+        gamesVersion++;
     }
+    @Override
+    public void recordMove(int gameID, ChessGame game) throws DataAccessException {
+        updateGame(gameID, game);
+    }
+
     @Override
     public void setBlackUsername(int gameID, String username) throws DataAccessException {
         GameData old = games.get(gameID);
@@ -87,6 +133,7 @@ public class MemoryDataAccess implements DataAccess{
                 old.game(),
                 old.observers()
         ));
+        gamesVersion++;
     }
     @Override
     public void setWhiteUsername(int gameID, String username) throws DataAccessException {
@@ -103,6 +150,7 @@ public class MemoryDataAccess implements DataAccess{
                 old.game(),
                 old.observers()
         ));
+        gamesVersion++;
     }
 
     @Override
@@ -128,6 +176,7 @@ public class MemoryDataAccess implements DataAccess{
         }
 
         games.put(gameID, gameData);
+        gamesVersion++;
         System.out.println("updateGameData: writing whiteUsername = " + gameData.whiteUsername());
     }
 
@@ -138,6 +187,7 @@ public class MemoryDataAccess implements DataAccess{
             throw new DataAccessException("Game not found");
         }
         gameData.setBoard(board);
+        gamesVersion++;
     }
 }
 
@@ -1,17 +1,29 @@
 package dataaccess;
 
 import java.sql.*;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
 import com.google.gson.Gson;
+import chess.ChessBoard;
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import chess.InvalidMoveException;
 import java.util.ArrayList;
 
+import model.ListGamesResult;
 import model.data.AuthData;
 import model.data.GameData;
 import model.data.UserData;
 import org.mindrot.jbcrypt.BCrypt;
 
-public class MySqlDataAccess implements DataAccess {
+public class MySqlDataAccess implements DataAccess, BatchedGameStore {
+    /**
+     * Plies between the snapshots {@link #recordMove} writes to the games row,
+     * which bounds how many journal moves a load replays
+     */
+    static final int SNAPSHOT_INTERVAL = 32;
 
     public MySqlDataAccess() throws DataAccessException {
         DatabaseManager.createDatabase();
@@ -58,13 +70,18 @@ public class MySqlDataAccess implements DataAccess {
 
     @Override
     public void createUser(UserData user) throws DataAccessException {
-        String sql = "INSERT INTO users (username, password, email) VALUES (?, ?, ?)";
         String hashedPassword = BCrypt.hashpw(user.password(), BCrypt.gensalt());
+        createHashedUser(new UserData(user.username(), hashedPassword, user.email()));
+    }
+
+    @Override
+    public void createHashedUser(UserData user) throws DataAccessException {
+        String sql = "INSERT INTO users (username, password, email) VALUES (?, ?, ?)";
 
         try (Connection conn = DatabaseManager.getConnection();
              PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setString(1, user.username());
-            stmt.setString(2, hashedPassword);
+            stmt.setString(2, user.password());
             stmt.setString(3, user.email());
             System.out.println("➕ Creating user: " + user.username());
 
@@ -162,52 +179,54 @@ public class MySqlDataAccess implements DataAccess {
             throw new DataAccessException("Error: Invalid game data");
         }
 
-        String insertSql = "INSERT INTO games (whiteUsername, blackUsername, gameName, gameData) VALUES (?, ?, ?, ?)";
-        String gameJson = new Gson().toJson(game.game());
+        String insertSql = "INSERT INTO games (whiteUsername, blackUsername, gameName, gameData, gameState, snapshotPly, gameOver) VALUES (?, ?, ?, '', ?, ?, ?)";
+        byte[] gameState = GameCodec.encode(game.game());
 
-        if (game.gameName() == null || game.gameName().isBlank()) {
-            throw new DataAccessException("Error: Game name cannot be null or blank");
-        }
-        if (gameJson == null || gameJson.isBlank()) {
-            throw new DataAccessException("Error: Game JSON serialization failed or empty");
-        }
-
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(insertSql, Statement.RETURN_GENERATED_KEYS)) {
 
-            if (game.whiteUsername() == null || game.whiteUsername().isBlank()) {
-                stmt.setNull(1, Types.VARCHAR);
-            } else {
-                stmt.setString(1, game.whiteUsername());
-            }
+                if (game.whiteUsername() == null || game.whiteUsername().isBlank()) {
+                    stmt.setNull(1, Types.VARCHAR);
+                } else {
+                    stmt.setString(1, game.whiteUsername());
+                }
 
-            if (game.blackUsername() == null || game.blackUsername().isBlank()) {
-                stmt.setNull(2, Types.VARCHAR);
-            } else {
-                stmt.setString(2, game.blackUsername());
-            }
+                if (game.blackUsername() == null || game.blackUsername().isBlank()) {
+                    stmt.setNull(2, Types.VARCHAR);
+                } else {
+                    stmt.setString(2, game.blackUsername());
+                }
 
-            stmt.setString(3, game.gameName());
-            stmt.setString(4, gameJson);
+                stmt.setString(3, game.gameName());
+                stmt.setBytes(4, gameState);
+                stmt.setInt(5, game.game().getMoveHistory().size());
+                stmt.setBoolean(6, game.game().isGameOver());
 
-            int affectedRows = 0;
-            try {
-                affectedRows = stmt.executeUpdate();
-            } catch (SQLException e) {
-                throw new DataAccessException("Error: SQL Error during game insert: " + e.getSQLState() + " - " + e.getMessage(), e);
-            }
-            if (affectedRows == 0) {
-                throw new DataAccessException("Error: Creating game failed, no rows affected.");
-            }
+                int affectedRows = 0;
+                try {
+                    affectedRows = stmt.executeUpdate();
+                } catch (SQLException e) {
+                    throw new DataAccessException("Error: SQL Error during game insert: " + e.getSQLState() + " - " + e.getMessage(), e);
+                }
+                if (affectedRows == 0) {
+                    throw new DataAccessException("Error: Creating game failed, no rows affected.");
+                }
 
-            try (ResultSet rs = stmt.getGeneratedKeys()) {
-                if (rs.next()) {
-                    return rs.getInt(1);
-                } else {
-                    throw new DataAccessException("Creating game failed, no ID obtained.");
+                try (ResultSet rs = stmt.getGeneratedKeys()) {
+                    if (rs.next()) {
+                        int gameID = rs.getInt(1);
+                        bumpGamesVersion(conn);
+                        conn.commit();
+                        return gameID;
+                    } else {
+                        throw new DataAccessException("Creating game failed, no ID obtained.");
+                    }
                 }
+            } catch (SQLException | DataAccessException ex) {
+                conn.rollback();
+                throw ex;
             }
-
         } catch (SQLException e) {
             throw new DataAccessException("Failed to insert game: " + game.gameName(), e);
         }
@@ -215,11 +234,9 @@ public class MySqlDataAccess implements DataAccess {
 
     @Override
     public GameData getGame(int gameID) throws DataAccessException {
-        String sql = "SELECT * FROM games WHERE gameID = ?";
-
         try (Connection conn = DatabaseManager.getConnection()) {
-            String sql2 = "SELECT gameID, whiteUsername, blackUsername, gameName, gameData, observers FROM games WHERE gameID = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql2)) {
+            String sql = "SELECT gameID, whiteUsername, blackUsername, gameName, gameData, gameState, snapshotPly FROM games WHERE gameID = ?";
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, gameID);
 
                 try (ResultSet rs = stmt.executeQuery()) {
@@ -227,8 +244,7 @@ public class MySqlDataAccess implements DataAccess {
                         String whiteUsername = rs.getString("whiteUsername");
                         String blackUsername = rs.getString("blackUsername");
                         String gameName = rs.getString("gameName");
-                        String gameJson = rs.getString("gameData");
-                        ChessGame game = new Gson().fromJson(gameJson, ChessGame.class);
+                        ChessGame game = loadGame(conn, rs);
                         return new GameData(gameID, whiteUsername, blackUsername, gameName, game, new ArrayList<>());
                     } else {
                         return null;
@@ -242,13 +258,63 @@ public class MySqlDataAccess implements DataAccess {
 
     @Override
     public void updateGame(int gameID, ChessGame game) throws DataAccessException {
-        String gameJson = new Gson().toJson(game);
-        updateGameDataField(gameID, gameJson);
+        updateGameState(gameID, game);
+    }
+
+    /**
+     * Appends the game's last move to the game_moves journal, a fixed-size insert
+     * however long the game is. Every {@link #SNAPSHOT_INTERVAL} plies, and when
+     * the game ends, the position is also snapshotted into the games row in the
+     * same transaction.
+     */
+    @Override
+    public void recordMove(int gameID, ChessGame game) throws DataAccessException {
+        List<ChessMove> history = game.getMoveHistory();
+        int ply = history.size();
+        if (ply == 0) {
+            throw new DataAccessException("Error: No move to record for game " + gameID);
+        }
+        boolean snapshot = ply % SNAPSHOT_INTERVAL == 0 || game.isGameOver();
+        String insertSql = "INSERT INTO game_moves (gameID, ply, move) VALUES (?, ?, ?)";
+        String snapshotSql = "UPDATE games SET gameData = '', gameState = ?, snapshotPly = ?, gameOver = ? WHERE gameID = ?";
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(!snapshot);
+            try {
+                try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+                    stmt.setInt(1, gameID);
+                    stmt.setInt(2, ply);
+                    stmt.setShort(3, (short) GameCodec.encodeMove(history.get(ply - 1)));
+                    stmt.executeUpdate();
+                }
+                if (snapshot) {
+                    backfillJournal(conn, gameID, ply);
+                    try (PreparedStatement stmt = conn.prepareStatement(snapshotSql)) {
+                        stmt.setBytes(1, GameCodec.encodeSnapshot(game));
+                        stmt.setInt(2, ply);
+                        stmt.setBoolean(3, game.isGameOver());
+                        stmt.setInt(4, gameID);
+                        stmt.executeUpdate();
+                    }
+                    if (game.isGameOver()) {
+                        bumpGamesVersion(conn);
+                    }
+                    conn.commit();
+                }
+            } catch (SQLException | DataAccessException ex) {
+                if (snapshot) {
+                    conn.rollback();
+                }
+                throw ex;
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error recording move " + ply + " of game " + gameID, ex);
+        }
     }
 
     @Override
     public List<GameData> listGames() throws DataAccessException {
-        String sql = "SELECT gameID, whiteUsername, blackUsername, gameName, gameData FROM games";
+        String sql = "SELECT gameID, whiteUsername, blackUsername, gameName, gameData, gameState, snapshotPly FROM games";
         List<GameData> games = new ArrayList<>();
 
         try (Connection conn = DatabaseManager.getConnection();
@@ -259,9 +325,8 @@ public class MySqlDataAccess implements DataAccess {
                 String white = rs.getString("whiteUsername");
                 String black = rs.getString("blackUsername");
                 String name = rs.getString("gameName");
-                String gameJson = rs.getString("gameData");
 
-                ChessGame game = new Gson().fromJson(gameJson, ChessGame.class);
+                ChessGame game = loadGame(conn, rs);
                 games.add(new GameData(gameID, white, black, name, game, new ArrayList<>()));
             }
             return games;
@@ -271,15 +336,88 @@ public class MySqlDataAccess implements DataAccess {
 
     }
 
+    /**
+     * Reads only the summary columns, through the gameID primary key or the
+     * username indexes, so no game state is loaded or decoded. Rows are streamed
+     * from the server one at a time rather than buffered whole.
+     */
+    @Override
+    public void streamGameSummaries(GameQuery query, Consumer<ListGamesResult.GameSummary> sink) throws DataAccessException {
+        StringBuilder sql = new StringBuilder("SELECT gameID, whiteUsername, blackUsername, gameName FROM games WHERE gameID > ?");
+        if (query.openSeatsOnly()) {
+            sql.append(" AND (whiteUsername IS NULL OR blackUsername IS NULL)");
+        }
+        if (query.player() != null) {
+            sql.append(" AND (whiteUsername = ? OR blackUsername = ?)");
+        }
+        if (query.inProgressOnly()) {
+            sql.append(" AND gameOver = 0");
+        }
+        sql.append(" ORDER BY gameID");
+        if (query.limit() != 0) {
+            sql.append(" LIMIT ?");
+        }
+
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+            int index = 1;
+            stmt.setInt(index++, query.afterGameID());
+            if (query.player() != null) {
+                stmt.setString(index++, query.player());
+                stmt.setString(index++, query.player());
+            }
+            if (query.limit() != 0) {
+                stmt.setInt(index, query.limit());
+            }
+            stmt.setFetchSize(Integer.MIN_VALUE);
+
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    sink.accept(new ListGamesResult.GameSummary(rs.getInt("gameID"), rs.getString("whiteUsername"),
+                            rs.getString("blackUsername"), rs.getString("gameName")));
+                }
+            }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error listing games", ex);
+        }
+    }
+
+    /**
+     * Read from the games_version row, which every write that can change a
+     * summary bumps in its own transaction, so all servers sharing the database
+     * see the same version, and a restart keeps it
+     */
+    @Override
+    public String gamesVersion() throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT version FROM games_version WHERE id = 1");
+             ResultSet rs = stmt.executeQuery()) {
+            if (!rs.next()) {
+                throw new DataAccessException("Error: games_version row missing");
+            }
+            return Long.toString(rs.getLong(1));
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error reading games version", ex);
+        }
+    }
+
+    private static void bumpGamesVersion(Connection conn) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            stmt.executeUpdate("UPDATE games_version SET version = version + 1 WHERE id = 1");
+        }
+    }
+
     @Override
     public void clear() throws DataAccessException {
         try (Connection conn = DatabaseManager.getConnection()) {
             try (Statement stmt = conn.createStatement()) {
                 stmt.executeUpdate("DELETE FROM auth");
+                stmt.executeUpdate("DELETE FROM game_moves");
                 stmt.executeUpdate("DELETE FROM games");
                 stmt.executeUpdate("DELETE FROM users");
             }
             DatabaseManager.createTables();
+            bumpGamesVersion(conn);
         } catch (SQLException ex) {
             throw new DataAccessException("Failed to clear database", ex);
         }
@@ -315,24 +453,34 @@ public class MySqlDataAccess implements DataAccess {
 
     @Override
     public void updateGameData(int gameID, GameData game) throws DataAccessException {
-        String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameData = ?, observers = ? WHERE gameID = ?";
-        String gameJson = new Gson().toJson(game.game());
+        String sql = "UPDATE games SET whiteUsername = ?, blackUsername = ?, gameName = ?, gameData = '', gameState = ?, snapshotPly = ?, gameOver = ?, observers = ? WHERE gameID = ?";
+        byte[] gameState = GameCodec.encode(game.game());
         String observersJson = new Gson().toJson(game.observers());
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
-
-            System.out.println("updateGameData: whiteUsername = " + game.whiteUsername());
-            stmt.setString(1, game.whiteUsername());
-            stmt.setString(2, game.blackUsername());
-            stmt.setString(3, game.gameName());
-            stmt.setString(4, gameJson);
-            stmt.setString(5, observersJson);
-            stmt.setInt(6, gameID);
-
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new DataAccessException("No game found with ID: " + gameID);
+        try (Connection conn = DatabaseManager.getConnection()) {
+            // The row and the journal trim commit together, so no stale moves outlive a crash
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                System.out.println("updateGameData: whiteUsername = " + game.whiteUsername());
+                stmt.setString(1, game.whiteUsername());
+                stmt.setString(2, game.blackUsername());
+                stmt.setString(3, game.gameName());
+                stmt.setBytes(4, gameState);
+                stmt.setInt(5, game.game().getMoveHistory().size());
+                stmt.setBoolean(6, game.game().isGameOver());
+                stmt.setString(7, observersJson);
+                stmt.setInt(8, gameID);
+
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new DataAccessException("No game found with ID: " + gameID);
+                }
+                trimJournal(conn, gameID, game.game().getMoveHistory().size());
+                bumpGamesVersion(conn);
+                conn.commit();
+            } catch (SQLException | DataAccessException ex) {
+                conn.rollback();
+                throw ex;
             }
 
         } catch (SQLException ex) {
@@ -340,27 +488,235 @@ public class MySqlDataAccess implements DataAccess {
         }
     }
     @Override
-    public void updateBoard(int gameID, chess.ChessBoard board) throws DataAccessException {
-        String gameJson = new Gson().toJson(board);
-        updateGameDataField(gameID, gameJson);
+    public void updateBoard(int gameID, ChessBoard board) throws DataAccessException {
+        GameData stored = getGame(gameID);
+        if (stored == null) {
+            throw new DataAccessException("No game found with ID: " + gameID);
+        }
+        ChessGame game = stored.game();
+        game.setBoard(new ChessBoard(board));
+        updateGameState(gameID, game);
     }
 
-    private void updateGameDataField(int gameID, String gameDataJson) throws DataAccessException {
-        String sql = "UPDATE games SET gameData = ? WHERE gameID = ?";
+    /**
+     * Loads the game from a row: the snapshot, with the journal's moves after it
+     * replayed on top. A snapshot has no move history, so the journal's earlier
+     * moves fill that in; rows written whole, including legacy JSON ones, have
+     * their history and only replay what came after.
+     */
+    private static ChessGame loadGame(Connection conn, ResultSet rs) throws SQLException, DataAccessException {
+        int gameID = rs.getInt("gameID");
+        ChessGame game = readGame(rs);
+        List<ChessMove> history = game.getMoveHistory();
+        int replayAfter = Math.max(history.size(), rs.getInt("snapshotPly"));
+
+        String sql = "SELECT ply, move FROM game_moves WHERE gameID = ? AND ply > ? ORDER BY ply";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, gameID);
+            stmt.setInt(2, history.size());
+            try (ResultSet moves = stmt.executeQuery()) {
+                while (moves.next()) {
+                    int ply = moves.getInt("ply");
+                    if (ply != history.size() + 1) {
+                        throw new DataAccessException("Error: Move journal of game " + gameID + " is missing ply " + (history.size() + 1));
+                    }
+                    ChessMove move = GameCodec.decodeMove(moves.getShort("move") & 0xFFFF);
+                    if (ply > replayAfter) {
+                        game.makeMove(move, game.getTeamTurn());
+                    }
+                    history.add(move);
+                }
+            }
+        } catch (InvalidMoveException | RuntimeException ex) {
+            throw new DataAccessException("Error replaying game " + gameID, ex);
+        }
+        return game;
+    }
 
-        try (Connection conn = DatabaseManager.getConnection();
-             PreparedStatement stmt = conn.prepareStatement(sql)) {
+    /**
+     * Reads the game from a row, decoding the binary state, or for rows written
+     * before it existed, the JSON in gameData.
+     */
+    private static ChessGame readGame(ResultSet rs) throws SQLException, DataAccessException {
+        byte[] gameState = rs.getBytes("gameState");
+        try {
+            if (gameState != null) {
+                return GameCodec.decode(gameState);
+            }
+            return new Gson().fromJson(rs.getString("gameData"), ChessGame.class);
+        } catch (RuntimeException ex) {
+            throw new DataAccessException("Error reading game " + rs.getInt("gameID"), ex);
+        }
+    }
 
-            stmt.setString(1, gameDataJson);
-            stmt.setInt(2, gameID);
+    /**
+     * Writes the whole game, history included, and clears the legacy JSON, so a
+     * game is never stored twice.
+     */
+    private void updateGameState(int gameID, ChessGame game) throws DataAccessException {
+        String sql = "UPDATE games SET gameData = '', gameState = ?, snapshotPly = ?, gameOver = ? WHERE gameID = ?";
 
-            int rowsAffected = stmt.executeUpdate();
-            if (rowsAffected == 0) {
-                throw new DataAccessException("No game found with ID: " + gameID);
+        try (Connection conn = DatabaseManager.getConnection()) {
+            // The row and the journal trim commit together, so no stale moves outlive a crash
+            conn.setAutoCommit(false);
+            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+                stmt.setBytes(1, GameCodec.encode(game));
+                stmt.setInt(2, game.getMoveHistory().size());
+                stmt.setBoolean(3, game.isGameOver());
+                stmt.setInt(4, gameID);
+
+                int rowsAffected = stmt.executeUpdate();
+                if (rowsAffected == 0) {
+                    throw new DataAccessException("No game found with ID: " + gameID);
+                }
+                trimJournal(conn, gameID, game.getMoveHistory().size());
+                bumpGamesVersion(conn);
+                conn.commit();
+            } catch (SQLException | DataAccessException ex) {
+                conn.rollback();
+                throw ex;
+            }
+
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error updating game state in database", ex);
+        }
+    }
+
+    /**
+     * Writes many games' pending writes in one transaction, as one batched
+     * statement per kind of write. Journal inserts overwrite a move already
+     * stored at the same ply, so replaying writes that were stored before a
+     * crash does no harm.
+     */
+    @Override
+    public void writeBatch(Collection<PendingWrites> writes) throws DataAccessException {
+        String wholeSql = "UPDATE games SET gameData = '', gameState = ?, snapshotPly = ?, gameOver = ? WHERE gameID = ?";
+        String trimSql = "DELETE FROM game_moves WHERE gameID = ? AND ply > ?";
+        String moveSql = "INSERT INTO game_moves (gameID, ply, move) VALUES (?, ?, ?) ON DUPLICATE KEY UPDATE move = VALUES(move)";
+
+        try (Connection conn = DatabaseManager.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement whole = conn.prepareStatement(wholeSql);
+                 PreparedStatement trim = conn.prepareStatement(trimSql);
+                 PreparedStatement moves = conn.prepareStatement(moveSql);
+                 PreparedStatement snapshots = conn.prepareStatement(wholeSql)) {
+                // Journal moves alone leave every summary as it was
+                boolean changesSummaries = false;
+                for (PendingWrites pending : writes) {
+                    if (pending.wholeGame != null) {
+                        changesSummaries = true;
+                        whole.setBytes(1, pending.wholeGame);
+                        whole.setInt(2, pending.wholePly);
+                        whole.setBoolean(3, GameCodec.isGameOver(pending.wholeGame));
+                        whole.setInt(4, pending.gameID);
+                        whole.addBatch();
+                        trim.setInt(1, pending.gameID);
+                        trim.setInt(2, pending.wholePly);
+                        trim.addBatch();
+                    }
+                    for (int i = 0; i < pending.moves.size(); i++) {
+                        moves.setInt(1, pending.gameID);
+                        moves.setInt(2, pending.firstPly + i);
+                        moves.setShort(3, pending.moves.get(i));
+                        moves.addBatch();
+                    }
+                }
+                // Whole games first, since the moves pending for a game come after its whole write
+                whole.executeBatch();
+                trim.executeBatch();
+                moves.executeBatch();
+                // Snapshots last, once the journal under each one is complete
+                for (PendingWrites pending : writes) {
+                    if (pending.snapshot != null) {
+                        backfillJournal(conn, pending.gameID, pending.snapshotPly);
+                        changesSummaries |= GameCodec.isGameOver(pending.snapshot);
+                        snapshots.setBytes(1, pending.snapshot);
+                        snapshots.setInt(2, pending.snapshotPly);
+                        snapshots.setBoolean(3, GameCodec.isGameOver(pending.snapshot));
+                        snapshots.setInt(4, pending.gameID);
+                        snapshots.addBatch();
+                    }
+                }
+                snapshots.executeBatch();
+                if (changesSummaries) {
+                    bumpGamesVersion(conn);
+                }
+                conn.commit();
+            } catch (SQLException | DataAccessException ex) {
+                conn.rollback();
+                throw ex;
             }
+        } catch (SQLException ex) {
+            throw new DataAccessException("Error writing " + writes.size() + " games", ex);
+        }
+    }
 
+    @Override
+    public boolean gameExists(int gameID) throws DataAccessException {
+        try (Connection conn = DatabaseManager.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT 1 FROM games WHERE gameID = ?")) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                return rs.next();
+            }
         } catch (SQLException ex) {
-            throw new DataAccessException("Error updating gameData in database", ex);
+            throw new DataAccessException("Error checking for game " + gameID, ex);
+        }
+    }
+
+    /**
+     * Makes sure the journal holds plies 1 to {@code ply} before a snapshot, which
+     * has no history, replaces the row. Rows written whole, legacy JSON ones
+     * included, keep their early moves only in the row; those are copied into
+     * the journal first, in the snapshot's transaction.
+     */
+    private static void backfillJournal(Connection conn, int gameID, int ply) throws SQLException, DataAccessException {
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT COUNT(*) FROM game_moves WHERE gameID = ? AND ply <= ?")) {
+            stmt.setInt(1, gameID);
+            stmt.setInt(2, ply);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (rs.next() && rs.getInt(1) >= ply) {
+                    return;
+                }
+            }
+        }
+
+        List<ChessMove> history;
+        String sql = "SELECT gameID, gameData, gameState, snapshotPly FROM games WHERE gameID = ?";
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setInt(1, gameID);
+            try (ResultSet rs = stmt.executeQuery()) {
+                if (!rs.next()) {
+                    // The snapshot will not find the row either
+                    return;
+                }
+                history = loadGame(conn, rs).getMoveHistory();
+            }
+        }
+        if (history.size() < ply) {
+            throw new DataAccessException("Error: Game " + gameID + " has no history before ply " + (history.size() + 1));
+        }
+        String insertSql = "INSERT IGNORE INTO game_moves (gameID, ply, move) VALUES (?, ?, ?)";
+        try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+            for (int i = 1; i <= ply; i++) {
+                stmt.setInt(1, gameID);
+                stmt.setInt(2, i);
+                stmt.setShort(3, (short) GameCodec.encodeMove(history.get(i - 1)));
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+        }
+    }
+
+    /**
+     * Drops journal moves past a game that was just written whole, so a load never
+     * replays moves the written game does not have.
+     */
+    private static void trimJournal(Connection conn, int gameID, int ply) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement("DELETE FROM game_moves WHERE gameID = ? AND ply > ?")) {
+            stmt.setInt(1, gameID);
+            stmt.setInt(2, ply);
+            stmt.executeUpdate();
         }
     }
 }
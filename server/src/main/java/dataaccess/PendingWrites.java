@@ -0,0 +1,74 @@
+package dataaccess;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The writes to one game that have been accepted but not yet stored, coalesced:
+ * at most one whole-game write, the journal moves made after it, and the latest
+ * snapshot among those moves. Not thread safe.
+ */
+final class PendingWrites {
+    final int gameID;
+    // The whole game, history included, written before any of the moves below
+    byte[] wholeGame;
+    int wholePly;
+    // Consecutive journal moves, the first at firstPly
+    int firstPly;
+    final List<Short> moves = new ArrayList<>();
+    // A history-less snapshot at snapshotPly, written after the moves
+    byte[] snapshot;
+    int snapshotPly;
+
+    PendingWrites(int gameID) {
+        this.gameID = gameID;
+    }
+
+    /**
+     * Replaces everything pending, since the whole game includes it
+     */
+    void writeWhole(byte[] game, int ply) {
+        wholeGame = game;
+        wholePly = ply;
+        moves.clear();
+        snapshot = null;
+    }
+
+    /**
+     * @param snapshot the game after the move without history, or null if this
+     *                 move does not need one
+     * @throws DataAccessException if the move does not follow the pending ones
+     */
+    void addMove(int ply, short move, byte[] snapshot) throws DataAccessException {
+        if (moves.isEmpty()) {
+            if (wholeGame != null && ply != wholePly + 1) {
+                throw new DataAccessException("Error: Move " + ply + " of game " + gameID + " does not follow move " + wholePly);
+            }
+            firstPly = ply;
+        } else if (ply != lastPly() + 1) {
+            throw new DataAccessException("Error: Move " + ply + " of game " + gameID + " does not follow move " + lastPly());
+        }
+        moves.add(move);
+        if (snapshot != null) {
+            this.snapshot = snapshot;
+            snapshotPly = ply;
+        }
+    }
+
+    /**
+     * Adds writes accepted after these, as if they had been made here
+     */
+    void append(PendingWrites later) throws DataAccessException {
+        if (later.wholeGame != null) {
+            writeWhole(later.wholeGame, later.wholePly);
+        }
+        for (int i = 0; i < later.moves.size(); i++) {
+            int ply = later.firstPly + i;
+            addMove(ply, later.moves.get(i), ply == later.snapshotPly ? later.snapshot : null);
+        }
+    }
+
+    int lastPly() {
+        return firstPly + moves.size() - 1;
+    }
+}
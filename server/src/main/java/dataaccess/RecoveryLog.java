@@ -0,0 +1,193 @@
+package dataaccess;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A local append-only record of game writes that have been accepted but may not
+ * be in the database yet, so they survive the server stopping before a flush.
+ * <p>
+ * The log is a series of numbered segment files. Writes go to the newest; a
+ * flush rotates to a new segment first, and once the flushed writes are stored
+ * the segments up to it are deleted. Each record is handed to the operating
+ * system as it is written, which survives the process dying, and forced to disk
+ * on {@link #sync()}. Records carry a checksum, so one torn by a crash ends the
+ * segment rather than being misread.
+ */
+final class RecoveryLog implements AutoCloseable {
+    private static final byte MOVE = 1;
+    private static final byte WHOLE = 2;
+    private static final String PREFIX = "writes-";
+    private static final String SUFFIX = ".log";
+    private static final int MAX_RECORD = 1 << 24;
+
+    private final Path directory;
+    private long segment;
+    private FileOutputStream file;
+    private DataOutputStream out;
+
+    /**
+     * Opens the log in a directory, creating it if needed. Segments left from an
+     * earlier run are kept for {@link #recover()}.
+     */
+    RecoveryLog(Path directory) throws IOException {
+        this.directory = directory;
+        Files.createDirectories(directory);
+        for (Path path : segments()) {
+            segment = Math.max(segment, number(path));
+        }
+        open(segment + 1);
+    }
+
+    /**
+     * @return the writes in the segments before the current one, coalesced per game
+     */
+    synchronized Map<Integer, PendingWrites> recover() throws IOException, DataAccessException {
+        Map<Integer, PendingWrites> writes = new HashMap<>();
+        for (Path path : segments()) {
+            if (number(path) < segment) {
+                read(path, writes);
+            }
+        }
+        return writes;
+    }
+
+    synchronized void appendMove(int gameID, int ply, short move, byte[] snapshot) throws IOException {
+        append(MOVE, gameID, ply, move, snapshot);
+    }
+
+    synchronized void appendWhole(int gameID, int ply, byte[] game) throws IOException {
+        append(WHOLE, gameID, ply, (short) 0, game);
+    }
+
+    private void append(byte type, int gameID, int ply, short move, byte[] payload) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + (payload == null ? 0 : payload.length));
+        DataOutputStream body = new DataOutputStream(bytes);
+        body.writeByte(type);
+        body.writeInt(gameID);
+        body.writeInt(ply);
+        body.writeShort(move);
+        body.writeInt(payload == null ? -1 : payload.length);
+        if (payload != null) {
+            body.write(payload);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(bytes.toByteArray());
+        out.writeInt(bytes.size());
+        bytes.writeTo(out);
+        out.writeInt((int) crc.getValue());
+        out.flush();
+    }
+
+    /**
+     * Forces the current segment to disk
+     */
+    synchronized void sync() throws IOException {
+        file.getChannel().force(false);
+    }
+
+    /**
+     * Closes the current segment and starts a new one
+     *
+     * @return the number of the closed segment, for {@link #deleteThrough}
+     */
+    synchronized long rotate() throws IOException {
+        long closed = segment;
+        sync();
+        out.close();
+        open(closed + 1);
+        return closed;
+    }
+
+    /**
+     * Deletes the segments up to and including the given one, whose writes are stored
+     */
+    synchronized void deleteThrough(long last) throws IOException {
+        for (Path path : segments()) {
+            if (number(path) <= last) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        out.close();
+    }
+
+    private void open(long number) throws IOException {
+        segment = number;
+        file = new FileOutputStream(directory.resolve(String.format("%s%010d%s", PREFIX, number, SUFFIX)).toFile(), true);
+        out = new DataOutputStream(file);
+    }
+
+    private List<Path> segments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> found = Files.newDirectoryStream(directory, PREFIX + "*" + SUFFIX)) {
+            found.forEach(paths::add);
+        }
+        paths.sort(null);
+        return paths;
+    }
+
+    private static long number(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private static void read(Path path, Map<Integer, PendingWrites> writes) throws IOException, DataAccessException {
+        try (InputStream stream = new BufferedInputStream(Files.newInputStream(path))) {
+            DataInputStream in = new DataInputStream(stream);
+            while (true) {
+                byte[] body;
+                try {
+                    int length = in.readInt();
+                    if (length < 15 || length > MAX_RECORD) {
+                        return;
+                    }
+                    body = in.readNBytes(length);
+                    CRC32 crc = new CRC32();
+                    crc.update(body);
+                    if (body.length != length || in.readInt() != (int) crc.getValue()) {
+                        return;
+                    }
+                } catch (EOFException ex) {
+                    // The process stopped partway through writing this record
+                    return;
+                }
+                apply(new DataInputStream(new ByteArrayInputStream(body)), writes);
+            }
+        }
+    }
+
+    private static void apply(DataInputStream record, Map<Integer, PendingWrites> writes) throws IOException, DataAccessException {
+        byte type = record.readByte();
+        int gameID = record.readInt();
+        int ply = record.readInt();
+        short move = record.readShort();
+        int length = record.readInt();
+        byte[] payload = length < 0 ? null : record.readNBytes(length);
+        PendingWrites pending = writes.computeIfAbsent(gameID, PendingWrites::new);
+        if (type == WHOLE) {
+            pending.writeWhole(payload, ply);
+        } else {
+            pending.addMove(ply, move, payload);
+        }
+    }
+}
@@ -0,0 +1,496 @@
+package dataaccess;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.GameCodec;
+import model.ListGamesResult;
+import model.data.AuthData;
+import model.data.GameData;
+import model.data.UserData;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Stores moves and whole-game writes in the background, so the thread handling
+ * a move does not wait on the database.
+ * <p>
+ * {@link #recordMove} and {@link #updateGame} append to the {@link RecoveryLog},
+ * add the write to those pending for the game and return. Pending writes to the
+ * same game are coalesced: a whole-game write replaces whatever was pending
+ * before it, and only the latest snapshot is kept. A scheduler flushes
+ * everything pending every flush interval as one batched transaction, and a
+ * caller that finds too many moves pending flushes them itself. Reading a game,
+ * or writing one straight to the database, first flushes that game alone, so
+ * it sees every write accepted for it in order.
+ * <p>
+ * Listing summaries does not flush: the listing may lag the accepted writes by
+ * up to a flush interval. {@link #gamesVersion} still moves as soon as a
+ * pending write would change a summary, and again once the write is stored,
+ * so a listing read in between is never taken as current for long.
+ * <p>
+ * If a flush fails the writes stay pending, and their log segments stay on
+ * disk, for the next attempt. If the server stops before they are stored, they
+ * are recovered from the log the next time one of these is created.
+ */
+public final class WriteBehindDataAccess implements DataAccess, AutoCloseable {
+    private final DataAccess delegate;
+    private final BatchedGameStore store;
+    private final RecoveryLog log;
+    private final int maxPendingMoves;
+    private final ScheduledExecutorService flusher;
+    // Held for the whole of a flush, so flushes store writes in the order they were accepted
+    private final ReentrantLock flushing = new ReentrantLock();
+
+    private final Object lock = new Object();
+    private Map<Integer, PendingWrites> pending = new HashMap<>();
+    private int pendingMoves;
+    private long oldestPending;
+    // Bumped by each accepted write that will change a summary once stored. Starts
+    // from the clock so a restarted server never repeats an earlier run's versions.
+    private long summaryVersion = System.currentTimeMillis() * 1_000;
+
+    private final LongAdder flushes = new LongAdder();
+    private final LongAdder failedFlushes = new LongAdder();
+    private final LongAdder movesWritten = new LongAdder();
+    private final LongAdder gamesWritten = new LongAdder();
+    private final LongAccumulator maxLagMillis = new LongAccumulator(Math::max, 0);
+
+    /**
+     * @param logDirectory    where the recovery log is kept; writes left there by
+     *                        an earlier run are stored before this returns
+     * @param flushMillis     how often pending writes are flushed, which bounds how
+     *                        far the database lags behind
+     * @param maxPendingMoves moves that may be pending before the caller has to
+     *                        flush them itself
+     */
+    public WriteBehindDataAccess(MySqlDataAccess db, Path logDirectory, long flushMillis, int maxPendingMoves)
+            throws DataAccessException {
+        this(db, db, logDirectory, flushMillis, maxPendingMoves);
+    }
+
+    WriteBehindDataAccess(DataAccess delegate, BatchedGameStore store, Path logDirectory, long flushMillis,
+                          int maxPendingMoves) throws DataAccessException {
+        if (flushMillis < 1 || maxPendingMoves < 1) {
+            throw new IllegalArgumentException("Flush interval and pending moves must be at least 1");
+        }
+        this.delegate = delegate;
+        this.store = store;
+        this.maxPendingMoves = maxPendingMoves;
+        try {
+            log = new RecoveryLog(logDirectory);
+        } catch (IOException ex) {
+            throw new DataAccessException("Error opening the recovery log", ex);
+        }
+        try {
+            Map<Integer, PendingWrites> recovered = log.recover();
+            if (!recovered.isEmpty()) {
+                if (!store(recovered.values()).isEmpty()) {
+                    throw new DataAccessException("Error storing writes recovered from the log");
+                }
+                System.out.println("Recovered unsaved writes to " + recovered.size() + " games");
+            }
+            log.deleteThrough(log.rotate());
+        } catch (IOException | DataAccessException ex) {
+            try {
+                log.close();
+            } catch (IOException ignored) {
+                // Already failing
+            }
+            throw ex instanceof DataAccessException dae ? dae
+                    : new DataAccessException("Error reading the recovery log", ex);
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "write-behind-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (DataAccessException ex) {
+                System.err.println("Write-behind flush failed, will retry: " + ex.getMessage());
+            }
+        }, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void recordMove(int gameID, ChessGame game) throws DataAccessException {
+        List<ChessMove> history = game.getMoveHistory();
+        int ply = history.size();
+        if (ply == 0) {
+            throw new DataAccessException("Error: No move to record for game " + gameID);
+        }
+        short move = (short) GameCodec.encodeMove(history.get(ply - 1));
+        boolean needsSnapshot = ply % MySqlDataAccess.SNAPSHOT_INTERVAL == 0 || game.isGameOver();
+        byte[] snapshot = needsSnapshot ? GameCodec.encodeSnapshot(game) : null;
+        boolean full;
+        synchronized (lock) {
+            pendingFor(gameID).addMove(ply, move, snapshot);
+            pendingMoves++;
+            if (game.isGameOver()) {
+                summaryVersion++;
+            }
+            full = pendingMoves >= maxPendingMoves;
+            try {
+                log.appendMove(gameID, ply, move, snapshot);
+            } catch (IOException ex) {
+                throw new DataAccessException("Error logging move " + ply + " of game " + gameID, ex);
+            }
+        }
+        if (full) {
+            flush();
+        }
+    }
+
+    /**
+     * Accepts the whole game to be written with the next flush. Unlike a direct
+     * write, a game that does not exist is not reported.
+     */
+    @Override
+    public void updateGame(int gameID, ChessGame game) throws DataAccessException {
+        byte[] encoded = GameCodec.encode(game);
+        int ply = game.getMoveHistory().size();
+        synchronized (lock) {
+            PendingWrites writes = pendingFor(gameID);
+            pendingMoves -= writes.moves.size();
+            writes.writeWhole(encoded, ply);
+            summaryVersion++;
+            try {
+                log.appendWhole(gameID, ply, encoded);
+            } catch (IOException ex) {
+                throw new DataAccessException("Error logging game " + gameID, ex);
+            }
+        }
+    }
+
+    private PendingWrites pendingFor(int gameID) {
+        if (pending.isEmpty()) {
+            oldestPending = System.currentTimeMillis();
+        }
+        return pending.computeIfAbsent(gameID, PendingWrites::new);
+    }
+
+    /**
+     * Stores everything pending now, on the calling thread
+     *
+     * @throws DataAccessException if any game could not be written; its writes
+     *                             stay pending, and the log segments holding
+     *                             them stay on disk until they are stored
+     */
+    public void flush() throws DataAccessException {
+        flushing.lock();
+        try {
+            Map<Integer, PendingWrites> taken;
+            long segment;
+            synchronized (lock) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+                taken = pending;
+                pending = new HashMap<>();
+                pendingMoves = 0;
+                maxLagMillis.accumulate(System.currentTimeMillis() - oldestPending);
+                try {
+                    segment = log.rotate();
+                } catch (IOException ex) {
+                    requeue(taken.values());
+                    throw new DataAccessException("Error rotating the recovery log", ex);
+                }
+            }
+            List<PendingWrites> failed = store(taken.values());
+            if (!failed.isEmpty()) {
+                failedFlushes.increment();
+                synchronized (lock) {
+                    requeue(failed);
+                }
+                throw new DataAccessException("Error writing " + failed.size() + " games; kept for the next flush");
+            }
+            try {
+                // Every write in these segments is stored, or belonged to a game that is gone
+                log.deleteThrough(segment);
+            } catch (IOException ex) {
+                // Harmless: replaying stored writes leaves the same rows
+                System.err.println("Could not delete recovery log segments: " + ex.getMessage());
+            }
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    /**
+     * Stores what is pending for one game, on the calling thread. Its log
+     * segments are left for the next full flush to delete, since they hold other
+     * games' writes too; replaying a stored write leaves the same rows.
+     *
+     * @throws DataAccessException if the game could not be written; its writes
+     *                             stay pending
+     */
+    public void flush(int gameID) throws DataAccessException {
+        flushing.lock();
+        try {
+            PendingWrites taken;
+            synchronized (lock) {
+                taken = pending.remove(gameID);
+                if (taken == null) {
+                    return;
+                }
+                pendingMoves -= taken.moves.size();
+            }
+            if (!store(List.of(taken)).isEmpty()) {
+                failedFlushes.increment();
+                synchronized (lock) {
+                    requeue(List.of(taken));
+                }
+                throw new DataAccessException("Error writing game " + gameID + "; kept for the next flush");
+            }
+        } finally {
+            flushing.unlock();
+        }
+    }
+
+    /**
+     * Writes a batch. If it fails, each game is tried alone, so one game that
+     * cannot be written does not hold back the rest. A game that fails alone is
+     * only given up on when its row is gone, since then it never can be written;
+     * any other failure, such as a lock timeout or a lost connection, may pass.
+     *
+     * @return the games that were not stored and should be retried
+     */
+    private List<PendingWrites> store(Collection<PendingWrites> writes) {
+        try {
+            store.writeBatch(writes);
+            recordFlush(writes);
+            return List.of();
+        } catch (DataAccessException batchFailure) {
+            List<PendingWrites> stored = new ArrayList<>();
+            List<PendingWrites> failed = new ArrayList<>();
+            for (PendingWrites game : writes) {
+                try {
+                    store.writeBatch(List.of(game));
+                    stored.add(game);
+                } catch (DataAccessException ex) {
+                    if (isGone(game.gameID)) {
+                        System.err.println("Dropping changes to game " + game.gameID + ", which no longer exists");
+                    } else {
+                        System.err.println("Could not write game " + game.gameID + ", will retry: " + ex.getMessage());
+                        failed.add(game);
+                    }
+                }
+            }
+            if (!stored.isEmpty()) {
+                recordFlush(stored);
+            }
+            return failed;
+        }
+    }
+
+    private boolean isGone(int gameID) {
+        try {
+            return !store.gameExists(gameID);
+        } catch (DataAccessException ex) {
+            // Cannot tell, so keep the writes
+            return false;
+        }
+    }
+
+    /**
+     * Puts writes that could not be stored back ahead of any accepted since
+     */
+    private void requeue(Collection<PendingWrites> failed) throws DataAccessException {
+        if (pending.isEmpty()) {
+            oldestPending = System.currentTimeMillis();
+        }
+        for (PendingWrites older : failed) {
+            PendingWrites newer = pending.remove(older.gameID);
+            if (newer != null) {
+                older.append(newer);
+            }
+            pending.put(older.gameID, older);
+        }
+        pendingMoves = 0;
+        for (PendingWrites writes : pending.values()) {
+            pendingMoves += writes.moves.size();
+        }
+    }
+
+    private void recordFlush(Iterable<PendingWrites> stored) {
+        flushes.increment();
+        for (PendingWrites writes : stored) {
+            gamesWritten.increment();
+            movesWritten.add(writes.moves.size());
+        }
+    }
+
+    /**
+     * Stops the scheduler and stores everything pending. If that fails the writes
+     * are still in the recovery log for the next start.
+     */
+    @Override
+    public void close() throws DataAccessException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            flush();
+        } finally {
+            try {
+                log.close();
+            } catch (IOException ex) {
+                System.err.println("Could not close the recovery log: " + ex.getMessage());
+            }
+        }
+    }
+
+    public int pendingMoves() {
+        synchronized (lock) {
+            return pendingMoves;
+        }
+    }
+
+    public long flushes() {
+        return flushes.sum();
+    }
+
+    public long failedFlushes() {
+        return failedFlushes.sum();
+    }
+
+    public long movesWritten() {
+        return movesWritten.sum();
+    }
+
+    public long gamesWritten() {
+        return gamesWritten.sum();
+    }
+
+    /**
+     * @return the longest any write has waited to be flushed
+     */
+    public long maxLagMillis() {
+        return maxLagMillis.get();
+    }
+
+    // Everything else goes straight to the database, after the pending writes it depends on
+
+    @Override
+    public void clear() throws DataAccessException {
+        flush();
+        delegate.clear();
+    }
+
+    @Override
+    public UserData getUser(String username) throws DataAccessException {
+        return delegate.getUser(username);
+    }
+
+    @Override
+    public void createUser(UserData user) throws DataAccessException {
+        delegate.createUser(user);
+    }
+
+    @Override
+    public void createHashedUser(UserData user) throws DataAccessException {
+        delegate.createHashedUser(user);
+    }
+
+    @Override
+    public void createAuth(AuthData auth) throws DataAccessException {
+        delegate.createAuth(auth);
+    }
+
+    @Override
+    public AuthData getAuth(String authToken) throws DataAccessException {
+        return delegate.getAuth(authToken);
+    }
+
+    @Override
+    public void deleteAuth(String authToken) throws DataAccessException {
+        delegate.deleteAuth(authToken);
+    }
+
+    @Override
+    public int createGame(GameData game) throws DataAccessException {
+        return delegate.createGame(game);
+    }
+
+    @Override
+    public List<GameData> listGames() throws DataAccessException {
+        flush();
+        return delegate.listGames();
+    }
+
+    @Override
+    public void streamGameSummaries(GameQuery query, Consumer<ListGamesResult.GameSummary> sink) throws DataAccessException {
+        delegate.streamGameSummaries(query, sink);
+    }
+
+    /**
+     * The stored version and the writes still pending here that change a
+     * summary; the stored version moves again when those writes are flushed
+     */
+    @Override
+    public String gamesVersion() throws DataAccessException {
+        long accepted;
+        synchronized (lock) {
+            accepted = summaryVersion;
+        }
+        return delegate.gamesVersion() + "." + accepted;
+    }
+
+    @Override
+    public GameData getGame(int gameID) throws DataAccessException {
+        flush(gameID);
+        return delegate.getGame(gameID);
+    }
+
+    @Override
+    public void addObserver(int gameID, String username) throws DataAccessException {
+        delegate.addObserver(gameID, username);
+    }
+
+    @Override
+    public String getUsernameFromAuth(String authToken) throws DataAccessException {
+        return delegate.getUsernameFromAuth(authToken);
+    }
+
+    @Override
+    public void setWhiteUsername(int gameID, String username) throws DataAccessException {
+        flush(gameID);
+        delegate.setWhiteUsername(gameID, username);
+    }
+
+    @Override
+    public void setBlackUsername(int gameID, String username) throws DataAccessException {
+        flush(gameID);
+        delegate.setBlackUsername(gameID, username);
+    }
+
+    @Override
+    public void updateGameData(int gameID, GameData game) throws DataAccessException {
+        flush(gameID);
+        delegate.updateGameData(gameID, game);
+    }
+
+    @Override
+    public void updateBoard(int gameID, ChessBoard board) throws DataAccessException {
+        flush(gameID);
+        delegate.updateBoard(gameID, board);
+    }
+}
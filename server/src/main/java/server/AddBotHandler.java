@@ -0,0 +1,60 @@
+package server;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonSyntaxException;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.AddBotRequest;
+import service.game.AddBotService;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+public class AddBotHandler implements Route {
+    private final DataAccess dataAccess;
+    private final Gson gson = new Gson();
+
+    public AddBotHandler(DataAccess dataAccess) {
+        this.dataAccess = dataAccess;
+    }
+
+    @Override
+    public Object handle(Request req, Response res) {
+        String authToken = req.headers("authorization");
+        if (authToken == null || authToken.isBlank()) {
+            res.status(401);
+            return gson.toJson(new ErrorMessage("Error: unauthorized"));
+        }
+
+        try {
+            AddBotRequest request = gson.fromJson(req.body(), AddBotRequest.class);
+            String username = new AddBotService(dataAccess).addBot(request, authToken);
+            // Players already connected would otherwise never see the bot take its seat
+            WebSocketHandler.seatsChanged(request.gameID());
+            res.status(200);
+            res.type("application/json");
+            return gson.toJson(new AddBotResult(username));
+        } catch (DataAccessException e) {
+            String message = e.getMessage();
+            if (message.contains("unauthorized")) {
+                res.status(401);
+            } else if (message.contains("bad request") || message.contains("Invalid team color")) {
+                res.status(400);
+            } else if (message.contains("already taken")) {
+                res.status(403);
+            } else {
+                res.status(500);
+            }
+            return gson.toJson(new ErrorMessage(message.startsWith("Error") ? message : "Error: " + message));
+        } catch (JsonSyntaxException e) {
+            res.status(400);
+            return gson.toJson(new ErrorMessage("Error: bad request"));
+        } catch (Exception e) {
+            res.status(500);
+            return gson.toJson(new ErrorMessage("Error: " + e.getMessage()));
+        }
+    }
+
+    private record ErrorMessage(String message) {}
+    private record AddBotResult(String username) {}
+}
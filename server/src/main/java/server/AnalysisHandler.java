@@ -0,0 +1,90 @@
+package server;
+
+import com.google.gson.Gson;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.AnalysisResult;
+import model.data.GameData;
+import service.analysis.AnalysisService;
+import spark.Request;
+import spark.Response;
+import spark.Route;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+public class AnalysisHandler implements Route {
+
+    private final DataAccess db;
+    private final AnalysisService analysis;
+    private final long timeoutMillis;
+    private final Gson gson = new Gson();
+
+    /**
+     * @param timeoutMillis how long a request waits for the engine before giving up
+     */
+    public AnalysisHandler(DataAccess db, AnalysisService analysis, long timeoutMillis) {
+        this.db = db;
+        this.analysis = analysis;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public Object handle(Request req, Response res) throws Exception {
+        String authToken = req.headers("Authorization");
+        if (authToken == null || authToken.isBlank()) {
+            res.status(401);
+            return gson.toJson(new ErrorMessage("Error: missing auth token"));
+        }
+
+        try {
+            db.getUsernameFromAuth(authToken);
+        } catch (DataAccessException e) {
+            res.status(401);
+            return gson.toJson(new ErrorMessage("Error: unauthorized"));
+        }
+
+        String idRaw = req.queryParams("gameID");
+        if (idRaw == null) {
+            res.status(400);
+            return gson.toJson(new ErrorMessage("Error: missing gameID"));
+        }
+
+        int gameID;
+        try {
+            gameID = Integer.parseInt(idRaw);
+        } catch (NumberFormatException e) {
+            res.status(400);
+            return gson.toJson(new ErrorMessage("Error: invalid gameID"));
+        }
+
+        GameData game = db.getGame(gameID);
+        if (game == null || game.game() == null) {
+            res.status(400);
+            return gson.toJson(new ErrorMessage("Error: game not found"));
+        }
+
+        AnalysisResult result;
+        try {
+            result = analysis.analyze(game.game()).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            res.status(503);
+            return gson.toJson(new ErrorMessage("Error: analysis timed out"));
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RejectedExecutionException) {
+                res.status(503);
+                return gson.toJson(new ErrorMessage("Error: analysis is busy, try again later"));
+            }
+            res.status(500);
+            return gson.toJson(new ErrorMessage("Error: " + e.getCause().getMessage()));
+        }
+
+        res.status(200);
+        res.type("application/json");
+        return gson.toJson(result);
+    }
+
+    private record ErrorMessage(String message) {}
+}
@@ -34,7 +34,7 @@ public class GameSessionManager {
     public void broadcast(String message) {
         for (Session s : getAllSessions()) {
             try {
-                s.getRemote().sendString(message);
+                send(s, message);
             } catch (IOException e) {
                 System.err.println("Failed to send message: " + e.getMessage());
             }
@@ -45,7 +45,7 @@ public class GameSessionManager {
         for (Session s : getAllSessions()) {
             if (!s.equals(excludedSession)) {
                 try {
-                    s.getRemote().sendString(message);
+                    send(s, message);
                 } catch (IOException e) {
                     System.err.println("Failed to send message: " + e.getMessage());
                 }
@@ -53,6 +53,16 @@ public class GameSessionManager {
         }
     }
 
+    /**
+     * Sends one message. Bot moves are announced from worker threads, so sends to a
+     * session are serialized here rather than relying on the socket thread.
+     */
+    static void send(Session session, String message) throws IOException {
+        synchronized (session) {
+            session.getRemote().sendString(message);
+        }
+    }
+
     public GameData getGameData(int gameID) {
         return gameDataMap.get(gameID);
     }
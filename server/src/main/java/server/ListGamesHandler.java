@@ -2,13 +2,25 @@ package server;
 
 import com.google.gson.Gson;
 import dataaccess.DataAccessException;
-import model.ListGamesResult;
+import dataaccess.GameQuery;
 import service.game.ListGamesService;
 import spark.Request;
 import spark.Response;
 import spark.Route;
 import dataaccess.DataAccess;
 
+/**
+ * GET /game. Without query parameters this lists every game, as it always has.
+ * <ul>
+ *     <li>{@code limit} pages the list, at most {@link ListGamesService#MAX_PAGE_SIZE} games a page</li>
+ *     <li>{@code cursor} continues from the {@code nextCursor} of the page before</li>
+ *     <li>{@code open=true} lists only games with a free seat</li>
+ *     <li>{@code player} lists only games that user plays in</li>
+ *     <li>{@code inProgress=true} lists only games that are not over</li>
+ * </ul>
+ * Responses carry an ETag; a request whose If-None-Match still matches gets a
+ * 304 with no body.
+ */
 public class ListGamesHandler implements Route {
     private final DataAccess dataAccess;
 
@@ -23,14 +35,38 @@ public class ListGamesHandler implements Route {
         try {
             String authToken = req.headers("authorization");
 
+            GameQuery query;
+            try {
+                query = new GameQuery(
+                        intParam(req, "cursor"),
+                        intParam(req, "limit"),
+                        Boolean.parseBoolean(req.queryParams("open")),
+                        blankToNull(req.queryParams("player")),
+                        Boolean.parseBoolean(req.queryParams("inProgress")));
+            } catch (IllegalArgumentException e) {
+                res.status(400);
+                return gson.toJson(new ErrorMessage("Error: bad request"));
+            }
+
             ListGamesService service = new ListGamesService(dataAccess);
-            ListGamesResult result = service.listGames(authToken);
+            ListGamesService.Listing listing = service.listGames(authToken, query, knownTag(req.headers("If-None-Match")));
 
+            res.header("ETag", "\"" + listing.tag() + "\"");
+            // Clients may keep the list, but must check it is current before using it
+            res.header("Cache-Control", "private, no-cache");
+            if (listing.result() == null) {
+                res.status(304);
+                return "";
+            }
             res.status(200);
-            return gson.toJson(result);
+            return gson.toJson(listing.result());
 
         } catch (DataAccessException e) {
-            res.status("unauthorized".equals(e.getMessage()) ? 401 : 500);
+            if ("unauthorized".equals(e.getMessage())) {
+                res.status(401);
+            } else {
+                res.status("bad request".equals(e.getMessage()) ? 400 : 500);
+            }
             return gson.toJson(new ErrorMessage("Error: " + e.getMessage()));
         } catch (Exception e) {
             res.status(500);
@@ -38,5 +74,39 @@ public class ListGamesHandler implements Route {
         }
     }
 
+    /**
+     * @return the parameter, or 0 if it is missing
+     * @throws NumberFormatException if it is not a number
+     */
+    private static int intParam(Request req, String name) {
+        String raw = req.queryParams(name);
+        return raw == null || raw.isBlank() ? 0 : Integer.parseInt(raw.trim());
+    }
+
+    private static String blankToNull(String raw) {
+        return raw == null || raw.isBlank() ? null : raw;
+    }
+
+    /**
+     * Picks out the tag the client has from an If-None-Match header. Clients send
+     * back the one tag they were given, so only a single tag is recognized; weak
+     * and strong forms compare alike.
+     *
+     * @return the tag without quotes, or null if there is none
+     */
+    private static String knownTag(String ifNoneMatch) {
+        if (ifNoneMatch == null) {
+            return null;
+        }
+        String tag = ifNoneMatch.trim();
+        if (tag.startsWith("W/")) {
+            tag = tag.substring(2);
+        }
+        if (tag.length() < 2 || !tag.startsWith("\"") || !tag.endsWith("\"") || tag.indexOf(',') >= 0) {
+            return null;
+        }
+        return tag.substring(1, tag.length() - 1);
+    }
+
     private record ErrorMessage(String message) {}
-}
\ No newline at end of file
+}
@@ -3,6 +3,7 @@ package server;
 import model.LoginRequest;
 import model.LoginResult;
 import service.auth.LoginService;
+import service.auth.PasswordHasher;
 import spark.Request;
 import spark.Response;
 import spark.Route;
@@ -12,15 +13,18 @@ import com.google.gson.Gson;
 
 public class LoginHandler implements Route {
     private final DataAccess dataAccess;
-    public LoginHandler(DataAccess dataAccess) {
+    private final PasswordHasher hasher;
+
+    public LoginHandler(DataAccess dataAccess, PasswordHasher hasher) {
         this.dataAccess = dataAccess;
+        this.hasher = hasher;
     }
 
     @Override
     public Object handle(Request req, Response res) {
         try {
             LoginRequest request = parseJson(req, LoginRequest.class);
-            LoginService service = new LoginService(dataAccess);
+            LoginService service = new LoginService(dataAccess, hasher);
             LoginResult result = service.login(request);
 
             res.status(200);
@@ -48,6 +52,10 @@ class ErrorHandlingUtil {
             switch (dae.getMessage()) {
                 case "bad request" -> res.status(400);
                 case "unauthorized" -> res.status(401);
+                case "service unavailable" -> {
+                    res.status(503);
+                    res.header("Retry-After", "1");
+                }
                 default -> res.status(500);
             }
             return new com.google.gson.Gson().toJson(new ErrorMessage("Error: " + dae.getMessage()));
@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import dataaccess.DataAccessException;
 import model.RegisterRequest;
 import model.RegisterResult;
+import service.auth.PasswordHasher;
 import service.auth.RegisterService;
 import spark.Request;
 import spark.Response;
@@ -12,8 +13,11 @@ import dataaccess.DataAccess;
 
 public class RegisterHandler implements Route {
     private final DataAccess dataAccess;
-    public RegisterHandler(DataAccess dataAccess){
+    private final PasswordHasher hasher;
+
+    public RegisterHandler(DataAccess dataAccess, PasswordHasher hasher){
         this.dataAccess = dataAccess;
+        this.hasher = hasher;
     }
 
     @Override
@@ -28,7 +32,7 @@ public class RegisterHandler implements Route {
             }
 
             // Call the service
-            RegisterService service = new RegisterService(dataAccess);
+            RegisterService service = new RegisterService(dataAccess, hasher);
             RegisterResult result = service.register(request);
 
             res.status(200);
@@ -40,6 +44,10 @@ public class RegisterHandler implements Route {
                 res.status(400);
             } else if (msg.contains("taken")) {
                 res.status(403);
+            } else if (msg.equals("service unavailable")) {
+                // Too many passwords being hashed; shed the request rather than queue it
+                res.status(503);
+                res.header("Retry-After", "1");
             } else {
                 res.status(500);
             }
@@ -1,14 +1,52 @@
 package server;
 
+import chess.ChessGame;
+import chess.PositionCache;
+import chess.TranspositionTable;
+import chess.search.SearchLimits;
+import dataaccess.AuthCachingDataAccess;
+import dataaccess.ConnectionPool;
 import dataaccess.MemoryDataAccess;
 import spark.*;
 import dataaccess.MySqlDataAccess;
 import dataaccess.DataAccessException;
 import dataaccess.DatabaseManager;
 import dataaccess.DataAccess;
+import dataaccess.WriteBehindDataAccess;
 import server.WebSocketHandler;
+import service.analysis.AnalysisService;
+import service.auth.PasswordHasher;
+import service.bot.BotPlayers;
+
+import java.nio.file.Path;
 
 public class Server {
+    private static final int BOT_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int BOT_QUEUE = 64;
+    private static final int ANALYSIS_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int ANALYSIS_QUEUE = 32;
+    private static final int ANALYSIS_CACHE = 4096;
+    private static final SearchLimits ANALYSIS_LIMITS = new SearchLimits(0, 250_000, 1_000);
+    private static final long ANALYSIS_TIMEOUT = 10_000;
+    // Moves are acknowledged before they reach the database, which lags by at most this
+    private static final long FLUSH_MILLIS = 100;
+    private static final int MAX_PENDING_MOVES = 1_000;
+    private static final Path RECOVERY_LOG = Path.of("recovery-log");
+    // Logouts through this server take effect at once; these bound how long a change made elsewhere goes unseen
+    private static final int AUTH_CACHE_SIZE = 100_000;
+    private static final long AUTH_TTL_MILLIS = 5 * 60_000;
+    private static final long AUTH_NEGATIVE_TTL_MILLIS = 5_000;
+    // Password hashing is bounded so a burst of logins cannot starve gameplay of CPU or threads
+    private static final int HASH_WORKERS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+    private static final int HASH_QUEUE = 32;
+    private static final long HASH_TIMEOUT = 5_000;
+    private static final int PASSWORD_COST = Integer.getInteger("bcrypt.cost", PasswordHasher.DEFAULT_COST);
+
+    private BotPlayers bots;
+    private AnalysisService analysis;
+    private WriteBehindDataAccess writeBehind;
+    private AuthCachingDataAccess authCache;
+    private PasswordHasher hasher;
 
     public int run(int desiredPort) {
         Spark.port(desiredPort);
@@ -19,25 +57,41 @@ public class Server {
         try {
             DatabaseManager.createDatabase();
             DatabaseManager.createTables();
-            db = new MySqlDataAccess();          // can throw DataAccessException
+            writeBehind = new WriteBehindDataAccess(new MySqlDataAccess(), RECOVERY_LOG, FLUSH_MILLIS, MAX_PENDING_MOVES);
+            authCache = new AuthCachingDataAccess(writeBehind, AUTH_CACHE_SIZE, AUTH_TTL_MILLIS, AUTH_NEGATIVE_TTL_MILLIS);
+            db = authCache;
         } catch (DataAccessException e) {
             System.err.println("DB init failed: " + e.getMessage());
             return -1;                           // fail fast
         }
 
+        // Legal moves and game status for positions that recur across games
+        ChessGame.setPositionCache(new PositionCache(1 << 20));
+
         /* ❷ Provide it to the WebSocket handler BEFORE registering */
         WebSocketHandler.setSharedDB(db);
 
+        // Bot moves and analysis are searched off the Jetty threads, sharing one table
+        TranspositionTable searchTable = new TranspositionTable(1 << 19);
+        bots = new BotPlayers(BOT_WORKERS, BOT_QUEUE, searchTable);
+        WebSocketHandler.setBotPlayers(bots);
+        analysis = new AnalysisService(ANALYSIS_WORKERS, ANALYSIS_QUEUE, ANALYSIS_CACHE, ANALYSIS_LIMITS, searchTable);
+        WebSocketHandler.setAnalysisService(analysis);
+
+        hasher = new PasswordHasher(HASH_WORKERS, HASH_QUEUE, PASSWORD_COST, HASH_TIMEOUT);
+
         Spark.webSocket("/ws", WebSocketHandler.class);
 
         Spark.delete("/db", new ClearHandler(db));
         Spark.delete("/session", new LogoutHandler(db));
-        Spark.post("/user", new RegisterHandler(db));
-        Spark.post("/session", new LoginHandler(db));
+        Spark.post("/user", new RegisterHandler(db, hasher));
+        Spark.post("/session", new LoginHandler(db, hasher));
         Spark.post("/game", new CreateGameHandler(db));
         Spark.put("/game", new JoinGameHandler(db));
+        Spark.put("/game/bot", new AddBotHandler(db));
         Spark.get("/game", new ListGamesHandler(db));
         Spark.get("/observe", new ObserveGameHandler(db));
+        Spark.get("/analysis", new AnalysisHandler(db, analysis, ANALYSIS_TIMEOUT));
 
 
         System.out.println("✅ All routes registered, starting Spark server...");
@@ -52,5 +106,46 @@ public class Server {
     public void stop() {
         Spark.stop();
         Spark.awaitStop();
+        // Bots first: close() waits out their replies, which record moves through write-behind
+        if (bots != null) {
+            WebSocketHandler.setBotPlayers(null);
+            bots.close();
+        }
+        if (analysis != null) {
+            WebSocketHandler.setAnalysisService(null);
+            analysis.close();
+        }
+        // JVM-wide, so a server started later in the same JVM does not inherit this one's positions
+        ChessGame.setPositionCache(null);
+        if (hasher != null) {
+            hasher.close();
+            System.out.printf("Password hashing: %d hashes, %.1fms average (%.1fms max), %.1fms average queued, %d rejected, %d timed out%n",
+                    hasher.hashes(), hasher.averageHashMillis(), hasher.maxHashMillis(), hasher.averageWaitMillis(),
+                    hasher.rejected(), hasher.timeouts());
+            hasher = null;
+        }
+        if (authCache != null) {
+            System.out.printf("Auth cache: %d hits, %d negative hits, %d misses (%.1f%% hit rate), %d evictions%n",
+                    authCache.hits(), authCache.negativeHits(), authCache.misses(), authCache.hitRate() * 100,
+                    authCache.evictions());
+            authCache = null;
+        }
+        if (writeBehind != null) {
+            try {
+                writeBehind.close();
+                System.out.printf("Write-behind: %d moves to %d games in %d flushes, %dms max lag%n",
+                        writeBehind.movesWritten(), writeBehind.gamesWritten(), writeBehind.flushes(),
+                        writeBehind.maxLagMillis());
+            } catch (DataAccessException e) {
+                System.err.println("Unsaved game writes kept in " + RECOVERY_LOG + ": " + e.getMessage());
+            }
+            writeBehind = null;
+        }
+        ConnectionPool pool = DatabaseManager.connectionPool();
+        if (pool != null) {
+            System.out.printf("Database pool: %d connections lent, %.2fms average wait (%.2fms max), %d timeouts%n",
+                    pool.acquired(), pool.averageAcquireMillis(), pool.maxAcquireMillis(), pool.timeouts());
+        }
+        DatabaseManager.closePool();
     }
 }
@@ -2,18 +2,26 @@ package server;
 
 import chess.ChessGame;
 import chess.ChessMove;
+import chess.InvalidMoveException;
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
 import model.data.GameData;
 import org.eclipse.jetty.websocket.api.Session;
 import org.eclipse.jetty.websocket.api.annotations.*;
+import model.AnalysisResult;
+import service.analysis.AnalysisService;
+import service.bot.BotPlayers;
+import service.bot.Difficulty;
 import java.io.IOException;
 import java.util.Collection;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
 import com.google.gson.Gson;
 import websocket.commands.MakeMoveCommand;
 import websocket.commands.UserGameCommand;
+import websocket.messages.AnalysisMessage;
 import websocket.messages.LoadGameMessage;
 import websocket.messages.NotificationMessage;
 
@@ -25,6 +33,8 @@ public class WebSocketHandler {
     private static DataAccess sharedDB;
     private final DataAccess db;
     private static final Map<Integer, ChessGame> ACTIVE_GAMES = new ConcurrentHashMap<>();
+    private static volatile BotPlayers bots;
+    private static volatile AnalysisService analysis;
 
     public WebSocketHandler() {
         this.db = sharedDB;
@@ -35,6 +45,50 @@ public class WebSocketHandler {
         sharedDB = db;
     }
 
+    /**
+     * @param players the pool bot moves are computed on, or null to leave bots
+     *                seated but idle
+     */
+    public static void setBotPlayers(BotPlayers players) {
+        bots = players;
+    }
+
+    /**
+     * @param service answers ANALYZE commands, or null to turn them away
+     */
+    public static void setAnalysisService(AnalysisService service) {
+        analysis = service;
+    }
+
+    /**
+     * Brings the seats of a game with players connected up to date after they
+     * were changed over HTTP, and hands the turn to a bot newly seated there.
+     * Games nobody is connected to read their seats when someone connects.
+     */
+    public static void seatsChanged(int gameID) {
+        GameSessionManager manager = GAME_SESSIONS.get(gameID);
+        GameData live = manager == null ? null : manager.getGameData(gameID);
+        if (live == null) {
+            return;
+        }
+        GameData stored;
+        try {
+            stored = sharedDB.getGame(gameID);
+        } catch (DataAccessException e) {
+            // The seats are stored; the players see them when they next connect
+            System.err.println("Could not reload the seats of game " + gameID + ": " + e.getMessage());
+            return;
+        }
+        if (stored == null) {
+            return;
+        }
+        synchronized (live.getGame()) {
+            live.setWhiteUsername(stored.whiteUsername());
+            live.setBlackUsername(stored.blackUsername());
+        }
+        new WebSocketHandler().scheduleBotMove(gameID, manager);
+    }
+
     @OnWebSocketConnect
     public void onConnect(Session session) {
         System.out.println("Client connected: " + session);
@@ -70,6 +124,7 @@ public class WebSocketHandler {
                 case MAKE_MOVE -> handleMakeMove(session, command);
                 case LEAVE -> handleLeave(session, command);
                 case RESIGN -> handleResign(session, command);
+                case ANALYZE -> handleAnalyze(session, command);
                 default -> session.getRemote().sendString(GSON.toJson(Map.of(
                         "serverMessageType",
                         "ERROR",
@@ -151,6 +206,7 @@ public class WebSocketHandler {
         if (gameData.getGame().isGameOver()) {
             return;
         }
+        scheduleBotMove(gameID, manager);
     }
 
     private void handleMakeMove(Session session, UserGameCommand command) {
@@ -200,28 +256,32 @@ public class WebSocketHandler {
             return;
         }
 
-        if (!validateMove(session, command, manager, move, game, gameData, username)) {
-            return;
-        }
-
-        try {
-            db.updateGameData(command.getGameID(), gameData);
-        } catch (DataAccessException e) {
-            sendError(session, "Failed to persist gameData: " + e.getMessage());
-            System.out.println("gamedata's not responding");
-            return;
+        synchronized (game) {
+            if (!validateMove(session, command, manager, move, game, gameData, username)) {
+                return;
+            }
         }
 
         System.out.println("✅ Move applied: " + move.getStartPosition() + " -> " + move.getEndPosition());
+        announceMove(command.getGameID(), manager, gameData, game, move, username, session);
+    }
 
-        ChessGame.TeamColor opponent = (username.equals(gameData.whiteUsername())) ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
-
+    /**
+     * Tells everyone in the game about a move that has been made and saved, then
+     * hands the next turn to a bot if one holds that seat.
+     *
+     * @param mover the session that made the move, which is not sent the summary;
+     *              null for a bot move
+     */
+    private void announceMove(int gameID, GameSessionManager manager, GameData gameData, ChessGame game,
+                              ChessMove move, String username, Session mover) {
+        ChessGame.TeamColor opponent = game.getTeamTurn();
+
+        // playMove has already ended the game, and saved it as over
         if (game.isInCheckmate(opponent)) {
-            game.setGameOver(true);
-            String winner = (username.equals(gameData.whiteUsername())) ? "White" : "Black";
+            String winner = (opponent == ChessGame.TeamColor.BLACK) ? "White" : "Black";
             manager.broadcast(GSON.toJson(new NotificationMessage("Checkmate! Game over. " + winner + " wins.")));
         } else if (game.isInStalemate(opponent)) {
-            game.setGameOver(true);
             manager.broadcast(GSON.toJson(new NotificationMessage("Stalemate! Game over. It's a draw.")));
         }  else if (game.isInCheck(opponent)) {
             System.out.println("check");
@@ -235,10 +295,70 @@ public class WebSocketHandler {
             + move.getStartPosition() + " to " + move.getEndPosition();
         manager.broadcastExcept(
             GSON.toJson(new NotificationMessage(moveSummary)),
-            session
+            mover
         );
 
         sendLoadGameToPlayers(manager, gameData, game);
+        scheduleBotMove(gameID, manager);
+    }
+
+    /**
+     * Queues a search if the side to move is a bot. The search runs on the bot
+     * pool against a copy of the game, never on the thread handling the socket.
+     */
+    private void scheduleBotMove(int gameID, GameSessionManager manager) {
+        BotPlayers players = bots;
+        GameData gameData = manager.getGameData(gameID);
+        if (players == null || gameData == null) {
+            return;
+        }
+        ChessGame game = gameData.getGame();
+        ChessGame position;
+        String botName;
+        int ply;
+        synchronized (game) {
+            if (game.isGameOver()) {
+                return;
+            }
+            botName = game.getTeamTurn() == ChessGame.TeamColor.WHITE
+                    ? gameData.whiteUsername() : gameData.blackUsername();
+            position = new ChessGame(game);
+            ply = game.getMoveHistory().size();
+        }
+        Difficulty difficulty = Difficulty.fromUsername(botName);
+        if (difficulty == null) {
+            return;
+        }
+        boolean queued = players.submit(gameID, position, difficulty,
+                move -> applyBotMove(gameID, manager, botName, ply, move));
+        if (!queued) {
+            manager.broadcast(GSON.toJson(new NotificationMessage(
+                    botName + " is too busy to move right now. Reconnect to try again.")));
+        }
+    }
+
+    /**
+     * Plays a bot's reply, unless the game moved on while the bot was thinking.
+     * Called on a bot worker thread.
+     */
+    private void applyBotMove(int gameID, GameSessionManager manager, String botName, int ply, ChessMove move) {
+        GameData gameData = manager.getGameData(gameID);
+        if (gameData == null) {
+            return;
+        }
+        ChessGame game = gameData.getGame();
+        synchronized (game) {
+            if (game.isGameOver() || game.getMoveHistory().size() != ply) {
+                return;
+            }
+            try {
+                playMove(gameID, game, move, game.getTeamTurn());
+            } catch (Exception e) {
+                System.err.println("Bot move failed in game " + gameID + ": " + e.getMessage());
+                return;
+            }
+        }
+        announceMove(gameID, manager, gameData, game, move, botName, null);
     }
 
     private void handleLeave(Session session, UserGameCommand command) {
@@ -338,6 +458,53 @@ public class WebSocketHandler {
         manager.remove(session);
     }
 
+    /**
+     * Sends the requester an analysis of the game's current position. The engine
+     * runs on the analysis pool; the reply is sent from there, or straight away if
+     * the position was analysed before.
+     */
+    private void handleAnalyze(Session session, UserGameCommand command) {
+        GameSessionManager manager = GAME_SESSIONS.get(command.getGameID());
+        String username = manager == null ? null : manager.getUsername(session);
+        if (username == null) {
+            sendError(session, "Connect to the game before asking for analysis.");
+            return;
+        }
+        try {
+            if (!username.equals(db.getUsernameFromAuth(command.getAuthToken()))) {
+                sendError(session, "Invalid authentication token.");
+                return;
+            }
+        } catch (Exception e) {
+            sendError(session, "Invalid authentication token.");
+            return;
+        }
+
+        AnalysisService service = analysis;
+        ChessGame game = manager.getGame(command.getGameID());
+        if (service == null || game == null) {
+            sendError(session, "Analysis is not available.");
+            return;
+        }
+
+        CompletableFuture<AnalysisResult> result;
+        synchronized (game) {
+            result = service.analyze(game);
+        }
+        result.whenComplete((analysisResult, error) -> {
+            if (error != null) {
+                sendError(session, error instanceof RejectedExecutionException
+                        ? "Analysis is busy, try again later." : "Analysis failed.");
+                return;
+            }
+            try {
+                GameSessionManager.send(session, GSON.toJson(new AnalysisMessage(analysisResult)));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+    }
+
     private void broadcastToOthers(int gameID, NotificationMessage notificationMessage, Session session) {
         GameSessionManager manager = GAME_SESSIONS.get(gameID);
         if (manager != null) {
@@ -347,7 +514,7 @@ public class WebSocketHandler {
 
     private void sendError(Session session, String message) {
         try {
-            session.getRemote().sendString(GSON.toJson(Map.of(
+            GameSessionManager.send(session, GSON.toJson(Map.of(
                     "serverMessageType", "ERROR",
                     "errorMessage", "Error: " + message
             )));
@@ -386,10 +553,7 @@ public class WebSocketHandler {
         }
 
         try {
-            game.makeMove(move, playerColor);
-            game.getMoveHistory().add(move);
-            db.updateGame(command.getGameID(), game);
-            db.updateBoard(command.getGameID(), game.getBoard());
+            playMove(command.getGameID(), game, move, playerColor);
         } catch (Exception e) {
             sendError(session, "Failed to apply move - " + e.getMessage());
             System.out.println("couldn't apply move");
@@ -399,6 +563,22 @@ public class WebSocketHandler {
         return true;
     }
 
+    /**
+     * Makes the move and records it. A move that mates or stalemates ends the
+     * game before it is recorded, so the stored game is over too and drops out
+     * of the in-progress listings. Called holding the game's lock.
+     */
+    private void playMove(int gameID, ChessGame game, ChessMove move, ChessGame.TeamColor color)
+            throws InvalidMoveException, DataAccessException {
+        game.makeMove(move, color);
+        game.getMoveHistory().add(move);
+        ChessGame.TeamColor next = game.getTeamTurn();
+        if (game.isInCheckmate(next) || game.isInStalemate(next)) {
+            game.setGameOver(true);
+        }
+        db.recordMove(gameID, game);
+    }
+
     private void sendLoadGameToPlayers(GameSessionManager manager, GameData gameData, ChessGame game) {
         for (Session s : manager.getSessions()) {
             String otherUser = manager.getUsername(s);
@@ -407,7 +587,7 @@ public class WebSocketHandler {
                      (game.getTeamTurn() == ChessGame.TeamColor.BLACK && otherUser.equals(gameData.blackUsername()))));
             LoadGameMessage updatedGameMsg = new LoadGameMessage(gameData, theirTurn);
             try {
-                s.getRemote().sendString(GSON.toJson(updatedGameMsg));
+                GameSessionManager.send(s, GSON.toJson(updatedGameMsg));
             } catch (IOException e) {
                 e.printStackTrace();
             }
@@ -0,0 +1,31 @@
+package service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The worker pools the services run slow work on, off the request threads
+ */
+public final class WorkerPools {
+    private WorkerPools() {}
+
+    /**
+     * A fixed pool of daemon threads named name-1, name-2, ... behind a bounded
+     * queue. Once the queue is full, new work is rejected with a
+     * {@link java.util.concurrent.RejectedExecutionException} instead of piling up.
+     *
+     * @param workers       tasks that can run at once
+     * @param queueCapacity tasks that can wait for a worker
+     */
+    public static ThreadPoolExecutor boundedPool(String name, int workers, int queueCapacity) {
+        AtomicInteger count = new AtomicInteger();
+        return new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, name + "-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,202 @@
+package service.analysis;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.TranspositionTable;
+import chess.search.Search;
+import chess.search.SearchLimits;
+import chess.search.SearchResult;
+import model.AnalysisResult;
+import service.WorkerPools;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Analyses positions for hints and spectators. Results are cached by position
+ * key, and a request for a position that is already being analysed shares the
+ * search in progress, so any number of observers asking about the same game
+ * costs one search. Searches run on a fixed pool behind a bounded queue; when
+ * it is full the request fails with a {@link RejectedExecutionException}.
+ */
+public final class AnalysisService implements AutoCloseable {
+    /** Candidate moves reported per position */
+    public static final int CANDIDATES = 5;
+    /** Ranks every move cheaply, so only the likeliest candidates get a full search */
+    private static final SearchLimits SHORTLIST_LIMITS = SearchLimits.depth(1);
+
+    private final ThreadPoolExecutor pool;
+    private final ThreadLocal<Search> searches;
+    private final SearchLimits limits;
+    private final Map<Long, CompletableFuture<AnalysisResult>> results;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param workers       searches that can run at once
+     * @param queueCapacity searches that can wait for a worker
+     * @param cacheSize     positions to keep results for, least recently used
+     *                      first out
+     * @param limits        budget for the main search of each position
+     * @param table         shared by every worker's search
+     */
+    public AnalysisService(int workers, int queueCapacity, int cacheSize, SearchLimits limits, TranspositionTable table) {
+        if (workers < 1 || queueCapacity < 1 || cacheSize < 1) {
+            throw new IllegalArgumentException("Workers, queue capacity and cache size must be at least 1");
+        }
+        pool = WorkerPools.boundedPool("analysis-worker", workers, queueCapacity);
+        searches = ThreadLocal.withInitial(() -> new Search(table));
+        this.limits = limits;
+        results = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CompletableFuture<AnalysisResult>> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Looks up or starts the analysis of a position. The game is copied before
+     * this returns, so callers that share it need only hold its lock for the call.
+     */
+    public CompletableFuture<AnalysisResult> analyze(ChessGame game) {
+        long key = game.positionKey();
+        CompletableFuture<AnalysisResult> future;
+        synchronized (results) {
+            future = results.get(key);
+            if (future != null) {
+                hits.increment();
+                return future;
+            }
+            misses.increment();
+            future = new CompletableFuture<>();
+            results.put(key, future);
+        }
+
+        ChessGame position = new ChessGame(game);
+        CompletableFuture<AnalysisResult> pending = future;
+        try {
+            pool.execute(() -> {
+                try {
+                    pending.complete(analyze(searches.get(), position));
+                } catch (RuntimeException e) {
+                    forget(key, pending);
+                    pending.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            forget(key, pending);
+            pending.completeExceptionally(e);
+        }
+        return pending;
+    }
+
+    private void forget(long key, CompletableFuture<AnalysisResult> future) {
+        synchronized (results) {
+            results.remove(key, future);
+        }
+    }
+
+    /**
+     * Searches the position, then ranks the other legal moves with a one-ply
+     * search of the position after each, and scores only the best few of those
+     * with a deeper search. The deeper searches start from the table the main
+     * search just filled, so they cost a fraction of it.
+     */
+    private AnalysisResult analyze(Search search, ChessGame position) {
+        int sign = position.getTeamTurn() == ChessGame.TeamColor.WHITE ? 1 : -1;
+        SearchResult main = search.search(position, limits);
+        if (main.bestMove() == null) {
+            return new AnalysisResult(sign * main.score(), mateIn(sign * main.score()), 0, 0, List.of(), List.of());
+        }
+
+        Collection<ChessMove> moves = position.generateLegalMoves(position.getTeamTurn());
+        long nodes = main.nodes();
+        List<ChessMove> shortlist = new ArrayList<>(moves.size());
+        Map<ChessMove, Integer> shallowScores = new HashMap<>();
+        for (ChessMove move : moves) {
+            if (!move.equals(main.bestMove())) {
+                position.pushMove(move);
+                SearchResult reply = search.search(position, SHORTLIST_LIMITS);
+                position.popMove();
+                nodes += reply.nodes();
+                shortlist.add(move);
+                shallowScores.put(move, -reply.score());
+            }
+        }
+        shortlist.sort(Comparator.comparing(shallowScores::get, Comparator.reverseOrder()));
+        shortlist = shortlist.subList(0, Math.min(CANDIDATES - 1, shortlist.size()));
+
+        long nodeBudget = limits.nodes() > 0 ? Math.max(1_000, limits.nodes() / (CANDIDATES - 1)) : 0;
+        SearchLimits candidateLimits = new SearchLimits(Math.max(1, main.depth() - 1), nodeBudget, 0);
+        List<AnalysisResult.Candidate> candidates = new ArrayList<>(CANDIDATES);
+        for (ChessMove move : shortlist) {
+            position.pushMove(move);
+            SearchResult reply = search.search(position, candidateLimits);
+            position.popMove();
+            nodes += reply.nodes();
+            int score = -reply.score();
+            if (Search.isMate(score)) {
+                // One ply further from the root than the reply's own mate distance
+                score -= Integer.signum(score);
+            }
+            candidates.add(new AnalysisResult.Candidate(move, sign * score, mateIn(sign * score)));
+        }
+        Comparator<AnalysisResult.Candidate> strongest = Comparator.comparingInt(AnalysisResult.Candidate::score);
+        candidates.sort(sign > 0 ? strongest.reversed() : strongest);
+        // The deeper main search has the last word on which move is best
+        candidates.add(0, new AnalysisResult.Candidate(main.bestMove(), sign * main.score(), mateIn(sign * main.score())));
+        return new AnalysisResult(sign * main.score(), mateIn(sign * main.score()), main.depth(), nodes,
+                main.principalVariation(), List.copyOf(candidates));
+    }
+
+    /**
+     * @return moves to mate for a white-relative score, negative when black
+     * mates, or 0 if the score is not a mate
+     */
+    private static int mateIn(int score) {
+        if (!Search.isMate(score)) {
+            return 0;
+        }
+        int plies = Search.MATE - Math.abs(score);
+        return Integer.signum(score) * ((plies + 1) / 2);
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public int queued() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Stops the workers. Analyses not yet finished, queued or running, fail with
+     * a {@link RejectedExecutionException}, so nobody waits on a search that
+     * will never complete.
+     */
+    @Override
+    public void close() {
+        pool.shutdownNow();
+        RejectedExecutionException closed = new RejectedExecutionException("Analysis service closed");
+        synchronized (results) {
+            for (CompletableFuture<AnalysisResult> future : results.values()) {
+                future.completeExceptionally(closed);
+            }
+            results.clear();
+        }
+    }
+}
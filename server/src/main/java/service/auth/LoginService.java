@@ -6,15 +6,20 @@ import model.data.AuthData;
 import model.LoginRequest;
 import model.LoginResult;
 import model.data.UserData;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.util.UUID;
 
 public class LoginService {
     private final DataAccess db;
+    private final PasswordHasher hasher;
 
     public LoginService(DataAccess db) {
+        this(db, PasswordHasher.DIRECT);
+    }
+
+    public LoginService(DataAccess db, PasswordHasher hasher) {
         this.db = db;
+        this.hasher = hasher;
     }
 
     public LoginResult login(LoginRequest request) throws DataAccessException {
@@ -24,7 +29,7 @@ public class LoginService {
         }
 
         UserData user = db.getUser(request.username());
-        if (user == null || !BCrypt.checkpw(request.password(), user.password())) {
+        if (user == null || !hasher.verify(request.password(), user.password())) {
             throw new DataAccessException("unauthorized");
         }
 
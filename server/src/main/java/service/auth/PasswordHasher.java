@@ -0,0 +1,196 @@
+package service.auth;
+
+import dataaccess.DataAccessException;
+import org.mindrot.jbcrypt.BCrypt;
+import service.WorkerPools;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hashes and checks passwords with BCrypt on a fixed pool of worker threads
+ * behind a bounded queue. Each hash is deliberately slow, so a burst of logins
+ * run on the request threads would leave none for gameplay; here at most the
+ * pool's workers are hashing at once. When the queue is full, or a hash waits
+ * too long, the caller gets a "service unavailable" {@link DataAccessException}
+ * straight away and can be told to retry.
+ * <p>
+ * The cost factor only applies to new hashes. A stored hash carries its own
+ * cost, so changing it does not lock anyone out.
+ */
+public final class PasswordHasher implements AutoCloseable {
+    /** jBCrypt's own default: 2^10 rounds */
+    public static final int DEFAULT_COST = 10;
+    /** Hashes on the calling thread, for callers that do their own admission control */
+    public static final PasswordHasher DIRECT = new PasswordHasher(DEFAULT_COST);
+
+    private final ThreadPoolExecutor pool;
+    private final int cost;
+    private final long timeoutMillis;
+
+    private final LongAdder hashes = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Math::max, 0);
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    private PasswordHasher(int cost) {
+        this.pool = null;
+        this.cost = cost;
+        this.timeoutMillis = 0;
+    }
+
+    /**
+     * @param workers       hashes that can run at once
+     * @param queueCapacity hashes that can wait for a worker before new ones are rejected
+     * @param cost          log2 of the BCrypt rounds for new hashes, 4 to 31
+     * @param timeoutMillis how long a caller waits for its hash, queueing included
+     */
+    public PasswordHasher(int workers, int queueCapacity, int cost, long timeoutMillis) {
+        if (workers < 1 || queueCapacity < 1 || timeoutMillis < 1) {
+            throw new IllegalArgumentException("Workers, queue capacity and timeout must be at least 1");
+        }
+        if (cost < 4 || cost > 31) {
+            throw new IllegalArgumentException("BCrypt cost must be between 4 and 31");
+        }
+        pool = WorkerPools.boundedPool("password-hasher", workers, queueCapacity);
+        this.cost = cost;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * @return a new salted hash of the password
+     * @throws DataAccessException "service unavailable" if the hasher is too busy
+     */
+    public String hash(String password) throws DataAccessException {
+        return run(() -> BCrypt.hashpw(password, BCrypt.gensalt(cost)));
+    }
+
+    /**
+     * @return whether the password matches the stored hash
+     * @throws DataAccessException "service unavailable" if the hasher is too busy
+     */
+    public boolean verify(String password, String hashed) throws DataAccessException {
+        return run(() -> BCrypt.checkpw(password, hashed));
+    }
+
+    private <T> T run(Callable<T> work) throws DataAccessException {
+        long submitted = System.nanoTime();
+        Callable<T> timed = () -> {
+            long started = System.nanoTime();
+            waitNanos.add(started - submitted);
+            try {
+                return work.call();
+            } finally {
+                long took = System.nanoTime() - started;
+                hashes.increment();
+                hashNanos.add(took);
+                maxHashNanos.accumulate(took);
+            }
+        };
+        if (pool == null) {
+            try {
+                return timed.call();
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        Future<T> future;
+        try {
+            future = pool.submit(timed);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new DataAccessException("service unavailable");
+        }
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Nobody is waiting for it any more; drop it if it has not started
+            future.cancel(false);
+            timeouts.increment();
+            throw new DataAccessException("service unavailable");
+        } catch (CancellationException e) {
+            // Closed while this was queued
+            throw new DataAccessException("service unavailable");
+        } catch (InterruptedException e) {
+            future.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new DataAccessException("service unavailable");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    public int cost() {
+        return cost;
+    }
+
+    /**
+     * @return hashes and checks finished
+     */
+    public long hashes() {
+        return hashes.sum();
+    }
+
+    public double averageHashMillis() {
+        long count = hashes();
+        return count == 0 ? 0 : hashNanos.sum() / 1e6 / count;
+    }
+
+    public double maxHashMillis() {
+        return maxHashNanos.get() / 1e6;
+    }
+
+    /**
+     * @return the average time a hash spent queued before a worker took it
+     */
+    public double averageWaitMillis() {
+        long count = hashes();
+        return count == 0 ? 0 : waitNanos.sum() / 1e6 / count;
+    }
+
+    public int queued() {
+        return pool == null ? 0 : pool.getQueue().size();
+    }
+
+    /**
+     * @return hashes turned away because the queue was full
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return hashes given up on because they waited too long
+     */
+    public long timeouts() {
+        return timeouts.sum();
+    }
+
+    @Override
+    public void close() {
+        if (pool != null) {
+            // Hashes still queued will never run; let their callers go
+            for (Runnable queued : pool.shutdownNow()) {
+                if (queued instanceof Future<?> future) {
+                    future.cancel(false);
+                }
+            }
+        }
+    }
+}
@@ -6,13 +6,21 @@ import model.data.AuthData;
 import model.RegisterRequest;
 import model.RegisterResult;
 import model.data.UserData;
+import service.bot.Difficulty;
 
 import java.util.UUID;
 
 public class RegisterService {
     private final DataAccess db;
+    private final PasswordHasher hasher;
+
     public RegisterService(DataAccess db){
+        this(db, PasswordHasher.DIRECT);
+    }
+
+    public RegisterService(DataAccess db, PasswordHasher hasher) {
         this.db = db;
+        this.hasher = hasher;
     }
 
     public RegisterResult register(RegisterRequest request) throws DataAccessException {
@@ -22,12 +30,12 @@ public class RegisterService {
                 request.email() == null || request.email().isBlank()) {
             throw new DataAccessException("bad request");
         }
-        //Check to see if user already exists
-        if(db.getUser(request.username()) != null) {
+        //Check to see if user already exists; bot names are reserved
+        if(db.getUser(request.username()) != null || Difficulty.fromUsername(request.username()) != null) {
             throw new DataAccessException("this user is already taken");
         }
-        var user = new UserData(request.username(), request.password(), request.email());
-        db.createUser(user);
+        var user = new UserData(request.username(), hasher.hash(request.password()), request.email());
+        db.createHashedUser(user);
 
         String token = UUID.randomUUID().toString();
         var auth = new AuthData(token, request.username());
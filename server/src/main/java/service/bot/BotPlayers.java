@@ -0,0 +1,120 @@
+package service.bot;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.TranspositionTable;
+import chess.search.Search;
+import chess.search.SearchResult;
+import service.WorkerPools;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Thinks up moves for the bots seated in games. Searches run on a fixed pool of
+ * worker threads behind a bounded queue, so a burst of bot turns can never tie
+ * up the threads serving requests or grow without limit; once the queue is full
+ * new turns are turned away and the caller decides what to tell the players.
+ */
+public final class BotPlayers implements AutoCloseable {
+    private final ThreadPoolExecutor pool;
+    private final ThreadLocal<Search> searches;
+    private final Set<Integer> thinking = ConcurrentHashMap.newKeySet();
+    private final LongAdder moves = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder nodes = new LongAdder();
+    private volatile boolean closed;
+
+    /**
+     * @param workers       searches that can run at once
+     * @param queueCapacity turns that can wait for a worker before new ones are rejected
+     * @param table         shared by every worker's search
+     */
+    public BotPlayers(int workers, int queueCapacity, TranspositionTable table) {
+        if (workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("Workers and queue capacity must be at least 1");
+        }
+        pool = WorkerPools.boundedPool("bot-worker", workers, queueCapacity);
+        searches = ThreadLocal.withInitial(() -> new Search(table));
+    }
+
+    /**
+     * Queues a search for the side to move. The reply is called on a worker
+     * thread with the chosen move, or not at all if the side to move has none.
+     * A game that already has a search queued or running is left alone, since
+     * the move it produces would be stale. The search is done by the time its
+     * reply is called, so the reply may submit the game's next turn.
+     *
+     * @param position a copy of the game that nothing else will touch
+     * @return false if the queue was full and the turn was rejected
+     */
+    public boolean submit(int gameID, ChessGame position, Difficulty difficulty, Consumer<ChessMove> reply) {
+        if (!thinking.add(gameID)) {
+            return true;
+        }
+        try {
+            pool.execute(() -> {
+                ChessMove best;
+                try {
+                    SearchResult result = searches.get().search(position, difficulty.limits());
+                    nodes.add(result.nodes());
+                    best = result.bestMove();
+                } finally {
+                    // Before the reply, which may hand this game its next turn
+                    thinking.remove(gameID);
+                }
+                // Once closed, whatever the reply writes to may be closed too
+                if (best != null && !closed) {
+                    moves.increment();
+                    reply.accept(best);
+                }
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            thinking.remove(gameID);
+            rejected.increment();
+            return false;
+        }
+    }
+
+    public long movesPlayed() {
+        return moves.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public long nodesSearched() {
+        return nodes.sum();
+    }
+
+    /**
+     * @return turns waiting for a worker
+     */
+    public int queued() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Stops taking turns, interrupts the workers and waits for them to finish.
+     * Replies not yet started are dropped, so once this returns none will run.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        pool.shutdownNow();
+        try {
+            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
+                System.err.println("Bot workers still running after 10 seconds");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
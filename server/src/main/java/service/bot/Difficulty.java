@@ -0,0 +1,60 @@
+package service.bot;
+
+import chess.search.SearchLimits;
+
+/**
+ * How strongly a bot plays. Each level is a fixed search budget: the search
+ * stops at whichever of its depth, node and time limits it reaches first, so
+ * {@link #timeMillis()} is the most CPU time one bot move can take and the
+ * worker pool can be sized from the number of games expected at each level.
+ */
+public enum Difficulty {
+    EASY(2, 2_000, 50),
+    MEDIUM(4, 50_000, 250),
+    HARD(0, 400_000, 1_500);
+
+    private static final String PREFIX = "bot-";
+
+    private final SearchLimits limits;
+
+    Difficulty(int depth, long nodes, long timeMillis) {
+        this.limits = new SearchLimits(depth, nodes, timeMillis);
+    }
+
+    public SearchLimits limits() {
+        return limits;
+    }
+
+    public long timeMillis() {
+        return limits.timeMillis();
+    }
+
+    /**
+     * @return the name the bot is seated under, such as {@code bot-easy}
+     */
+    public String username() {
+        return PREFIX + name().toLowerCase();
+    }
+
+    /**
+     * @return the level the username belongs to, or null if it is not a bot
+     */
+    public static Difficulty fromUsername(String username) {
+        if (username == null || !username.startsWith(PREFIX)) {
+            return null;
+        }
+        return parse(username.substring(PREFIX.length()));
+    }
+
+    /**
+     * @return the level with the given name, ignoring case, or null if there is none
+     */
+    public static Difficulty parse(String name) {
+        for (Difficulty difficulty : values()) {
+            if (difficulty.name().equalsIgnoreCase(name)) {
+                return difficulty;
+            }
+        }
+        return null;
+    }
+}
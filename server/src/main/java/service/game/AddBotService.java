@@ -0,0 +1,74 @@
+package service.game;
+
+import chess.ChessGame;
+import dataaccess.DataAccess;
+import dataaccess.DataAccessException;
+import model.AddBotRequest;
+import model.data.AuthData;
+import model.data.GameData;
+import service.bot.Difficulty;
+
+public class AddBotService {
+    private final DataAccess db;
+
+    public AddBotService(DataAccess db) {
+        this.db = db;
+    }
+
+    /**
+     * Seats a bot in an empty seat. Any signed-in user can add one; the bot then
+     * moves whenever it is its turn in a game with a WebSocket connection open.
+     * This only changes the stored game; callers with players connected must
+     * also update their live copy of the seats.
+     *
+     * @return the username the bot was seated under
+     */
+    public String addBot(AddBotRequest request, String authToken) throws DataAccessException {
+        if (request == null || request.gameID() == 0) {
+            throw new DataAccessException("bad request");
+        }
+
+        AuthData auth = db.getAuth(authToken);
+        if (auth == null) {
+            throw new DataAccessException("unauthorized");
+        }
+
+        GameData game = db.getGame(request.gameID());
+        if (game == null) {
+            throw new DataAccessException("bad request");
+        }
+
+        if (request.playerColor() == null || request.playerColor().isBlank()) {
+            throw new DataAccessException("bad request");
+        }
+        ChessGame.TeamColor color;
+        try {
+            color = ChessGame.TeamColor.valueOf(request.playerColor().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new DataAccessException("Invalid team color: " + request.playerColor());
+        }
+
+        Difficulty difficulty = request.difficulty() == null ? Difficulty.MEDIUM : Difficulty.parse(request.difficulty());
+        if (difficulty == null) {
+            throw new DataAccessException("bad request");
+        }
+        String username = difficulty.username();
+
+        switch (color) {
+            case WHITE -> {
+                if (game.whiteUsername() != null && !game.whiteUsername().equals(username)) {
+                    throw new DataAccessException("Error: white player already taken");
+                }
+                db.setWhiteUsername(game.gameID(), username);
+            }
+            case BLACK -> {
+                if (game.blackUsername() != null && !game.blackUsername().equals(username)) {
+                    throw new DataAccessException("Error: black player already taken");
+                }
+                db.setBlackUsername(game.gameID(), username);
+            }
+            default -> throw new DataAccessException("bad request");
+        }
+        return username;
+    }
+}
@@ -2,38 +2,67 @@ package service.game;
 
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
+import dataaccess.GameQuery;
 import model.*;
 import model.data.AuthData;
-import model.data.GameData;
 
-import java.util.ArrayList;
 import java.util.List;
 
 public class ListGamesService {
+    /** The most games one page can hold */
+    public static final int MAX_PAGE_SIZE = 100;
+
     private final DataAccess db;
 
     public ListGamesService(DataAccess db) {
         this.db = db;
     }
 
+    /**
+     * @param tag    identifies this listing of the games; it changes whenever the listing could
+     * @param result the games, or null if the caller already had the listing with this tag
+     */
+    public record Listing(String tag, ListGamesResult result) {}
+
     public ListGamesResult listGames(String authToken) throws DataAccessException {
+        return listGames(authToken, GameQuery.ALL, null).result();
+    }
+
+    /**
+     * Lists one page of the games the query matches, unless the caller's copy is
+     * still current. The tag is checked before the games are read, so a caller
+     * with a current copy costs one token lookup and no query.
+     *
+     * @param knownTag the tag of the listing the caller already has, or null
+     */
+    public Listing listGames(String authToken, GameQuery query, String knownTag) throws DataAccessException {
         AuthData auth = db.getAuth(authToken);
         if (auth == null) {
             throw new DataAccessException("unauthorized");
         }
+        if (query.limit() > MAX_PAGE_SIZE) {
+            throw new DataAccessException("bad request");
+        }
 
-        List<GameData> allGames = db.listGames();  // ← you'll need to implement this
-        List<ListGamesResult.GameSummary> summaries = new ArrayList<>();
-
-        for (GameData game : allGames) {
-            summaries.add(new ListGamesResult.GameSummary(
-                    game.gameID(),
-                    game.whiteUsername(),
-                    game.blackUsername(),
-                    game.gameName()
-            ));
+        // Read before the games, so the games listed are never older than the tag says
+        String tag = db.gamesVersion() + "/" + query.canonical();
+        if (tag.equals(knownTag)) {
+            return new Listing(tag, null);
+        }
+        if (query.limit() == 0) {
+            // Summaries only: listing never loads or replays a game
+            return new Listing(tag, new ListGamesResult(db.listGameSummaries(query)));
         }
 
-        return new ListGamesResult(summaries);
+        // One game past the page says whether there is a next page
+        List<ListGamesResult.GameSummary> games = db.listGameSummaries(
+                new GameQuery(query.afterGameID(), query.limit() + 1, query.openSeatsOnly(), query.player(),
+                        query.inProgressOnly()));
+        Integer nextCursor = null;
+        if (games.size() > query.limit()) {
+            games.remove(games.size() - 1);
+            nextCursor = games.get(games.size() - 1).gameID();
+        }
+        return new Listing(tag, new ListGamesResult(games, nextCursor));
     }
-}
\ No newline at end of file
+}
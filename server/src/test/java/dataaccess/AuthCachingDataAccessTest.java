@@ -0,0 +1,106 @@
+package dataaccess;
+
+import model.data.AuthData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthCachingDataAccessTest {
+    private CountingStore store;
+    private long now;
+    private AuthCachingDataAccess cache;
+
+    /**
+     * Counts the lookups that reach it
+     */
+    private static final class CountingStore extends MemoryDataAccess {
+        int lookups;
+
+        @Override
+        public AuthData getAuth(String authToken) {
+            lookups++;
+            return super.getAuth(authToken);
+        }
+    }
+
+    @BeforeEach
+    public void setup() throws Exception {
+        store = new CountingStore();
+        store.createAuth(new AuthData("token-a", "alice"));
+        store.createAuth(new AuthData("token-b", "bob"));
+        store.createAuth(new AuthData("token-c", "carol"));
+        cache = new AuthCachingDataAccess(store, 2, 60_000, 1_000, () -> now);
+    }
+
+    private void advanceMillis(long millis) {
+        now += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    void hitAfterMissPositive() throws Exception {
+        assertEquals("alice", cache.getUsernameFromAuth("token-a"));
+        assertEquals("alice", cache.getAuth("token-a").username());
+        assertEquals(1, store.lookups);
+        assertEquals(1, cache.hits());
+        assertEquals(1, cache.misses());
+
+        advanceMillis(60_000);
+        cache.getAuth("token-a");
+        assertEquals(2, store.lookups);
+    }
+
+    @Test
+    void createAuthCachesPositive() throws Exception {
+        cache.createAuth(new AuthData("token-d", "dave"));
+        assertEquals("dave", cache.getUsernameFromAuth("token-d"));
+        assertEquals(0, store.lookups);
+    }
+
+    @Test
+    void evictsLeastRecentlyUsedPositive() throws Exception {
+        cache.getAuth("token-a");
+        cache.getAuth("token-b");
+        cache.getAuth("token-a");
+        cache.getAuth("token-c");
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions());
+
+        cache.getAuth("token-a");
+        assertEquals(3, store.lookups);
+        cache.getAuth("token-b");
+        assertEquals(4, store.lookups);
+    }
+
+    @Test
+    void unknownTokenNegative() throws Exception {
+        assertThrows(DataAccessException.class, () -> cache.getUsernameFromAuth("forged"));
+        assertNull(cache.getAuth("forged"));
+        assertEquals(1, store.lookups);
+        assertEquals(1, cache.negativeHits());
+
+        // Negative entries expire sooner, so a token created elsewhere is seen
+        store.createAuth(new AuthData("forged", "mallory"));
+        advanceMillis(1_000);
+        assertEquals("mallory", cache.getUsernameFromAuth("forged"));
+    }
+
+    @Test
+    void deleteAuthInvalidatesNegative() throws Exception {
+        cache.getAuth("token-a");
+        cache.deleteAuth("token-a");
+        assertNull(cache.getAuth("token-a"));
+        assertThrows(DataAccessException.class, () -> cache.getUsernameFromAuth("token-a"));
+    }
+
+    @Test
+    void clearInvalidatesNegative() throws Exception {
+        cache.getAuth("token-a");
+        cache.getAuth("token-b");
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertNull(cache.getAuth("token-a"));
+    }
+}
@@ -0,0 +1,154 @@
+package dataaccess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConnectionPoolTest {
+    private final List<FakeConnection> opened = new ArrayList<>();
+    private ConnectionPool pool;
+
+    @AfterEach
+    public void cleanup() {
+        if (pool != null) {
+            pool.close();
+        }
+    }
+
+    /**
+     * Stands in for a database connection, recording what the pool does to it
+     */
+    private static final class FakeConnection {
+        boolean closed;
+        boolean autoCommit = true;
+        boolean valid = true;
+        int rollbacks;
+
+        Connection proxy() {
+            return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                    new Class<?>[]{Connection.class}, (proxy, method, args) -> switch (method.getName()) {
+                        case "close" -> {
+                            closed = true;
+                            yield null;
+                        }
+                        case "isClosed" -> closed;
+                        case "isValid" -> valid;
+                        case "getAutoCommit" -> autoCommit;
+                        case "setAutoCommit" -> {
+                            autoCommit = (Boolean) args[0];
+                            yield null;
+                        }
+                        case "rollback" -> {
+                            rollbacks++;
+                            yield null;
+                        }
+                        case "getCatalog" -> "chess";
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    });
+        }
+    }
+
+    private ConnectionPool pool(int maxSize, long acquireTimeout, long maxLifetime, long validateAfter) {
+        pool = new ConnectionPool(() -> {
+            FakeConnection connection = new FakeConnection();
+            opened.add(connection);
+            return connection.proxy();
+        }, new ConnectionPool.Settings(maxSize, acquireTimeout, 60_000, maxLifetime, validateAfter, 1));
+        return pool;
+    }
+
+    @Test
+    void reusesConnectionsPositive() throws SQLException {
+        ConnectionPool pool = pool(2, 1_000, 60_000, 60_000);
+        try (Connection conn = pool.getConnection()) {
+            assertEquals("chess", conn.getCatalog());
+            assertEquals(1, pool.active());
+        }
+        assertEquals(0, pool.active());
+        assertEquals(1, pool.idle());
+        try (Connection conn = pool.getConnection()) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, pool.created());
+        assertEquals(2, pool.acquired());
+        assertFalse(opened.get(0).closed);
+    }
+
+    @Test
+    void waiterGetsReturnedConnectionPositive() throws Exception {
+        ConnectionPool pool = pool(1, 5_000, 60_000, 60_000);
+        Connection held = pool.getConnection();
+        CompletableFuture<Connection> waiting = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pool.getConnection();
+            } catch (SQLException ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        while (pool.waiters() == 0) {
+            Thread.sleep(5);
+        }
+        held.close();
+        try (Connection conn = waiting.get(5, TimeUnit.SECONDS)) {
+            assertFalse(conn.isClosed());
+        }
+        assertEquals(1, pool.created());
+    }
+
+    @Test
+    void acquireTimeoutNegative() throws SQLException {
+        ConnectionPool pool = pool(1, 50, 60_000, 60_000);
+        try (Connection held = pool.getConnection()) {
+            assertThrows(SQLTransientConnectionException.class, pool::getConnection);
+            assertEquals(1, pool.timeouts());
+        }
+    }
+
+    @Test
+    void retiresInvalidAndExpiredNegative() throws Exception {
+        ConnectionPool pool = pool(2, 1_000, 60_000, 0);
+        pool.getConnection().close();
+        opened.get(0).valid = false;
+        pool.getConnection().close();
+        assertEquals(2, pool.created());
+        assertTrue(opened.get(0).closed);
+        pool.close();
+
+        ConnectionPool shortLived = pool(2, 1_000, 20, 60_000);
+        shortLived.getConnection().close();
+        Thread.sleep(40);
+        shortLived.getConnection().close();
+        assertEquals(2, shortLived.created());
+    }
+
+    @Test
+    void rollsBackUnfinishedTransactionPositive() throws SQLException {
+        ConnectionPool pool = pool(1, 1_000, 60_000, 60_000);
+        try (Connection conn = pool.getConnection()) {
+            conn.setAutoCommit(false);
+        }
+        assertEquals(1, opened.get(0).rollbacks);
+        assertTrue(opened.get(0).autoCommit);
+    }
+
+    @Test
+    void returnedConnectionUnusableNegative() throws SQLException {
+        ConnectionPool pool = pool(1, 1_000, 60_000, 60_000);
+        Connection conn = pool.getConnection();
+        conn.close();
+        conn.close();
+        assertTrue(conn.isClosed());
+        assertThrows(SQLException.class, conn::getCatalog);
+        assertEquals(1, pool.idle());
+    }
+}
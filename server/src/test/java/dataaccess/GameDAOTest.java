@@ -4,6 +4,8 @@ import model.data.GameData;
 import org.junit.jupiter.api.*;
 import static org.junit.jupiter.api.Assertions.*;
 import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
 
 public class GameDAOTest{
     private DataAccess db;
@@ -51,7 +53,7 @@ public class GameDAOTest{
         GameData game = new GameData(0, "white", "black", "testGame", new ChessGame());
         int gameID = db.createGame(game);
         ChessGame newGame = new ChessGame();
-        newGame.makeMove(new chess.ChessMove(new chess.ChessPosition(2, 2), new chess.ChessPosition(3, 2), null));
+        newGame.makeMove(new ChessMove(new ChessPosition(2, 2), new ChessPosition(3, 2), null));
         db.updateGame(gameID, newGame);
         GameData updated = db.getGame(gameID);
         assertNotNull(updated);
@@ -64,6 +66,80 @@ public class GameDAOTest{
         assertThrows(DataAccessException.class, () -> db.updateGame(99999, game));
     }
 
+    /**
+     * Shuffles the kings' knights out and back, the move for the given ply
+     */
+    private static ChessMove shuffleMove(int ply) {
+        int[][] shuffle = {{1, 7, 3, 6}, {8, 7, 6, 6}, {3, 6, 1, 7}, {6, 6, 8, 7}};
+        int[] step = shuffle[ply % shuffle.length];
+        return new ChessMove(new ChessPosition(step[0], step[1]), new ChessPosition(step[2], step[3]), null);
+    }
+
+    private static void play(ChessGame game, int plies) throws Exception {
+        for (int i = 0; i < plies; i++) {
+            ChessMove move = shuffleMove(game.getMoveHistory().size());
+            game.makeMove(move);
+            game.getMoveHistory().add(move);
+        }
+    }
+
+    private void recordUntil(int gameID, ChessGame game, int ply) throws Exception {
+        while (game.getMoveHistory().size() < ply) {
+            play(game, 1);
+            db.recordMove(gameID, game);
+        }
+    }
+
+    @Test
+    void recordMovePositive() throws Exception {
+        int gameID = db.createGame(new GameData(0, "white", "black", "testGame", new ChessGame()));
+        ChessGame game = new ChessGame();
+        // Past one snapshot, so the load replays from it
+        recordUntil(gameID, game, MySqlDataAccess.SNAPSHOT_INTERVAL + 5);
+        ChessGame loaded = db.getGame(gameID).game();
+        assertEquals(game, loaded);
+        assertEquals(game.getMoveHistory(), loaded.getMoveHistory());
+        assertEquals(game.toFen(), loaded.toFen());
+    }
+
+    @Test
+    void recordMoveAfterWholeWritePositive() throws Exception {
+        int gameID = db.createGame(new GameData(0, "white", "black", "testGame", new ChessGame()));
+        // Written whole, so the first plies are only in the row, not the journal
+        ChessGame game = new ChessGame();
+        play(game, 3);
+        db.updateGame(gameID, game);
+
+        recordUntil(gameID, game, MySqlDataAccess.SNAPSHOT_INTERVAL + 5);
+        ChessGame loaded = db.getGame(gameID).game();
+        assertEquals(game.getMoveHistory(), loaded.getMoveHistory());
+        assertEquals(game.toFen(), loaded.toFen());
+    }
+
+    @Test
+    void recordMoveMateEndsGamePositive() throws Exception {
+        int gameID = db.createGame(new GameData(0, "white", "black", "testGame", new ChessGame()));
+        ChessGame game = new ChessGame();
+        int[][] foolsMate = {{2, 6, 3, 6}, {7, 5, 5, 5}, {2, 7, 4, 7}, {8, 4, 4, 8}};
+        for (int[] step : foolsMate) {
+            ChessMove move = new ChessMove(new ChessPosition(step[0], step[1]), new ChessPosition(step[2], step[3]), null);
+            game.makeMove(move);
+            game.getMoveHistory().add(move);
+            db.recordMove(gameID, game);
+        }
+        assertTrue(db.getGame(gameID).game().isGameOver());
+        assertTrue(db.listGameSummaries(new GameQuery(0, 0, false, null, true)).isEmpty());
+    }
+
+    @Test
+    void recordMoveNegativeNotFound() throws Exception {
+        ChessGame game = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        game.makeMove(move);
+        game.getMoveHistory().add(move);
+        assertThrows(DataAccessException.class, () -> db.recordMove(99999, game));
+    }
+
     @Test
     void listGamesPositive() throws Exception{
         db.createGame(new GameData(0, "white", "black", "game1", new ChessGame()));
@@ -76,6 +152,35 @@ public class GameDAOTest{
         assertEquals(0, db.listGames().size());
     }
 
+    @Test
+    void listGameSummariesPositive() throws Exception {
+        int first = db.createGame(new GameData(0, "white", "black", "full", new ChessGame()));
+        int second = db.createGame(new GameData(0, "white", null, "open", new ChessGame()));
+        int third = db.createGame(new GameData(0, null, "other", "theirs", new ChessGame()));
+
+        var page = db.listGameSummaries(new GameQuery(0, 2, false, null, false));
+        assertEquals(2, page.size());
+        assertEquals(first, page.get(0).gameID());
+        assertEquals(second, page.get(1).gameID());
+        var next = db.listGameSummaries(new GameQuery(0, 2, false, null, false).after(second));
+        assertEquals(1, next.size());
+        assertEquals(third, next.get(0).gameID());
+
+        assertEquals(2, db.listGameSummaries(new GameQuery(0, 0, true, null, false)).size());
+        assertEquals(2, db.listGameSummaries(new GameQuery(0, 0, false, "white", false)).size());
+        assertEquals("theirs", db.listGameSummaries(new GameQuery(0, 0, false, "other", false)).get(0).gameName());
+    }
+
+    @Test
+    void listGameSummariesNegativeFinished() throws Exception {
+        ChessGame over = new ChessGame();
+        over.setGameOver(true);
+        db.createGame(new GameData(0, "white", "black", "done", over));
+        assertEquals(1, db.listGameSummaries(GameQuery.ALL).size());
+        assertTrue(db.listGameSummaries(new GameQuery(0, 0, false, null, true)).isEmpty());
+        assertTrue(db.listGameSummaries(new GameQuery(0, 0, false, "nobody", false)).isEmpty());
+    }
+
     @Test
     void clearPositive() throws Exception {
         db.createGame(new GameData(0, "white", "black", "game1", new ChessGame()));
@@ -0,0 +1,295 @@
+package dataaccess;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPosition;
+import chess.GameCodec;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteBehindDataAccessTest {
+    @TempDir
+    Path logDirectory;
+
+    private WriteBehindDataAccess db;
+
+    /**
+     * Keeps the batches it is given instead of writing them, or fails them all,
+     * or fails those holding particular games
+     */
+    private static final class RecordingStore extends MemoryDataAccess implements BatchedGameStore {
+        final List<List<PendingWrites>> batches = new ArrayList<>();
+        final Set<Integer> failingGames = new HashSet<>();
+        final Set<Integer> goneGames = new HashSet<>();
+        boolean failing;
+
+        @Override
+        public synchronized void writeBatch(Collection<PendingWrites> writes) throws DataAccessException {
+            if (failing) {
+                throw new DataAccessException("Error: database unavailable");
+            }
+            for (PendingWrites game : writes) {
+                if (failingGames.contains(game.gameID) || goneGames.contains(game.gameID)) {
+                    throw new DataAccessException("Error: could not write game " + game.gameID);
+                }
+            }
+            batches.add(new ArrayList<>(writes));
+        }
+
+        @Override
+        public synchronized boolean gameExists(int gameID) {
+            return !goneGames.contains(gameID);
+        }
+
+        synchronized PendingWrites lastFor(int gameID) {
+            for (int i = batches.size() - 1; i >= 0; i--) {
+                for (PendingWrites writes : batches.get(i)) {
+                    if (writes.gameID == gameID) {
+                        return writes;
+                    }
+                }
+            }
+            return null;
+        }
+    }
+
+    @AfterEach
+    public void cleanup() throws Exception {
+        if (db != null) {
+            db.close();
+        }
+    }
+
+    private WriteBehindDataAccess open(RecordingStore store, long flushMillis) throws DataAccessException {
+        db = new WriteBehindDataAccess(store, store, logDirectory, flushMillis, 1_000);
+        return db;
+    }
+
+    /**
+     * Shuffles the kings' knights out and back, recording each move
+     */
+    private static void play(WriteBehindDataAccess db, int gameID, ChessGame game, int plies) throws Exception {
+        int[][] shuffle = {{1, 7, 3, 6}, {8, 7, 6, 6}, {3, 6, 1, 7}, {6, 6, 8, 7}};
+        for (int i = 0; i < plies; i++) {
+            int[] step = shuffle[game.getMoveHistory().size() % shuffle.length];
+            ChessMove move = new ChessMove(new ChessPosition(step[0], step[1]), new ChessPosition(step[2], step[3]), null);
+            game.makeMove(move);
+            game.getMoveHistory().add(move);
+            db.recordMove(gameID, game);
+        }
+    }
+
+    @Test
+    void coalescesIntoOneBatchPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        play(db, 1, new ChessGame(), 3);
+        play(db, 2, new ChessGame(), 2);
+        db.updateGame(3, new ChessGame());
+        assertEquals(5, db.pendingMoves());
+        assertTrue(store.batches.isEmpty());
+
+        db.flush();
+        assertEquals(1, store.batches.size());
+        assertEquals(3, store.batches.get(0).size());
+        PendingWrites first = store.lastFor(1);
+        assertEquals(1, first.firstPly);
+        assertEquals(3, first.moves.size());
+        assertNotNull(store.lastFor(3).wholeGame);
+        assertEquals(5, db.movesWritten());
+        assertEquals(0, db.pendingMoves());
+    }
+
+    @Test
+    void wholeWriteReplacesPendingMovesPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        ChessGame game = new ChessGame();
+        play(db, 1, game, 2);
+        db.updateGame(1, game);
+        play(db, 1, game, 1);
+        db.flush();
+        PendingWrites writes = store.lastFor(1);
+        assertEquals(2, writes.wholePly);
+        assertEquals(3, writes.firstPly);
+        assertEquals(1, writes.moves.size());
+    }
+
+    @Test
+    void snapshotAtIntervalPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        play(db, 1, new ChessGame(), MySqlDataAccess.SNAPSHOT_INTERVAL + 1);
+        db.flush();
+        assertEquals(MySqlDataAccess.SNAPSHOT_INTERVAL, store.lastFor(1).snapshotPly);
+    }
+
+    @Test
+    void readsFlushFirstPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        play(db, 1, new ChessGame(), 1);
+        play(db, 2, new ChessGame(), 2);
+        db.getGame(1);
+        assertEquals(1, store.batches.size());
+        assertEquals(1, store.batches.get(0).size());
+        assertNotNull(store.lastFor(1));
+        // The other game waits for the next flush
+        assertNull(store.lastFor(2));
+        assertEquals(2, db.pendingMoves());
+    }
+
+    @Test
+    void versionMovesBeforeFlushPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        ChessGame game = new ChessGame();
+        String before = db.gamesVersion();
+        play(db, 1, game, 2);
+        assertEquals(before, db.gamesVersion());
+
+        ChessMove last = new ChessMove(new ChessPosition(3, 6), new ChessPosition(1, 7), null);
+        game.makeMove(last);
+        game.getMoveHistory().add(last);
+        game.setGameOver(true);
+        db.recordMove(1, game);
+        String over = db.gamesVersion();
+        assertNotEquals(before, over);
+        db.updateGame(2, new ChessGame());
+        assertNotEquals(over, db.gamesVersion());
+        // Listing neither flushes nor waits
+        db.listGameSummaries(GameQuery.ALL);
+        assertTrue(store.batches.isEmpty());
+    }
+
+    @Test
+    void mateStoredAsOverPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        ChessGame game = new ChessGame();
+        int[][] foolsMate = {{2, 6, 3, 6}, {7, 5, 5, 5}, {2, 7, 4, 7}, {8, 4, 4, 8}};
+        String before = db.gamesVersion();
+        for (int[] step : foolsMate) {
+            ChessMove move = new ChessMove(new ChessPosition(step[0], step[1]), new ChessPosition(step[2], step[3]), null);
+            game.makeMove(move);
+            game.getMoveHistory().add(move);
+            db.recordMove(1, game);
+        }
+        assertNotEquals(before, db.gamesVersion());
+
+        db.flush();
+        PendingWrites writes = store.lastFor(1);
+        assertEquals(4, writes.snapshotPly);
+        assertTrue(GameCodec.isGameOver(writes.snapshot));
+    }
+
+    @Test
+    void flushesInBackgroundPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 10);
+        play(db, 1, new ChessGame(), 1);
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (store.lastFor(1) == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertNotNull(store.lastFor(1));
+    }
+
+    @Test
+    void failedFlushKeepsWritesNegative() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        ChessGame game = new ChessGame();
+        play(db, 1, game, 3);
+        store.failing = true;
+        assertThrows(DataAccessException.class, db::flush);
+        assertEquals(3, db.pendingMoves());
+        assertEquals(1, db.failedFlushes());
+
+        play(db, 1, game, 1);
+        store.failing = false;
+        db.flush();
+        PendingWrites writes = store.lastFor(1);
+        assertEquals(1, writes.firstPly);
+        assertEquals(4, writes.moves.size());
+    }
+
+    @Test
+    void failedGameKeptWhileOthersStoreNegative() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        play(db, 1, new ChessGame(), 2);
+        play(db, 2, new ChessGame(), 3);
+        store.failingGames.add(2);
+        assertThrows(DataAccessException.class, db::flush);
+        assertEquals(2, store.lastFor(1).moves.size());
+        assertNull(store.lastFor(2));
+        assertEquals(3, db.pendingMoves());
+
+        // Its moves are still in the log after another start
+        assertThrows(DataAccessException.class, db::close);
+        RecordingStore restarted = new RecordingStore();
+        open(restarted, 60_000);
+        assertEquals(3, restarted.lastFor(2).moves.size());
+    }
+
+    @Test
+    void goneGameDroppedPositive() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        play(db, 1, new ChessGame(), 2);
+        play(db, 2, new ChessGame(), 1);
+        store.goneGames.add(2);
+        db.flush();
+        assertNotNull(store.lastFor(1));
+        assertEquals(0, db.pendingMoves());
+    }
+
+    @Test
+    void recoversFromLogPositive() throws Exception {
+        RecordingStore down = new RecordingStore();
+        down.failing = true;
+        WriteBehindDataAccess crashed = open(down, 60_000);
+        ChessGame game = new ChessGame();
+        play(crashed, 7, game, 2);
+        crashed.updateGame(8, new ChessGame());
+        assertThrows(DataAccessException.class, crashed::close);
+        db = null;
+
+        RecordingStore up = new RecordingStore();
+        open(up, 60_000);
+        assertEquals(1, up.batches.size());
+        assertEquals(2, up.lastFor(7).moves.size());
+        assertNotNull(up.lastFor(8).wholeGame);
+
+        // Stored now, so a third start has nothing to recover
+        db.close();
+        RecordingStore again = new RecordingStore();
+        open(again, 60_000);
+        assertTrue(again.batches.isEmpty());
+    }
+
+    @Test
+    void movesOutOfOrderNegative() throws Exception {
+        RecordingStore store = new RecordingStore();
+        WriteBehindDataAccess db = open(store, 60_000);
+        ChessGame game = new ChessGame();
+        play(db, 1, game, 2);
+        ChessGame other = new ChessGame();
+        ChessMove move = new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null);
+        other.makeMove(move);
+        other.getMoveHistory().add(move);
+        // Ply 1 again for a game whose pending moves are already at ply 2
+        assertThrows(DataAccessException.class, () -> db.recordMove(1, other));
+    }
+}
@@ -0,0 +1,59 @@
+package servicetests;
+
+import chess.ChessGame;
+import dataaccess.DataAccessException;
+import dataaccess.MySqlDataAccess;
+import model.AddBotRequest;
+import model.data.AuthData;
+import model.data.GameData;
+import model.data.UserData;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import service.game.AddBotService;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddBotServiceTest {
+    private MySqlDataAccess db;
+    private AddBotService service;
+    private int gameID;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        db = new MySqlDataAccess();
+        db.clear();
+
+        db.createUser(new UserData("player1", "pass", "email"));
+        db.createAuth(new AuthData("token1", "player1"));
+        db.createGame(new GameData(0, "player1", null, "test game", new ChessGame()));
+        gameID = db.listGames().get(0).gameID();
+
+        service = new AddBotService(db);
+    }
+
+    @Test
+    void addBotPositive() throws Exception {
+        String username = service.addBot(new AddBotRequest("BLACK", gameID, "hard"), "token1");
+
+        assertEquals("bot-hard", username);
+        assertEquals("bot-hard", db.getGame(gameID).blackUsername());
+    }
+
+    @Test
+    void addBotNegativeSeatTaken() {
+        AddBotRequest request = new AddBotRequest("WHITE", gameID, "easy");
+        assertThrows(DataAccessException.class, () -> service.addBot(request, "token1"));
+    }
+
+    @Test
+    void addBotNegativeUnknownDifficulty() {
+        AddBotRequest request = new AddBotRequest("BLACK", gameID, "impossible");
+        assertThrows(DataAccessException.class, () -> service.addBot(request, "token1"));
+    }
+
+    @Test
+    void addBotNegativeInvalidToken() {
+        AddBotRequest request = new AddBotRequest("BLACK", gameID, "easy");
+        assertThrows(DataAccessException.class, () -> service.addBot(request, "invalid-token"));
+    }
+}
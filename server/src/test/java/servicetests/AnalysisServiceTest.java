@@ -0,0 +1,106 @@
+package servicetests;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.TranspositionTable;
+import chess.search.SearchLimits;
+import model.AnalysisResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import service.analysis.AnalysisService;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AnalysisServiceTest {
+    private AnalysisService service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.close();
+        }
+    }
+
+    private AnalysisService service(int queueCapacity) {
+        return new AnalysisService(1, queueCapacity, 16, SearchLimits.depth(3), new TranspositionTable(1 << 12));
+    }
+
+    @Test
+    void analyzePositive() throws Exception {
+        service = service(4);
+        AnalysisResult result = service.analyze(new ChessGame()).get(10, TimeUnit.SECONDS);
+
+        assertEquals(3, result.depth());
+        assertEquals(0, result.mate());
+        assertFalse(result.bestLine().isEmpty());
+        assertEquals(AnalysisService.CANDIDATES, result.candidates().size());
+        assertEquals(result.bestLine().get(0), result.candidates().get(0).move());
+    }
+
+    @Test
+    void analyzeFindsMatePositive() throws Exception {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        for (int col = 6; col <= 8; col++) {
+            board.addPiece(new ChessPosition(7, col), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        service = service(4);
+        AnalysisResult result = service.analyze(game).get(10, TimeUnit.SECONDS);
+
+        assertEquals(1, result.mate());
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(8, 1), null), result.bestLine().get(0));
+    }
+
+    @Test
+    void repeatedPositionHitsCachePositive() throws Exception {
+        service = service(4);
+        CompletableFuture<AnalysisResult> first = service.analyze(new ChessGame());
+        CompletableFuture<AnalysisResult> second = service.analyze(new ChessGame());
+
+        assertSame(first.get(10, TimeUnit.SECONDS), second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, service.misses());
+        assertEquals(1, service.hits());
+    }
+
+    @Test
+    void fullQueueNegative() throws Exception {
+        service = new AnalysisService(1, 1, 16, SearchLimits.time(200), new TranspositionTable(1 << 12));
+        ChessGame game = new ChessGame();
+        CompletableFuture<AnalysisResult> running = service.analyze(game);
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        CompletableFuture<AnalysisResult> queued = service.analyze(game);
+        game.makeMove(new ChessMove(new ChessPosition(7, 5), new ChessPosition(5, 5), null));
+        CompletableFuture<AnalysisResult> rejected = service.analyze(game);
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> rejected.get(10, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+        assertNotNull(running.get(10, TimeUnit.SECONDS));
+        assertNotNull(queued.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void closeFailsQueuedNegative() throws Exception {
+        service = new AnalysisService(1, 2, 16, SearchLimits.time(200), new TranspositionTable(1 << 12));
+        ChessGame game = new ChessGame();
+        service.analyze(game);
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        CompletableFuture<AnalysisResult> queued = service.analyze(game);
+
+        service.close();
+        ExecutionException error = assertThrows(ExecutionException.class, () -> queued.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(RejectedExecutionException.class, error.getCause());
+    }
+}
@@ -0,0 +1,131 @@
+package servicetests;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.InvalidMoveException;
+import chess.TranspositionTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import service.bot.BotPlayers;
+import service.bot.Difficulty;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BotPlayersTest {
+    private BotPlayers bots;
+
+    @AfterEach
+    void tearDown() {
+        if (bots != null) {
+            bots.close();
+        }
+    }
+
+    @Test
+    void submitPositive() throws Exception {
+        bots = new BotPlayers(1, 4, new TranspositionTable(1 << 10));
+        ChessGame game = new ChessGame();
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicReference<ChessMove> reply = new AtomicReference<>();
+        AtomicReference<String> thread = new AtomicReference<>();
+
+        assertTrue(bots.submit(1, new ChessGame(game), Difficulty.EASY, move -> {
+            reply.set(move);
+            thread.set(Thread.currentThread().getName());
+            done.countDown();
+        }));
+
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertTrue(game.validMoves(reply.get().getStartPosition()).contains(reply.get()));
+        assertTrue(thread.get().startsWith("bot-worker-"));
+        assertEquals(1, bots.movesPlayed());
+    }
+
+    @Test
+    void replySubmitsNextTurnPositive() throws Exception {
+        bots = new BotPlayers(1, 4, new TranspositionTable(1 << 10));
+        ChessGame game = new ChessGame();
+        CountDownLatch turns = new CountDownLatch(4);
+
+        // A bot playing itself: each reply asks for the other side's move
+        Consumer<ChessMove> reply = new Consumer<>() {
+            @Override
+            public void accept(ChessMove move) {
+                try {
+                    game.makeMove(move);
+                } catch (InvalidMoveException e) {
+                    throw new IllegalStateException(e);
+                }
+                turns.countDown();
+                if (turns.getCount() > 0) {
+                    assertTrue(bots.submit(1, new ChessGame(game), Difficulty.EASY, this));
+                }
+            }
+        };
+        assertTrue(bots.submit(1, new ChessGame(game), Difficulty.EASY, reply));
+
+        assertTrue(turns.await(10, TimeUnit.SECONDS));
+        assertEquals(4, bots.movesPlayed());
+    }
+
+    @Test
+    void fullQueueNegative() throws Exception {
+        bots = new BotPlayers(1, 1, new TranspositionTable(1 << 10));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+
+        // Hold the only worker so the next turn waits in the queue
+        assertTrue(bots.submit(1, new ChessGame(), Difficulty.EASY, move -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(bots.submit(2, new ChessGame(), Difficulty.EASY, move -> { }));
+
+        assertFalse(bots.submit(3, new ChessGame(), Difficulty.EASY, move -> { }));
+        assertEquals(1, bots.rejected());
+        release.countDown();
+    }
+
+    @Test
+    void closeDropsRepliesNegative() throws Exception {
+        bots = new BotPlayers(1, 4, new TranspositionTable(1 << 10));
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        AtomicInteger replies = new AtomicInteger();
+
+        assertTrue(bots.submit(1, new ChessGame(), Difficulty.EASY, move -> {
+            started.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertTrue(bots.submit(2, new ChessGame(), Difficulty.EASY, move -> replies.incrementAndGet()));
+
+        // The reply in progress is interrupted; the queued turn never runs
+        bots.close();
+        assertEquals(0, replies.get());
+        assertFalse(bots.submit(3, new ChessGame(), Difficulty.EASY, move -> replies.incrementAndGet()));
+    }
+
+    @Test
+    void botUsernamesNegative() {
+        assertEquals(Difficulty.HARD, Difficulty.fromUsername(Difficulty.HARD.username()));
+        assertNull(Difficulty.fromUsername("player1"));
+        assertNull(Difficulty.fromUsername("bot-impossible"));
+        assertNull(Difficulty.parse(null));
+    }
+}
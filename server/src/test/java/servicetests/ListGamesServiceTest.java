@@ -2,6 +2,7 @@ package servicetests;
 
 import dataaccess.DataAccess;
 import dataaccess.DataAccessException;
+import dataaccess.GameQuery;
 import dataaccess.MySqlDataAccess;
 import model.data.AuthData;
 import model.data.GameData;
@@ -48,6 +49,53 @@ class ListGamesServiceTest {
         assertTrue(games.stream().anyMatch(g -> g.gameName().equals("Game Two")));
     }
 
+    @Test
+    void listGamesPagedPositive() throws Exception {
+        ListGamesResult first = service.listGames("valid-token", new GameQuery(0, 1, false, null, false), null).result();
+        assertEquals(1, first.games().size());
+        assertEquals("Game One", first.games().get(0).gameName());
+        assertNotNull(first.nextCursor());
+
+        GameQuery next = new GameQuery(first.nextCursor(), 1, false, null, false);
+        ListGamesResult second = service.listGames("valid-token", next, null).result();
+        assertEquals(1, second.games().size());
+        assertEquals("Game Two", second.games().get(0).gameName());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void listGamesUnchangedPositive() throws Exception {
+        ListGamesService.Listing listing = service.listGames("valid-token", GameQuery.ALL, null);
+        assertNotNull(listing.result());
+
+        ListGamesService.Listing again = service.listGames("valid-token", GameQuery.ALL, listing.tag());
+        assertEquals(listing.tag(), again.tag());
+        assertNull(again.result());
+
+        db.createGame(new GameData(0, null, null, "Game Three", new ChessGame()));
+        ListGamesService.Listing changed = service.listGames("valid-token", GameQuery.ALL, listing.tag());
+        assertNotEquals(listing.tag(), changed.tag());
+        assertEquals(3, changed.result().games().size());
+    }
+
+    @Test
+    void listGamesOtherQueryNegative() throws Exception {
+        ListGamesService.Listing listing = service.listGames("valid-token", GameQuery.ALL, null);
+        GameQuery mine = new GameQuery(0, 0, false, "a,b", false);
+        ListGamesService.Listing other = service.listGames("valid-token", mine, listing.tag());
+        assertNotEquals(listing.tag(), other.tag());
+        assertNotNull(other.result());
+        // No player is not the same as a player with no name
+        assertNotEquals(GameQuery.ALL.canonical(), new GameQuery(0, 0, false, "", false).canonical());
+        assertFalse(other.tag().contains(","));
+    }
+
+    @Test
+    void listGamesNegativePageTooLarge() {
+        GameQuery query = new GameQuery(0, ListGamesService.MAX_PAGE_SIZE + 1, false, null, false);
+        assertThrows(DataAccessException.class, () -> service.listGames("valid-token", query, null));
+    }
+
     @Test
     void listGamesNegativeInvalidToken() {
         assertThrows(DataAccessException.class, () -> service.listGames("invalid-token"));
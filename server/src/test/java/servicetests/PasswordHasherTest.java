@@ -0,0 +1,74 @@
+package servicetests;
+
+import dataaccess.DataAccessException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import service.auth.PasswordHasher;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PasswordHasherTest {
+    private PasswordHasher hasher;
+
+    @AfterEach
+    void tearDown() {
+        if (hasher != null) {
+            hasher.close();
+        }
+    }
+
+    @Test
+    void hashAndVerifyPositive() throws Exception {
+        hasher = new PasswordHasher(2, 4, 4, 10_000);
+        String hashed = hasher.hash("correct horse");
+        assertTrue(hashed.startsWith("$2a$04$"));
+        assertTrue(hasher.verify("correct horse", hashed));
+        assertFalse(hasher.verify("wrong horse", hashed));
+        assertEquals(3, hasher.hashes());
+        assertTrue(hasher.maxHashMillis() >= hasher.averageHashMillis());
+
+        // A hash made at another cost still checks
+        assertTrue(PasswordHasher.DIRECT.verify("correct horse", hashed));
+    }
+
+    @Test
+    void fullQueueNegative() throws Exception {
+        hasher = new PasswordHasher(1, 1, 13, 60_000);
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    hasher.hash("slow");
+                } catch (DataAccessException ignored) {
+                    // Shut down at the end of the test
+                }
+            });
+            caller.start();
+            callers.add(caller);
+            long deadline = System.currentTimeMillis() + 5_000;
+            while (hasher.queued() < i && System.currentTimeMillis() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+        assertEquals(1, hasher.queued());
+
+        DataAccessException e = assertThrows(DataAccessException.class, () -> hasher.hash("one too many"));
+        assertEquals("service unavailable", e.getMessage());
+        assertEquals(1, hasher.rejected());
+        // Closing lets the caller still queued go
+        hasher.close();
+        callers.get(1).join(5_000);
+        assertFalse(callers.get(1).isAlive());
+    }
+
+    @Test
+    void timeoutNegative() {
+        hasher = new PasswordHasher(1, 1, 14, 1);
+        DataAccessException e = assertThrows(DataAccessException.class, () -> hasher.hash("slow"));
+        assertEquals("service unavailable", e.getMessage());
+        assertEquals(1, hasher.timeouts());
+    }
+}
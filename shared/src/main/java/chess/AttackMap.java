@@ -0,0 +1,82 @@
+package chess;
+
+/**
+ * Squares attacked by each color, maintained incrementally as pieces are placed
+ * and removed on a {@link BitboardPosition}.
+ * <p>
+ * Each occupied square keeps the attack set of the piece on it. When a square
+ * changes, only that square's piece and the sliders whose rays reach it are
+ * recomputed; every other attack set is unaffected by the change.
+ */
+public final class AttackMap {
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+
+    private final BitboardPosition position;
+    private final long[] attacksFrom = new long[64];
+    private final long[] byColor = new long[2];
+    private final boolean[] stale = new boolean[2];
+
+    AttackMap(BitboardPosition position) {
+        this.position = position;
+        rebuild();
+    }
+
+    /**
+     * @return every square attacked by at least one piece of the given color
+     */
+    public long attacks(ChessGame.TeamColor color) {
+        int index = color.ordinal();
+        if (stale[index]) {
+            long union = 0L;
+            long own = position.pieces(color);
+            while (own != 0) {
+                union |= attacksFrom[Long.numberOfTrailingZeros(own)];
+                own &= own - 1;
+            }
+            byColor[index] = union;
+            stale[index] = false;
+        }
+        return byColor[index];
+    }
+
+    public boolean isAttacked(int square, ChessGame.TeamColor by) {
+        return (attacks(by) & (1L << square)) != 0;
+    }
+
+    void rebuild() {
+        long occupied = position.occupied();
+        for (int square = 0; square < 64; square++) {
+            int kind = position.kindAt(square);
+            attacksFrom[square] = kind == BitboardPosition.EMPTY ? 0L : Attacks.of(kind, square, occupied);
+        }
+        stale[0] = true;
+        stale[1] = true;
+    }
+
+    /**
+     * Called by the position after the contents of a square change
+     */
+    void squareChanged(int square) {
+        long occupied = position.occupied();
+        long bit = 1L << square;
+        int kind = position.kindAt(square);
+        attacksFrom[square] = kind == BitboardPosition.EMPTY ? 0L : Attacks.of(kind, square, occupied);
+
+        long sliders = 0L;
+        for (ChessGame.TeamColor color : COLORS) {
+            sliders |= position.pieces(color, ChessPiece.PieceType.QUEEN)
+                    | position.pieces(color, ChessPiece.PieceType.ROOK)
+                    | position.pieces(color, ChessPiece.PieceType.BISHOP);
+        }
+        sliders &= ~bit;
+        while (sliders != 0) {
+            int from = Long.numberOfTrailingZeros(sliders);
+            sliders &= sliders - 1;
+            if ((attacksFrom[from] & bit) != 0) {
+                attacksFrom[from] = Attacks.of(position.kindAt(from), from, occupied);
+            }
+        }
+        stale[0] = true;
+        stale[1] = true;
+    }
+}
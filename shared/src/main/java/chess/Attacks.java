@@ -0,0 +1,132 @@
+package chess;
+
+/**
+ * Attack sets for each kind of piece, as bitboards of the squares a piece on a
+ * given square attacks. Sliding pieces stop at (and include) the first occupied
+ * square in each direction.
+ */
+public final class Attacks {
+    private static final int[][] KNIGHT_STEPS = {{2, 1}, {1, 2}, {2, -1}, {1, -2}, {-2, 1}, {-1, 2}, {-2, -1}, {-1, -2}};
+    private static final int[][] KING_STEPS = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {-1, -1}, {-1, 1}, {1, -1}};
+    // The first four directions run towards higher square numbers, the last four towards lower
+    private static final int[][] DIRECTIONS = {{1, 0}, {0, 1}, {1, 1}, {1, -1}, {-1, 0}, {0, -1}, {-1, -1}, {-1, 1}};
+    private static final int NORTH = 0;
+    private static final int EAST = 1;
+    private static final int NORTH_EAST = 2;
+    private static final int NORTH_WEST = 3;
+    private static final int SOUTH = 4;
+    private static final int WEST = 5;
+    private static final int SOUTH_WEST = 6;
+    private static final int SOUTH_EAST = 7;
+
+    private static final long[] KNIGHT = new long[64];
+    private static final long[] KING = new long[64];
+    private static final long[][] PAWN = new long[2][64];
+    private static final long[][] RAYS = new long[DIRECTIONS.length][64];
+    private static final long[][] BETWEEN = new long[64][64];
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            int row = BitboardPosition.row(from);
+            int col = BitboardPosition.column(from);
+            KNIGHT[from] = steps(row, col, KNIGHT_STEPS);
+            KING[from] = steps(row, col, KING_STEPS);
+            PAWN[ChessGame.TeamColor.WHITE.ordinal()][from] = steps(row, col, new int[][]{{1, -1}, {1, 1}});
+            PAWN[ChessGame.TeamColor.BLACK.ordinal()][from] = steps(row, col, new int[][]{{-1, -1}, {-1, 1}});
+            for (int dir = 0; dir < DIRECTIONS.length; dir++) {
+                long squares = 0L;
+                int r = row + DIRECTIONS[dir][0];
+                int c = col + DIRECTIONS[dir][1];
+                while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                    int to = BitboardPosition.square(r, c);
+                    BETWEEN[from][to] = squares;
+                    squares |= 1L << to;
+                    r += DIRECTIONS[dir][0];
+                    c += DIRECTIONS[dir][1];
+                }
+                RAYS[dir][from] = squares;
+            }
+        }
+    }
+
+    private Attacks() {
+    }
+
+    public static long knight(int square) {
+        return KNIGHT[square];
+    }
+
+    public static long king(int square) {
+        return KING[square];
+    }
+
+    /**
+     * @return the squares a pawn of the given color on the square attacks diagonally
+     */
+    public static long pawn(int square, ChessGame.TeamColor color) {
+        return PAWN[color.ordinal()][square];
+    }
+
+    public static long rook(int square, long occupied) {
+        return ray(NORTH, square, occupied) | ray(EAST, square, occupied)
+                | ray(SOUTH, square, occupied) | ray(WEST, square, occupied);
+    }
+
+    public static long bishop(int square, long occupied) {
+        return ray(NORTH_EAST, square, occupied) | ray(NORTH_WEST, square, occupied)
+                | ray(SOUTH_WEST, square, occupied) | ray(SOUTH_EAST, square, occupied);
+    }
+
+    public static long queen(int square, long occupied) {
+        return rook(square, occupied) | bishop(square, occupied);
+    }
+
+    /**
+     * @return the squares strictly between two squares on a shared rank, file or
+     * diagonal, or no squares if they do not share one
+     */
+    public static long between(int from, int to) {
+        return BETWEEN[from][to];
+    }
+
+    /**
+     * @return the squares attacked by the given kind of piece standing on the square
+     */
+    public static long of(int kind, int square, long occupied) {
+        return switch (BitboardPosition.typeOf(kind)) {
+            case KING -> king(square);
+            case QUEEN -> queen(square, occupied);
+            case BISHOP -> bishop(square, occupied);
+            case KNIGHT -> knight(square);
+            case ROOK -> rook(square, occupied);
+            case PAWN -> pawn(square, BitboardPosition.colorOf(kind));
+        };
+    }
+
+    /**
+     * Looks up the full ray in one direction and cuts it off past the nearest
+     * blocker, which is the lowest set bit for rays running up the board and the
+     * highest for rays running down
+     */
+    private static long ray(int dir, int square, long occupied) {
+        long ray = RAYS[dir][square];
+        long blockers = ray & occupied;
+        if (blockers != 0) {
+            int blocker = dir < SOUTH ? Long.numberOfTrailingZeros(blockers) : 63 - Long.numberOfLeadingZeros(blockers);
+            ray ^= RAYS[dir][blocker];
+        }
+        return ray;
+    }
+
+    private static long steps(int row, int col, int[][] steps) {
+        long attacks = 0L;
+        for (int[] step : steps) {
+            int r = row + step[0];
+            int c = col + step[1];
+            if (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                attacks |= 1L << BitboardPosition.square(r, c);
+            }
+        }
+        return attacks;
+    }
+}
@@ -0,0 +1,305 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A bitboard representation of the pieces on a chessboard: one 64-bit word per
+ * piece type and color, plus per-color and total occupancy.
+ * <p>
+ * Squares are numbered 0 to 63, with square 0 at row 1, column 1 and square 63
+ * at row 8, column 8. A piece "kind" combines color and type into a single index,
+ * {@code color.ordinal() * 6 + type.ordinal()}.
+ */
+public final class BitboardPosition {
+    public static final int KIND_COUNT = 12;
+    public static final int NO_SQUARE = -1;
+    public static final int EMPTY = -1;
+
+    private static final ChessGame.TeamColor[] COLORS = ChessGame.TeamColor.values();
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private final long[] pieces = new long[KIND_COUNT];
+    private final long[] colors = new long[2];
+    private long occupied;
+    private final byte[] kinds = new byte[64];
+    private long key;
+    private long pawnKey;
+    private int midgame;
+    private int endgame;
+    private int phase;
+    private AttackMap attackMap;
+
+    public BitboardPosition() {
+        Arrays.fill(kinds, (byte) EMPTY);
+    }
+
+    public BitboardPosition(BitboardPosition other) {
+        copyFrom(other);
+    }
+
+    public static int square(int row, int col) {
+        return (row - 1) * 8 + (col - 1);
+    }
+
+    public static int square(ChessPosition position) {
+        return square(position.getRow(), position.getColumn());
+    }
+
+    public static int row(int square) {
+        return (square >>> 3) + 1;
+    }
+
+    public static int column(int square) {
+        return (square & 7) + 1;
+    }
+
+    public static int kind(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
+    }
+
+    public static ChessGame.TeamColor colorOf(int kind) {
+        return COLORS[kind / 6];
+    }
+
+    public static ChessPiece.PieceType typeOf(int kind) {
+        return TYPES[kind % 6];
+    }
+
+    /**
+     * Places a piece on a square, replacing whatever was there before
+     */
+    public void put(int square, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        put(square, kind(color, type));
+    }
+
+    public void put(int square, int kind) {
+        clearSquare(square);
+        long bit = 1L << square;
+        pieces[kind] |= bit;
+        colors[kind / 6] |= bit;
+        occupied |= bit;
+        kinds[square] = (byte) kind;
+        key ^= Zobrist.piece(kind, square);
+        score(kind, square, 1);
+        if (attackMap != null) {
+            attackMap.squareChanged(square);
+        }
+    }
+
+    /**
+     * Empties a square
+     *
+     * @return the kind that was on the square, or {@link #EMPTY}
+     */
+    public int remove(int square) {
+        int kind = clearSquare(square);
+        if (kind != EMPTY && attackMap != null) {
+            attackMap.squareChanged(square);
+        }
+        return kind;
+    }
+
+    private int clearSquare(int square) {
+        int kind = kinds[square];
+        if (kind == EMPTY) {
+            return EMPTY;
+        }
+        long mask = ~(1L << square);
+        pieces[kind] &= mask;
+        colors[kind / 6] &= mask;
+        occupied &= mask;
+        kinds[square] = (byte) EMPTY;
+        key ^= Zobrist.piece(kind, square);
+        score(kind, square, -1);
+        return kind;
+    }
+
+    /**
+     * Adds a piece's contribution to the evaluation sums, or takes it away when
+     * {@code sign} is -1
+     */
+    private void score(int kind, int square, int sign) {
+        midgame += sign * PieceSquareTables.midgame(kind, square);
+        endgame += sign * PieceSquareTables.endgame(kind, square);
+        phase += sign * PieceSquareTables.phase(kind);
+        if (kind % 6 == ChessPiece.PieceType.PAWN.ordinal()) {
+            pawnKey ^= Zobrist.piece(kind, square);
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(pieces, 0L);
+        Arrays.fill(colors, 0L);
+        occupied = 0L;
+        Arrays.fill(kinds, (byte) EMPTY);
+        key = 0L;
+        pawnKey = 0L;
+        midgame = 0;
+        endgame = 0;
+        phase = 0;
+        if (attackMap != null) {
+            attackMap.rebuild();
+        }
+    }
+
+    public void copyFrom(BitboardPosition other) {
+        System.arraycopy(other.pieces, 0, pieces, 0, KIND_COUNT);
+        colors[0] = other.colors[0];
+        colors[1] = other.colors[1];
+        occupied = other.occupied;
+        System.arraycopy(other.kinds, 0, kinds, 0, 64);
+        key = other.key;
+        pawnKey = other.pawnKey;
+        midgame = other.midgame;
+        endgame = other.endgame;
+        phase = other.phase;
+        if (attackMap != null) {
+            attackMap.rebuild();
+        }
+    }
+
+    /**
+     * Starts maintaining an attack map for this position, so attack queries become
+     * a bit test at the cost of extra work on every change. Worth it when a position
+     * is queried far more often than it changes.
+     *
+     * @return the attack map, which stays current until the position is discarded
+     */
+    public AttackMap trackAttacks() {
+        if (attackMap == null) {
+            attackMap = new AttackMap(this);
+        }
+        return attackMap;
+    }
+
+    /**
+     * @return the pieces of the given color that attack the square
+     */
+    public long attackersTo(int square, ChessGame.TeamColor by) {
+        return attackersTo(square, by, occupied);
+    }
+
+    /**
+     * @return the pieces of the given color that would attack the square if the
+     * board had the given occupancy, e.g. with a king lifted off its square
+     */
+    public long attackersTo(int square, ChessGame.TeamColor by, long occupied) {
+        ChessGame.TeamColor defender = by == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long queens = pieces(by, ChessPiece.PieceType.QUEEN);
+        return (Attacks.knight(square) & pieces(by, ChessPiece.PieceType.KNIGHT))
+                | (Attacks.king(square) & pieces(by, ChessPiece.PieceType.KING))
+                | (Attacks.pawn(square, defender) & pieces(by, ChessPiece.PieceType.PAWN))
+                | (Attacks.rook(square, occupied) & (pieces(by, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishop(square, occupied) & (pieces(by, ChessPiece.PieceType.BISHOP) | queens));
+    }
+
+    /**
+     * Checks whether a square is attacked by looking outward from it: knight and
+     * king steps, pawn diagonals and the eight sliding rays.
+     */
+    public boolean isAttacked(int square, ChessGame.TeamColor by) {
+        if (attackMap != null) {
+            return attackMap.isAttacked(square, by);
+        }
+        ChessGame.TeamColor defender = by == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        if ((Attacks.pawn(square, defender) & pieces(by, ChessPiece.PieceType.PAWN)) != 0
+                || (Attacks.knight(square) & pieces(by, ChessPiece.PieceType.KNIGHT)) != 0
+                || (Attacks.king(square) & pieces(by, ChessPiece.PieceType.KING)) != 0) {
+            return true;
+        }
+        long queens = pieces(by, ChessPiece.PieceType.QUEEN);
+        long straight = pieces(by, ChessPiece.PieceType.ROOK) | queens;
+        long diagonal = pieces(by, ChessPiece.PieceType.BISHOP) | queens;
+        return (straight != 0 && (Attacks.rook(square, occupied) & straight) != 0)
+                || (diagonal != 0 && (Attacks.bishop(square, occupied) & diagonal) != 0);
+    }
+
+    public long pieces(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        return pieces[kind(color, type)];
+    }
+
+    public long pieces(int kind) {
+        return pieces[kind];
+    }
+
+    public long pieces(ChessGame.TeamColor color) {
+        return colors[color.ordinal()];
+    }
+
+    /**
+     * @return the Zobrist key of the pieces on the board, updated as they are placed
+     * and removed. Side to move, castling and en passant are not included.
+     */
+    public long key() {
+        return key;
+    }
+
+    /**
+     * @return the Zobrist key of the pawns alone, for caching pawn structure
+     */
+    public long pawnKey() {
+        return pawnKey;
+    }
+
+    /**
+     * @return white's middlegame material and piece-square score minus black's,
+     * kept current as pieces move; see {@link PieceSquareTables}
+     */
+    public int midgame() {
+        return midgame;
+    }
+
+    /**
+     * @return white's endgame material and piece-square score minus black's
+     */
+    public int endgame() {
+        return endgame;
+    }
+
+    /**
+     * @return the game phase from the pieces left, {@link PieceSquareTables#MAX_PHASE}
+     * at the start and more if promotions added pieces
+     */
+    public int phase() {
+        return phase;
+    }
+
+    public long occupied() {
+        return occupied;
+    }
+
+    public boolean isOccupied(int square) {
+        return (occupied & (1L << square)) != 0;
+    }
+
+    /**
+     * @return the kind on the square, or {@link #EMPTY}
+     */
+    public int kindAt(int square) {
+        return kinds[square];
+    }
+
+    /**
+     * @return the square of the given team's king, or {@link #NO_SQUARE} if it has none
+     */
+    public int kingSquare(ChessGame.TeamColor color) {
+        long king = pieces[kind(color, ChessPiece.PieceType.KING)];
+        return king == 0 ? NO_SQUARE : Long.numberOfTrailingZeros(king);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        return Arrays.equals(pieces, ((BitboardPosition) o).pieces);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (key ^ (key >>> 32));
+    }
+}
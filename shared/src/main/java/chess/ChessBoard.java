@@ -1,31 +1,37 @@
 package chess;
 
-import java.util.Arrays;
-import java.util.Objects;
-
 /**
  * A chessboard that can hold and rearrange chess pieces.
  * <p>
+ * The piece objects live in an 8x8 array, and a {@link BitboardPosition} is kept
+ * in step with it so copying, comparing and attack queries work on a few longs.
+ * Only the array is serialized; the bitboards are rebuilt from it on first use.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessBoard {
     private ChessPiece[][] squares = new ChessPiece[8][8];
+    private transient BitboardPosition position = new BitboardPosition();
+    // The array the bitboards were built from; Gson swaps in a new one when deserializing
+    private transient ChessPiece[][] indexedSquares = squares;
+    // Bumped on every change so cached results derived from the board can be checked
+    private transient int version;
 
     public ChessBoard() {
-        this.squares = new ChessPiece[8][8];
     }
 
     public ChessBoard(ChessBoard other) {
-        for (int row = 0; row < 8; row++) {
-            for (int col = 0; col < 8; col++) {
-                ChessPiece original = other.squares[row][col];
-                if (original != null) {
-                    this.squares[row][col] = new ChessPiece(original.getTeamColor(), original.getPieceType());
-                } else {
-                    this.squares[row][col] = null;
-                }
-            }
+        BitboardPosition source = other.getPosition();
+        position.copyFrom(source);
+        long occupied = source.occupied();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            ChessPiece original = other.squares[square >>> 3][square & 7];
+            ChessPiece copy = new ChessPiece(original.getTeamColor(), original.getPieceType());
+            copy.setHasMoved(original.hasMoved());
+            squares[square >>> 3][square & 7] = copy;
         }
     }
 
@@ -35,12 +41,149 @@ public class ChessBoard {
             return false;
         }
         ChessBoard that = (ChessBoard) o;
-        return Objects.deepEquals(squares, that.squares);
+        return getPosition().equals(that.getPosition());
     }
 
     @Override
     public int hashCode() {
-        return Arrays.deepHashCode(squares);
+        return getPosition().hashCode();
+    }
+
+    /**
+     * Gets the bitboard view of this board. It is kept in step with
+     * addPiece and removePiece and must not be modified directly.
+     *
+     * @return the bitboards for the pieces currently on the board
+     */
+    public BitboardPosition getPosition() {
+        if (position == null || indexedSquares != squares) {
+            reindex();
+        }
+        return position;
+    }
+
+    private void reindex() {
+        if (position == null) {
+            position = new BitboardPosition();
+        } else {
+            position.clear();
+        }
+        for (int row = 0; row < 8; row++) {
+            for (int col = 0; col < 8; col++) {
+                ChessPiece piece = squares[row][col];
+                if (piece != null) {
+                    position.put(row * 8 + col, piece.getTeamColor(), piece.getPieceType());
+                }
+            }
+        }
+        indexedSquares = squares;
+    }
+
+    int version() {
+        return version;
+    }
+
+    ChessPiece pieceAt(int square) {
+        return squares[square >>> 3][square & 7];
+    }
+
+    private void setPiece(int square, ChessPiece piece) {
+        BitboardPosition bitboards = getPosition();
+        squares[square >>> 3][square & 7] = piece;
+        version++;
+        if (piece == null) {
+            bitboards.remove(square);
+        } else {
+            bitboards.put(square, piece.getTeamColor(), piece.getPieceType());
+        }
+    }
+
+    /**
+     * Makes a move in place, recording what changed so {@link #unmakeMove} can
+     * restore it. Handles captures, en passant, castling and promotion, but does
+     * not check that the move is legal.
+     *
+     * @param move the move to make
+     * @param undo record to fill in; it is overwritten
+     */
+    public void makeMove(ChessMove move, MoveUndo undo) {
+        makeMove(BitboardPosition.square(move.getStartPosition()), BitboardPosition.square(move.getEndPosition()),
+                move.getPromotionPiece(), undo);
+    }
+
+    /**
+     * Makes a packed move in place; see {@link #makeMove(ChessMove, MoveUndo)}
+     *
+     * @param move the move, packed as by {@link PackedMove}
+     * @param undo record to fill in; it is overwritten
+     */
+    public void makeMove(int move, MoveUndo undo) {
+        makeMove(PackedMove.from(move), PackedMove.to(move), PackedMove.promotion(move), undo);
+    }
+
+    void makeMove(int from, int to, ChessPiece.PieceType promotion, MoveUndo undo) {
+        ChessPiece moving = pieceAt(from);
+        if (moving == null) {
+            throw new IllegalArgumentException("No piece on square " + from);
+        }
+        undo.from = from;
+        undo.to = to;
+        undo.moved = moving;
+        undo.movedHadMoved = moving.hasMoved();
+        undo.rook = null;
+
+        int fromCol = BitboardPosition.column(from);
+        int toCol = BitboardPosition.column(to);
+        int capturedSquare = to;
+        if (moving.getPieceType() == ChessPiece.PieceType.PAWN && pieceAt(to) == null && fromCol != toCol) {
+            // En passant: the captured pawn sits beside the start square
+            capturedSquare = BitboardPosition.square(BitboardPosition.row(from), toCol);
+        }
+        undo.capturedSquare = capturedSquare;
+        undo.captured = pieceAt(capturedSquare);
+        if (undo.captured != null) {
+            setPiece(capturedSquare, null);
+        }
+
+        setPiece(from, null);
+        setPiece(to, promotion == null ? moving : undo.promotedPiece(moving.getTeamColor(), promotion));
+        moving.setHasMoved(true);
+
+        if (moving.getPieceType() == ChessPiece.PieceType.KING && fromCol == 5 && (toCol == 7 || toCol == 3)) {
+            int row = BitboardPosition.row(from);
+            int rookFrom = BitboardPosition.square(row, toCol == 7 ? 8 : 1);
+            int rookTo = BitboardPosition.square(row, toCol == 7 ? 6 : 4);
+            ChessPiece rook = pieceAt(rookFrom);
+            if (rook != null) {
+                undo.rook = rook;
+                undo.rookFrom = rookFrom;
+                undo.rookTo = rookTo;
+                undo.rookHadMoved = rook.hasMoved();
+                setPiece(rookFrom, null);
+                setPiece(rookTo, rook);
+                rook.setHasMoved(true);
+            }
+        }
+    }
+
+    /**
+     * Takes back a move made with {@link #makeMove}. Moves must be taken back in
+     * the reverse order they were made.
+     *
+     * @param undo the record filled in when the move was made
+     */
+    public void unmakeMove(MoveUndo undo) {
+        if (undo.rook != null) {
+            setPiece(undo.rookTo, null);
+            setPiece(undo.rookFrom, undo.rook);
+            undo.rook.setHasMoved(undo.rookHadMoved);
+        }
+        setPiece(undo.to, null);
+        setPiece(undo.from, undo.moved);
+        undo.moved.setHasMoved(undo.movedHadMoved);
+        if (undo.captured != null) {
+            setPiece(undo.capturedSquare, undo.captured);
+        }
     }
 
     /**
@@ -51,10 +194,19 @@ public class ChessBoard {
      */
     public void addPiece(ChessPosition position, ChessPiece piece) {
         squares[position.getRow() - 1][position.getColumn() - 1] = piece;
+        version++;
+        int square = BitboardPosition.square(position);
+        if (piece == null) {
+            getPosition().remove(square);
+        } else {
+            getPosition().put(square, piece.getTeamColor(), piece.getPieceType());
+        }
     }
 
     public void removePiece(ChessPosition position){
         squares[position.getRow()-1][position.getColumn()-1] = null;
+        version++;
+        getPosition().remove(BitboardPosition.square(position));
     }
 
     /**
@@ -85,6 +237,7 @@ public class ChessBoard {
                 squares[row][col] = null;
             }
         }
+        getPosition().clear();
         addPiece(new ChessPosition(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
         addPiece(new ChessPosition(1, 2), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT));
         addPiece(new ChessPosition(1, 3), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.BISHOP));
@@ -3,7 +3,9 @@ package chess;
 import chess.ChessMove;
 import chess.ChessPosition;
 
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import java.util.ArrayList;
@@ -23,6 +25,20 @@ public class ChessGame {
     public boolean isGameOver() { return gameOver; }
     private final List<ChessMove> moveHistory = new ArrayList<>();
     private String resignedPlayer = null;
+    // Plies since the last capture or pawn move, and the move number, as in FEN
+    private int halfmoveClock = 0;
+    private int fullmoveNumber = 1;
+    // Scratch state for in-place moves and cached move lists; never serialized
+    private transient MoveUndo[] undoStack;
+    private transient int undoDepth;
+    private transient MoveGenerator moveGenerator;
+    private transient LegalMoves[] legalMoves;
+    private transient IntMoveList scratchMoves;
+    private transient long[] scratchDestinations;
+    // Shared by every game in the process; null when no cache is configured
+    private static volatile PositionCache positionCache;
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
 
 
     public ChessGame() {
@@ -32,6 +48,71 @@ public class ChessGame {
 
     }
 
+    /**
+     * Copies a game, including the state that affects which moves are legal: the
+     * pieces' moved flags for castling and the last move for en passant.
+     *
+     * @param other the game to copy
+     */
+    public ChessGame(ChessGame other) {
+        this.board = new ChessBoard(other.board);
+        this.currentTurn = other.currentTurn;
+        this.lastMove = other.lastMove;
+        this.gameOver = other.gameOver;
+        this.moveHistory.addAll(other.moveHistory);
+        this.resignedPlayer = other.resignedPlayer;
+        this.halfmoveClock = other.halfmoveClock;
+        this.fullmoveNumber = other.fullmoveNumber;
+    }
+
+    /**
+     * Sets up a game from a FEN string. The castling rights become the moved flags
+     * of the kings and rooks, and an en passant target becomes the double pawn
+     * push that allows it. The halfmove clock and fullmove number may be left off.
+     *
+     * @param fen the position, e.g. {@code rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1}
+     * @return a new game in that position, with no move history
+     * @throws IllegalArgumentException if the string is not a valid position
+     */
+    public static ChessGame fromFen(String fen) {
+        return Fen.parse(fen);
+    }
+
+    /**
+     * @return the position in Forsyth-Edwards Notation
+     */
+    public String toFen() {
+        return Fen.write(this);
+    }
+
+    /**
+     * @return plies since the last capture or pawn move, for the fifty-move rule
+     */
+    public int getHalfmoveClock() {
+        return halfmoveClock;
+    }
+
+    /**
+     * @return the number of the current move, starting at 1 and going up after
+     * each black move
+     */
+    public int getFullmoveNumber() {
+        return fullmoveNumber;
+    }
+
+    void setMoveCounters(int halfmoveClock, int fullmoveNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    ChessMove getLastMove() {
+        return lastMove;
+    }
+
+    void setLastMove(ChessMove lastMove) {
+        this.lastMove = lastMove;
+    }
+
     /**
      * @return Which team's turn it is
      */
@@ -81,108 +162,280 @@ public class ChessGame {
             return null;
         }
 
+        PositionCache cache = positionCache;
+        if (cache != null) {
+            return cachedValidMoves(cache, piece, BitboardPosition.square(startPosition));
+        }
         Collection<ChessMove> validMoves = new ArrayList<>();
-        Collection<ChessMove> allMoves = piece.pieceMoves(board, startPosition);
-
-        for (ChessMove move : allMoves) {
-            ChessBoard copy = new ChessBoard(board);
-            ChessPosition start = move.getStartPosition();
-            ChessPosition end = move.getEndPosition();
-            ChessPiece movingPiece = copy.getPiece(start);
-            if (movingPiece == null) {
-                continue;
+        for (ChessMove move : generateLegalMoves(piece.getTeamColor())) {
+            if (move.getStartPosition().equals(startPosition)) {
+                validMoves.add(move);
             }
-            copy.addPiece(end, movingPiece);
-            copy.removePiece(start);
+        }
+        return validMoves;
+    }
 
-            ChessGame simulatedGame = new ChessGame();
-            simulatedGame.setBoard(copy);
+    private Collection<ChessMove> cachedValidMoves(PositionCache cache, ChessPiece piece, int from) {
+        TeamColor team = piece.getTeamColor();
+        long key = positionKey(team);
+        long destinations = cache.destinations(key, from);
+        if (destinations == 1L << from) {
+            // Not cached: one generation gives the destinations of every piece on the team
+            if (scratchDestinations == null) {
+                scratchDestinations = new long[64];
+            }
+            long[] byPiece = scratchDestinations;
+            Arrays.fill(byPiece, 0L);
+            for (ChessMove move : generateLegalMoves(team)) {
+                byPiece[BitboardPosition.square(move.getStartPosition())]
+                        |= 1L << BitboardPosition.square(move.getEndPosition());
+            }
+            BitboardPosition position = board.getPosition();
+            int pieceCount = Long.bitCount(position.occupied());
+            long own = position.pieces(team);
+            while (own != 0) {
+                int square = Long.numberOfTrailingZeros(own);
+                own &= own - 1;
+                cache.putDestinations(key, square, byPiece[square], pieceCount);
+            }
+            destinations = byPiece[from];
+        }
 
-            if (!simulatedGame.isInCheck(piece.getTeamColor())) {
-                validMoves.add(move);
+        Collection<ChessMove> validMoves = new ArrayList<>(Long.bitCount(destinations));
+        boolean promotes = piece.getPieceType() == ChessPiece.PieceType.PAWN;
+        while (destinations != 0) {
+            int to = Long.numberOfTrailingZeros(destinations);
+            destinations &= destinations - 1;
+            int toRow = BitboardPosition.row(to);
+            if (promotes && (toRow == 1 || toRow == 8)) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    validMoves.add(ChessMove.of(from, to, promotion));
+                }
+            } else {
+                validMoves.add(ChessMove.of(from, to, null));
             }
         }
+        return validMoves;
+    }
 
-        addCastlingMoves(piece, startPosition, validMoves);
+    /**
+     * Shares a cache of legal moves and check status between every game in the
+     * process, or stops sharing one when given null. Games work the same either
+     * way; the cache only saves regenerating moves for positions seen before.
+     *
+     * @param cache the cache to use from now on, or null for none
+     */
+    public static void setPositionCache(PositionCache cache) {
+        positionCache = cache;
+    }
 
-        addEnPassantMoves(piece, startPosition, validMoves);
+    public static PositionCache getPositionCache() {
+        return positionCache;
+    }
 
-        return validMoves;
+    /**
+     * Gets every legal move for a team, including castling and en passant. Check
+     * evasions and pins are worked out once for the whole position, and the result
+     * is kept until the board or the last move changes.
+     *
+     * @param team the team to generate moves for
+     * @return unmodifiable list of the team's legal moves
+     */
+    public List<ChessMove> generateLegalMoves(TeamColor team) {
+        if (legalMoves == null) {
+            legalMoves = new LegalMoves[2];
+            scratchMoves = new IntMoveList();
+        }
+        LegalMoves cached = legalMoves[team.ordinal()];
+        if (cached != null && cached.board == board && cached.boardVersion == board.version()
+                && cached.lastMove == lastMove) {
+            return cached.moves;
+        }
+        scratchMoves.clear();
+        generateLegalMoves(team, scratchMoves);
+        List<ChessMove> moves = new ArrayList<>(scratchMoves.size());
+        for (int i = 0; i < scratchMoves.size(); i++) {
+            moves.add(PackedMove.toChessMove(scratchMoves.get(i)));
+        }
+        cached = new LegalMoves(board, board.version(), lastMove, Collections.unmodifiableList(moves));
+        legalMoves[team.ordinal()] = cached;
+        return cached.moves;
     }
 
-    private void addCastlingMoves(ChessPiece piece, ChessPosition startPosition, Collection<ChessMove> validMoves) {
-        if (piece.getPieceType() != ChessPiece.PieceType.KING || piece.hasMoved() || isInCheck(piece.getTeamColor())) {
-            return;
+    /**
+     * Gets every legal move for a team as packed ints, without building any
+     * {@link ChessMove} objects or caching the result. This is the form the engine
+     * works with; convert with {@link PackedMove#toChessMove(int)} where needed.
+     *
+     * @param team  the team to generate moves for
+     * @param moves list to append the moves to; it is not cleared first
+     */
+    public void generateLegalMoves(TeamColor team, IntMoveList moves) {
+        if (moveGenerator == null) {
+            moveGenerator = new MoveGenerator();
         }
-        int row = startPosition.getRow();
-        // King-side castling
-        ChessPiece kingSideRook = board.getPiece(new ChessPosition(row, 8));
-        if (kingSideRook != null && kingSideRook.getPieceType() == ChessPiece.PieceType.ROOK &&
-                kingSideRook.getTeamColor() == piece.getTeamColor() && !kingSideRook.hasMoved()) {
-            if (board.getPiece(new ChessPosition(row, 6)) == null &&
-                    board.getPiece(new ChessPosition(row, 7)) == null) {
-                if (canCastleThrough(piece, startPosition, new int[]{6, 7})) {
-                    validMoves.add(new ChessMove(startPosition, new ChessPosition(row, 7), null));
-                }
-            }
+        moveGenerator.generate(board, team, lastMove, moves);
+    }
+
+    private record LegalMoves(ChessBoard board, int boardVersion, ChessMove lastMove, List<ChessMove> moves) {}
+
+    private MoveUndo pushUndo() {
+        if (undoStack == null) {
+            undoStack = new MoveUndo[8];
+        } else if (undoDepth == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
         }
-        // Queen-side castling
-        ChessPiece queenSideRook = board.getPiece(new ChessPosition(row, 1));
-        if (queenSideRook != null && queenSideRook.getPieceType() == ChessPiece.PieceType.ROOK &&
-                queenSideRook.getTeamColor() == piece.getTeamColor() && !queenSideRook.hasMoved()) {
-            if (board.getPiece(new ChessPosition(row, 2)) == null &&
-                    board.getPiece(new ChessPosition(row, 3)) == null &&
-                    board.getPiece(new ChessPosition(row, 4)) == null) {
-                if (canCastleThrough(piece, startPosition, new int[]{4, 3})) {
-                    validMoves.add(new ChessMove(startPosition, new ChessPosition(row, 3), null));
-                }
-            }
+        MoveUndo undo = undoStack[undoDepth];
+        if (undo == null) {
+            undo = new MoveUndo();
+            undoStack[undoDepth] = undo;
         }
+        undoDepth++;
+        return undo;
     }
 
-    private boolean canCastleThrough(ChessPiece king, ChessPosition startPosition, int[] cols) {
-        for (int col : cols) {
-            ChessBoard copy = new ChessBoard(board);
-            copy.addPiece(new ChessPosition(startPosition.getRow(), col), king);
-            copy.removePiece(startPosition);
-            ChessGame tempGame = new ChessGame();
-            tempGame.setBoard(copy);
-            if (tempGame.isInCheck(king.getTeamColor())) {
-                return false;
-            }
+    private MoveUndo popUndo() {
+        if (undoDepth == 0) {
+            throw new IllegalStateException("No move to take back");
         }
-        return true;
+        return undoStack[--undoDepth];
     }
 
-    private void addEnPassantMoves(ChessPiece piece, ChessPosition startPosition, Collection<ChessMove> validMoves) {
-        if (piece.getPieceType() != ChessPiece.PieceType.PAWN || lastMove == null) {return;}
+    /**
+     * Makes a move in place for the side to move without checking that it is legal,
+     * recording enough to take it back with {@link #popMove()}. Castling rights and
+     * en passant are carried along, but the move history and game-over flag are not
+     * touched, so this is meant for looking ahead rather than playing a game.
+     *
+     * @param move the move to make
+     */
+    public void pushMove(ChessMove move) {
+        MoveUndo undo = pushUndo();
+        board.makeMove(move, undo);
+        undo.previousLastMove = lastMove;
+        lastMove = move;
+        advance(undo);
+    }
 
-        ChessPosition lastStart = lastMove.getStartPosition();
-        ChessPosition lastEnd = lastMove.getEndPosition();
-        ChessPiece lastPiece = board.getPiece(lastEnd);
+    /**
+     * Makes a packed move in place, like {@link #pushMove(ChessMove)}
+     *
+     * @param move the move, packed as by {@link PackedMove}
+     */
+    public void pushMove(int move) {
+        MoveUndo undo = pushUndo();
+        board.makeMove(move, undo);
+        undo.previousLastMove = lastMove;
+        lastMove = PackedMove.toChessMove(move);
+        advance(undo);
+    }
 
-        if (lastPiece != null &&
-            lastPiece.getPieceType() == ChessPiece.PieceType.PAWN &&
-            Math.abs(lastStart.getRow() - lastEnd.getRow()) == 2 &&
-            lastEnd.getRow() == startPosition.getRow() &&
-            Math.abs(lastEnd.getColumn() - startPosition.getColumn()) == 1) {
+    /**
+     * Passes the turn after a move the board has just made, updating the move
+     * counters and saving what they were in the undo record
+     */
+    private void advance(MoveUndo undo) {
+        undo.previousTurn = currentTurn;
+        undo.previousHalfmoveClock = halfmoveClock;
+        undo.previousFullmoveNumber = fullmoveNumber;
+        boolean irreversible = undo.captured != null || undo.moved.getPieceType() == ChessPiece.PieceType.PAWN;
+        halfmoveClock = irreversible ? 0 : halfmoveClock + 1;
+        if (currentTurn == TeamColor.BLACK) {
+            fullmoveNumber++;
+        }
+        currentTurn = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+    }
 
-            int direction = (piece.getTeamColor() == TeamColor.WHITE) ? 1 : -1;
-            ChessPosition enPassantTarget = new ChessPosition(lastEnd.getRow() + direction, lastEnd.getColumn());
-            ChessMove enPassantMove = new ChessMove(startPosition, enPassantTarget, null);
+    /**
+     * Takes back the most recent move made with {@link #pushMove(ChessMove)} or
+     * {@link #pushMove(int)}
+     */
+    public void popMove() {
+        MoveUndo undo = popUndo();
+        board.unmakeMove(undo);
+        lastMove = undo.previousLastMove;
+        currentTurn = undo.previousTurn;
+        halfmoveClock = undo.previousHalfmoveClock;
+        fullmoveNumber = undo.previousFullmoveNumber;
+    }
 
-            ChessBoard copy = new ChessBoard(board);
-            copy.addPiece(enPassantTarget, piece);
-            copy.removePiece(startPosition);
-            copy.removePiece(lastEnd); // simulate capture
+    /**
+     * Gets a 64-bit Zobrist key for the current position. The piece placement part
+     * is kept up to date by the board as pieces are added, removed and moved; the
+     * side to move, castling rights and en passant column are folded in here. Two
+     * games in the same position have the same key, whatever moves led to it.
+     *
+     * @return the position's key
+     */
+    public long positionKey() {
+        return positionKey(currentTurn);
+    }
 
-            ChessGame tempGame = new ChessGame();
-            tempGame.setBoard(copy);
+    /**
+     * @return the key of the position as if {@code team} were the side to move
+     */
+    private long positionKey(TeamColor team) {
+        long key = board.getPosition().key() ^ Zobrist.castling(castlingRights());
+        if (team == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        // Only the side to move can capture en passant
+        int enPassantColumn = team == currentTurn ? enPassantColumn() : 0;
+        if (enPassantColumn != 0) {
+            key ^= Zobrist.enPassant(enPassantColumn);
+        }
+        return key;
+    }
 
-            if (!tempGame.isInCheck(piece.getTeamColor())) {
-                validMoves.add(enPassantMove);
-            }
+    /**
+     * @return the castling rights still held, as a combination of the flags in
+     * {@link Zobrist}. A right is held while the king and that rook have not moved.
+     */
+    public int castlingRights() {
+        int rights = 0;
+        if (canStillCastle(1, 8, TeamColor.WHITE)) {
+            rights |= Zobrist.WHITE_KING_SIDE;
+        }
+        if (canStillCastle(1, 1, TeamColor.WHITE)) {
+            rights |= Zobrist.WHITE_QUEEN_SIDE;
+        }
+        if (canStillCastle(8, 8, TeamColor.BLACK)) {
+            rights |= Zobrist.BLACK_KING_SIDE;
         }
+        if (canStillCastle(8, 1, TeamColor.BLACK)) {
+            rights |= Zobrist.BLACK_QUEEN_SIDE;
+        }
+        return rights;
+    }
+
+    private boolean canStillCastle(int row, int rookCol, TeamColor color) {
+        return isUnmoved(board.getPiece(ChessPosition.of(row, 5)), ChessPiece.PieceType.KING, color)
+                && isUnmoved(board.getPiece(ChessPosition.of(row, rookCol)), ChessPiece.PieceType.ROOK, color);
+    }
+
+    private static boolean isUnmoved(ChessPiece piece, ChessPiece.PieceType type, TeamColor color) {
+        return piece != null && piece.getPieceType() == type && piece.getTeamColor() == color && !piece.hasMoved();
+    }
+
+    /**
+     * @return the column the side to move could capture en passant on, or 0 if the
+     * last move was not a double pawn push or no pawn is placed to take it
+     */
+    public int enPassantColumn() {
+        if (lastMove == null) {
+            return 0;
+        }
+        BitboardPosition position = board.getPosition();
+        TeamColor them = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        int from = BitboardPosition.square(lastMove.getStartPosition());
+        int to = BitboardPosition.square(lastMove.getEndPosition());
+        if (Math.abs(from - to) != 16
+                || position.kindAt(to) != BitboardPosition.kind(them, ChessPiece.PieceType.PAWN)) {
+            return 0;
+        }
+        int target = (from + to) / 2;
+        long capturers = Attacks.pawn(target, them) & position.pieces(currentTurn, ChessPiece.PieceType.PAWN);
+        return capturers == 0 ? 0 : BitboardPosition.column(target);
     }
 
     @Override
@@ -196,7 +449,12 @@ public class ChessGame {
 
     @Override
     public int hashCode() {
-        return Objects.hash(board, currentTurn);
+        // Consistent with equals, which looks only at the pieces and the side to move
+        long key = board.getPosition().key();
+        if (currentTurn == TeamColor.BLACK) {
+            key ^= Zobrist.blackToMove();
+        }
+        return (int) (key ^ (key >>> 32));
     }
 
     /**
@@ -220,7 +478,6 @@ public class ChessGame {
             throw new IllegalStateException("Game is over");
         }
         ChessPosition start = move.getStartPosition();
-        ChessPosition end = move.getEndPosition();
         ChessPiece movingPiece = board.getPiece(start);
 
         if (movingPiece == null) {
@@ -241,50 +498,14 @@ public class ChessGame {
             throw new InvalidMoveException("Error: Cannot move opponent's piece.");
         }
 
-        // Handle en passant capture
-        if (movingPiece.getPieceType() == ChessPiece.PieceType.PAWN && board.getPiece(end) == null && start.getColumn() != end.getColumn()) {
-            int direction = (movingPiece.getTeamColor() == TeamColor.WHITE) ? -1 : 1;
-            ChessPosition capturedPawnPos = new ChessPosition(end.getRow() + direction, end.getColumn());
-            board.removePiece(capturedPawnPos);
-        }
-
-        if (move.getPromotionPiece() != null) {
-            board.addPiece(end, new ChessPiece(movingPiece.getTeamColor(), move.getPromotionPiece()));
-        } else {
-            board.addPiece(end, movingPiece);
-        }
-
-        movingPiece.setHasMoved(true);
-
-        if(movingPiece.getPieceType() == ChessPiece.PieceType.KING){
-            int startCol = start.getColumn();
-            int endCol = end.getColumn();
-            int row = start.getRow();
-
-            if(startCol == 5 && endCol == 7){
-                ChessPiece rook = board.getPiece(new ChessPosition(row, 8));
-                board.removePiece(new ChessPosition(row, 8));
-                board.addPiece(new ChessPosition(row, 6), rook);
-                if(rook != null) {
-                    rook.setHasMoved(true);
-                }
-            }
-            if(startCol == 5 && endCol == 3){
-                ChessPiece rook = board.getPiece(new ChessPosition(row, 1));
-                board.removePiece(new ChessPosition(row, 1));
-                board.addPiece(new ChessPosition(row, 4), rook);
-                if(rook != null) {
-                    rook.setHasMoved(true);
-                }
-            }
-        }
-
-        board.removePiece(start);
+        // Captures, en passant, castling and promotion are all handled by the board
+        MoveUndo undo = new MoveUndo();
+        board.makeMove(move, undo);
 
         // Set lastMove before switching turn
         this.lastMove = move;
 
-        currentTurn = (currentTurn == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        advance(undo);
 
         if (isInCheckmate(currentTurn) || isInStalemate(currentTurn)) {
             setGameOver(true);
@@ -298,45 +519,13 @@ public class ChessGame {
      * @return True if the specified team is in check
      */
     public boolean isInCheck(TeamColor teamColor) {
-        ChessPosition kingPos = null;
-
-        for(int row = 1; row <= 8; row++){
-            for(int col = 1; col <= 8; col++){
-                ChessPiece piece = board.getPiece(new ChessPosition(row, col));
-                if(piece != null && piece.getPieceType() == ChessPiece.PieceType.KING && piece.getTeamColor() == teamColor){
-                    kingPos = new ChessPosition(row, col);
-                    break;
-                }
-            }
-        }
-        if(kingPos == null) {
+        BitboardPosition position = board.getPosition();
+        int kingSquare = position.kingSquare(teamColor);
+        if(kingSquare == BitboardPosition.NO_SQUARE) {
             throw new IllegalStateException("No king found for team: " + teamColor);
         }
-
-        for (int row = 1; row <= 8; row++) {
-            for (int col = 1; col <= 8; col++) {
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-                if (isOpponentPiece(piece, teamColor) && threatensKing(piece, pos, kingPos)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
-    private boolean isOpponentPiece(ChessPiece piece, TeamColor teamColor) {
-        return piece != null && piece.getTeamColor() != teamColor;
-    }
-
-    private boolean threatensKing(ChessPiece piece, ChessPosition piecePos, ChessPosition kingPos) {
-        Collection<ChessMove> moves = piece.pieceMoves(board, piecePos);
-        for (ChessMove move : moves) {
-            if (move.getEndPosition().equals(kingPos)) {
-                return true;
-            }
-        }
-        return false;
+        TeamColor opponent = (teamColor == TeamColor.WHITE) ? TeamColor.BLACK : TeamColor.WHITE;
+        return position.isAttacked(kingSquare, opponent);
     }
 
     /**
@@ -346,28 +535,7 @@ public class ChessGame {
      * @return True if the specified team is in checkmate
      */
     public boolean isInCheckmate(TeamColor teamColor) {
-        if(!isInCheck(teamColor)){
-            return false;
-        }
-        for(int row = 1; row <= 8; row++){
-            for(int col = 1; col <= 8; col++){
-                ChessPosition pos = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(pos);
-
-                if (piece != null && piece.getTeamColor() == teamColor && hasValidMoves(piece, pos)) {
-                    return false;
-                }
-            }
-        }
-        return true;
-    }
-
-    private boolean hasValidMoves(ChessPiece piece, ChessPosition pos) {
-        if (piece != null) {
-            Collection<ChessMove> moves = validMoves(pos);
-            return moves != null && !moves.isEmpty();
-        }
-        return false;
+        return moveStatus(teamColor) == 1;
     }
 
     /**
@@ -378,25 +546,25 @@ public class ChessGame {
      * @return True if the specified team is in stalemate, otherwise false
      */
     public boolean isInStalemate(TeamColor teamColor) {
-        if (isInCheck(teamColor)){
-            return false;
-        }
-
-        for(int row = 1; row <= 8; row++){
-            for(int col = 1; col <= 8; col++){
-                ChessPosition position = new ChessPosition(row, col);
-                ChessPiece piece = board.getPiece(position);
-
-                if(piece != null && piece.getTeamColor() == teamColor){
-                    Collection<ChessMove> moves = validMoves(position);
+        return moveStatus(teamColor) == 0;
+    }
 
-                    if(moves!=null && !moves.isEmpty()){
-                        return false;
-                    }
-                }
+    /**
+     * @return the team's legal move count shifted left one, with the low bit set if
+     * the team is in check
+     */
+    private long moveStatus(TeamColor teamColor) {
+        PositionCache cache = positionCache;
+        long key = cache == null ? 0 : positionKey(teamColor);
+        long status = cache == null ? -1 : cache.status(key);
+        if (status < 0) {
+            boolean inCheck = isInCheck(teamColor);
+            status = ((long) generateLegalMoves(teamColor).size() << 1) | (inCheck ? 1 : 0);
+            if (cache != null) {
+                cache.putStatus(key, status, Long.bitCount(board.getPosition().occupied()));
             }
         }
-        return true;
+        return status;
     }
 
     /**
@@ -406,6 +574,7 @@ public class ChessGame {
      */
     public void setBoard(ChessBoard board) {
         this.board = board;
+        this.undoDepth = 0;
     }
 
     /**
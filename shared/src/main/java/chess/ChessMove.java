@@ -5,10 +5,40 @@ import java.util.Objects;
 /**
  * Represents moving a chess piece on a chessboard
  * <p>
+ * Every move a piece could make on an empty board, promotions included, is built
+ * once up front and shared through {@link #of(ChessPosition, ChessPosition, ChessPiece.PieceType)}.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessMove {
+    private static final int PROMOTION_SLOTS = ChessPiece.PieceType.values().length + 1;
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+    private static final ChessMove[] MOVES = new ChessMove[64 * 64 * PROMOTION_SLOTS];
+
+    static {
+        for (int from = 0; from < 64; from++) {
+            for (int to = 0; to < 64; to++) {
+                int fromRow = (from >>> 3) + 1;
+                int toRow = (to >>> 3) + 1;
+                int rowStep = Math.abs(toRow - fromRow);
+                int colStep = Math.abs((to & 7) - (from & 7));
+                boolean line = rowStep == 0 || colStep == 0 || rowStep == colStep;
+                boolean jump = rowStep * colStep == 2;
+                if (from != to && (line || jump)) {
+                    MOVES[index(from, to, null)] = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), null);
+                }
+                boolean promotes = (fromRow == 7 && toRow == 8) || (fromRow == 2 && toRow == 1);
+                if (promotes && colStep <= 1) {
+                    for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                        MOVES[index(from, to, promotion)] = new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotion);
+                    }
+                }
+            }
+        }
+    }
+
 
     private final ChessPosition startPosition;
     private final ChessPosition endPosition;
@@ -19,6 +49,9 @@ public class ChessMove {
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
+        if (this == o) {
+            return true;
+        }
         ChessMove chessMove = (ChessMove) o;
         return Objects.equals(startPosition, chessMove.startPosition)
             && Objects.equals(endPosition, chessMove.endPosition)
@@ -27,7 +60,8 @@ public class ChessMove {
 
     @Override
     public int hashCode() {
-        return Objects.hash(startPosition, endPosition, promotionPiece);
+        int promotion = promotionPiece == null ? 0 : promotionPiece.ordinal() + 1;
+        return (Objects.hashCode(startPosition) * 81 + Objects.hashCode(endPosition)) * PROMOTION_SLOTS + promotion;
     }
 
     public ChessMove(ChessPosition startPosition, ChessPosition endPosition,
@@ -37,6 +71,41 @@ public class ChessMove {
         this.promotionPiece = promotionPiece;
     }
 
+    /**
+     * Gets the shared instance of a move, falling back to a new one for moves no
+     * piece could make, such as those off the board
+     *
+     * @return a move equal to {@code new ChessMove(startPosition, endPosition, promotionPiece)}
+     */
+    public static ChessMove of(ChessPosition startPosition, ChessPosition endPosition,
+                               ChessPiece.PieceType promotionPiece) {
+        if (onBoard(startPosition) && onBoard(endPosition)) {
+            ChessMove move = MOVES[index(BitboardPosition.square(startPosition), BitboardPosition.square(endPosition),
+                    promotionPiece)];
+            if (move != null) {
+                return move;
+            }
+        }
+        return new ChessMove(startPosition, endPosition, promotionPiece);
+    }
+
+    /**
+     * @return the shared instance of a move between two square indexes
+     */
+    static ChessMove of(int from, int to, ChessPiece.PieceType promotionPiece) {
+        ChessMove move = MOVES[index(from, to, promotionPiece)];
+        return move != null ? move : new ChessMove(ChessPosition.of(from), ChessPosition.of(to), promotionPiece);
+    }
+
+    private static int index(int from, int to, ChessPiece.PieceType promotionPiece) {
+        return ((from << 6) | to) * PROMOTION_SLOTS + (promotionPiece == null ? 0 : promotionPiece.ordinal() + 1);
+    }
+
+    private static boolean onBoard(ChessPosition position) {
+        return position != null && position.getRow() >= 1 && position.getRow() <= 8
+                && position.getColumn() >= 1 && position.getColumn() <= 8;
+    }
+
     @Override
     public String toString() {
         String moveStr = startPosition.toString() + "-" + endPosition.toString();
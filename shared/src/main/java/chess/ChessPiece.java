@@ -11,6 +11,8 @@ import java.util.ArrayList;
  */
 public class ChessPiece {
 
+    private static final PieceType[] PROMOTIONS = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
+
     private final ChessGame.TeamColor pieceColor;
     private final ChessPiece.PieceType pieceType;
     private boolean hasMoved = false;
@@ -74,94 +76,20 @@ public class ChessPiece {
      */
     public Collection<ChessMove> pieceMoves(ChessBoard board, ChessPosition myPosition) {
         Collection<ChessMove> moves = new ArrayList<>();
-        switch (this.pieceType) {
-            case KING -> addKingMoves(board, myPosition, moves);
-            case QUEEN -> addQueenMoves(board, myPosition, moves);
-            case ROOK -> addRookMoves(board, myPosition, moves);
-            case BISHOP -> addBishopMoves(board, myPosition, moves);
-            case KNIGHT -> addKnightMoves(board, myPosition, moves);
-            case PAWN -> addPawnMoves(board, myPosition, moves);
-        }
-        return moves;
-    }
-
-    private void addKingMoves(ChessBoard board, ChessPosition pos, Collection<ChessMove> moves) {
-        int[][] directions = {{1, 0}, {0, 1}, {-1, 0}, {0, -1}, {1, 1}, {-1, -1}, {-1, 1}, {1, -1}};
-        addMoves(directions, board, pos, moves);
-    }
-
-    private void addQueenMoves(ChessBoard board, ChessPosition pos, Collection<ChessMove> moves) {
-        int[][] directions = {{1,0}, {1,1}, {0,1}, {-1,1}, {-1,0}, {-1,-1}, {0,-1}, {1,-1}};
-        addSlidingMoves(directions, board, pos, moves);
-    }
-
-    private void addRookMoves(ChessBoard board, ChessPosition pos, Collection<ChessMove> moves) {
-        int[][] directions = {{1,0}, {-1,0}, {0,1}, {0,-1}};
-        addSlidingMoves(directions, board, pos, moves);
-    }
-
-    private void addBishopMoves(ChessBoard board, ChessPosition pos, Collection<ChessMove> moves) {
-        int[][] directions = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
-        addSlidingMoves(directions, board, pos, moves);
-    }
-
-    private void addKnightMoves(ChessBoard board, ChessPosition pos, Collection<ChessMove> moves) {
-        int[][] knightMoves = {{2,1},{1,2},{2,-1},{1,-2},{-2,1},{-1,2},{-2,-1},{-1,-2}};
-        addJumpMoves(knightMoves, board, pos, moves);
-    }
-
-    private void addSlidingMoves(int[][] directions, ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
-        for (int[] dir : directions) {
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
-            while (true) {
-                row += dir[0];
-                col += dir[1];
-                if (row < 1 || row > 8 || col < 1 || col > 8) {break;}
-                ChessPosition newPos = new ChessPosition(row, col);
-                ChessPiece target = board.getPiece(newPos);
-                if (target == null) {
-                    moves.add(new ChessMove(myPosition, newPos, null));
-                } else {
-                    if (target.getTeamColor() != this.getTeamColor()) {
-                        moves.add(new ChessMove(myPosition, newPos, null));
-                    }
-                    break;
-                }
-            }
+        if (this.pieceType == PieceType.PAWN) {
+            addPawnMoves(board, myPosition, moves);
+            return moves;
         }
-    }
-    private void addMoves(int[][] directions, ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
-        for (int[] dir : directions) {
-            int row = myPosition.getRow();
-            int col = myPosition.getColumn();
-                row += dir[0];
-                col += dir[1];
-                if (row < 1 || row > 8 || col < 1 || col > 8) {continue;}
-                ChessPosition newPos = new ChessPosition(row, col);
-                ChessPiece target = board.getPiece(newPos);
-                if (target == null) {
-                    moves.add(new ChessMove(myPosition, newPos, null));
-                } else {
-                    if (target.getTeamColor() != this.getTeamColor()) {
-                        moves.add(new ChessMove(myPosition, newPos, null));
-                    }
-
-            }
-        }
-    }
-    private void addJumpMoves(int[][] knightMoves, ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
-        for (int[] move : knightMoves) {
-            int row = myPosition.getRow() + move[0];
-            int col = myPosition.getColumn() + move[1];
-
-            if (row < 1 || row > 8 || col < 1 || col > 8) {continue;}
-                ChessPosition newPos = new ChessPosition(row,col);
-                ChessPiece target = board.getPiece(newPos);
-                if (target == null || target.getTeamColor() != this.getTeamColor()) {
-                    moves.add(new ChessMove(myPosition, newPos, null));
-                }
+        // Every other piece's targets come straight from the precomputed attack tables
+        BitboardPosition position = board.getPosition();
+        int from = BitboardPosition.square(myPosition);
+        long targets = Attacks.of(BitboardPosition.kind(pieceColor, pieceType), from, position.occupied())
+                & ~position.pieces(pieceColor);
+        while (targets != 0) {
+            moves.add(ChessMove.of(from, Long.numberOfTrailingZeros(targets), null));
+            targets &= targets - 1;
         }
+        return moves;
     }
 
     private void addPawnMoves(ChessBoard board, ChessPosition myPosition, Collection<ChessMove> moves) {
@@ -169,25 +97,23 @@ public class ChessPiece {
         int row = myPosition.getRow();
         int col = myPosition.getColumn();
 
-        ChessPosition oneAhead = new ChessPosition(row + direction, col);
+        ChessPosition oneAhead = ChessPosition.of(row + direction, col);
         if ((this.pieceColor == ChessGame.TeamColor.WHITE && oneAhead.getRow() == 8) ||
             (this.pieceColor == ChessGame.TeamColor.BLACK && oneAhead.getRow() == 1)) {
             if (board.getPiece(oneAhead) == null) {
                 addPromotions(myPosition, oneAhead, moves);
-            } else {
-                moves.add(new ChessMove(myPosition, oneAhead, null));
             }
         }
         else if (board.getPiece(oneAhead) == null) {
-            moves.add(new ChessMove(myPosition, oneAhead, null));
+            moves.add(ChessMove.of(myPosition, oneAhead, null));
         }
 
         if (((this.pieceColor == ChessGame.TeamColor.WHITE && row == 2) ||
              (this.pieceColor == ChessGame.TeamColor.BLACK && row == 7)) &&
             board.getPiece(oneAhead) == null) {
-            ChessPosition twoAhead = new ChessPosition(row + 2 * direction, col);
+            ChessPosition twoAhead = ChessPosition.of(row + 2 * direction, col);
             if (board.getPiece(twoAhead) == null) {
-                moves.add(new ChessMove(myPosition, twoAhead, null));
+                moves.add(ChessMove.of(myPosition, twoAhead, null));
             }
         }
 
@@ -195,14 +121,14 @@ public class ChessPiece {
             int newCol = col + dc;
             int newRow = row + direction;
             if (newCol >= 1 && newCol <= 8 && newRow >= 1 && newRow <= 8) {
-                ChessPosition diag = new ChessPosition(newRow, newCol);
+                ChessPosition diag = ChessPosition.of(newRow, newCol);
                 ChessPiece target = board.getPiece(diag);
                 if (target != null && target.getTeamColor() != this.getTeamColor()) {
                     if ((this.pieceColor == ChessGame.TeamColor.WHITE && diag.getRow() == 8) ||
                         (this.pieceColor == ChessGame.TeamColor.BLACK && diag.getRow() == 1)) {
                         addPromotions(myPosition, diag, moves);
                     } else {
-                        moves.add(new ChessMove(myPosition, diag, null));
+                        moves.add(ChessMove.of(myPosition, diag, null));
                     }
                 }
             }
@@ -210,9 +136,8 @@ public class ChessPiece {
     }
 
     private void addPromotions(ChessPosition start, ChessPosition end, Collection<ChessMove> moves) {
-        PieceType[] promotions = {PieceType.QUEEN, PieceType.ROOK, PieceType.BISHOP, PieceType.KNIGHT};
-        for (PieceType promotion : promotions) {
-            moves.add(new ChessMove(start, end, promotion));
+        for (PieceType promotion : PROMOTIONS) {
+            moves.add(ChessMove.of(start, end, promotion));
         }
     }
 }
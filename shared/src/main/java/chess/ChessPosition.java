@@ -1,16 +1,28 @@
 package chess;
 
-import java.util.Objects;
-
 /**
  * Represents a single square position on a chess board
  * <p>
+ * Positions are immutable, so the 64 on-board squares are shared instances handed
+ * out by {@link #of(int, int)}; move generation uses those rather than allocating.
+ * <p>
  * Note: You can add to this class, but you may not alter
  * signature of the existing methods.
  */
 public class ChessPosition {
+    private static final ChessPosition[] SQUARES = new ChessPosition[64];
+
+    static {
+        for (int square = 0; square < 64; square++) {
+            SQUARES[square] = new ChessPosition((square >>> 3) + 1, (square & 7) + 1);
+        }
+    }
+
     @Override
     public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
         if (o == null || getClass() != o.getClass()) {
             return false;
         }
@@ -20,7 +32,7 @@ public class ChessPosition {
 
     @Override
     public int hashCode() {
-        return Objects.hash(row, col);
+        return row * 9 + col;
     }
 
     private final int row;
@@ -31,6 +43,27 @@ public class ChessPosition {
         this.col = col;
     }
 
+    /**
+     * Gets the shared instance for a square. Positions off the board are not
+     * shared and get a new instance each time.
+     *
+     * @return the position at the given row and column
+     */
+    public static ChessPosition of(int row, int col) {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return new ChessPosition(row, col);
+        }
+        return SQUARES[(row - 1) * 8 + (col - 1)];
+    }
+
+    /**
+     * @return the shared instance for a square index, 0 to 63, as used by
+     * {@link BitboardPosition}
+     */
+    static ChessPosition of(int square) {
+        return SQUARES[square];
+    }
+
     /**
      * @return which row this position is in
      * 1 codes for the bottom row
@@ -47,4 +80,14 @@ public class ChessPosition {
         return col;
     }
 
+    /**
+     * @return the square in algebraic notation, e.g. "e4"
+     */
+    @Override
+    public String toString() {
+        if (row < 1 || row > 8 || col < 1 || col > 8) {
+            return "(" + row + "," + col + ")";
+        }
+        return (char) ('a' + col - 1) + Integer.toString(row);
+    }
 }
@@ -0,0 +1,312 @@
+package chess;
+
+/**
+ * Reads and writes Forsyth-Edwards Notation, the standard one-line description
+ * of a position: piece placement, side to move, castling rights, en passant
+ * target, halfmove clock and fullmove number, e.g.
+ * {@code rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1}.
+ * <p>
+ * The parser walks the string once by hand rather than splitting it, since it
+ * sits on the path of every stored or cached position.
+ */
+final class Fen {
+    // Indexed by piece kind: white king, queen, bishop, knight, rook, pawn, then black
+    private static final char[] LETTERS = {'K', 'Q', 'B', 'N', 'R', 'P', 'k', 'q', 'b', 'n', 'r', 'p'};
+
+    private final String fen;
+    private int index;
+
+    private Fen(String fen) {
+        this.fen = fen;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the string is not a valid FEN position
+     */
+    static ChessGame parse(String fen) {
+        if (fen == null) {
+            throw new IllegalArgumentException("Invalid FEN: null");
+        }
+        return new Fen(fen.trim()).parse();
+    }
+
+    private ChessGame parse() {
+        ChessBoard board = new ChessBoard();
+        readPlacement(board);
+        expect(' ');
+        ChessGame.TeamColor turn = switch (next()) {
+            case 'w' -> ChessGame.TeamColor.WHITE;
+            case 'b' -> ChessGame.TeamColor.BLACK;
+            default -> throw error("side to move must be w or b");
+        };
+        expect(' ');
+        int rights = readCastling();
+        expect(' ');
+        int enPassantColumn = readEnPassant(turn);
+
+        // The move counters are often left off; default to the start of a game
+        int halfmove = 0;
+        int fullmove = 1;
+        if (index < fen.length()) {
+            expect(' ');
+            halfmove = readNumber();
+            expect(' ');
+            fullmove = readNumber();
+            if (fullmove < 1) {
+                throw error("fullmove number must be at least 1");
+            }
+        }
+        if (index != fen.length()) {
+            throw error("unexpected text after the fullmove number");
+        }
+
+        markMoved(board, rights);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        game.setMoveCounters(halfmove, fullmove);
+        if (enPassantColumn != 0) {
+            game.setLastMove(doublePush(board, turn, enPassantColumn));
+        }
+        return game;
+    }
+
+    private void readPlacement(ChessBoard board) {
+        for (int row = 8; row >= 1; row--) {
+            int col = 1;
+            while (col <= 8) {
+                char c = next();
+                if (c >= '1' && c <= '8') {
+                    col += c - '0';
+                    continue;
+                }
+                int kind = kind(c);
+                if (kind < 0) {
+                    throw error("unknown piece '" + c + "'");
+                }
+                board.addPiece(ChessPosition.of(row, col), new ChessPiece(
+                        BitboardPosition.colorOf(kind), BitboardPosition.typeOf(kind)));
+                col++;
+            }
+            if (col != 9) {
+                throw error("row " + row + " does not have 8 squares");
+            }
+            if (row > 1) {
+                expect('/');
+            }
+        }
+    }
+
+    private int readCastling() {
+        if (peek() == '-') {
+            index++;
+            return 0;
+        }
+        int rights = 0;
+        while (index < fen.length() && peek() != ' ') {
+            int flag = switch (next()) {
+                case 'K' -> Zobrist.WHITE_KING_SIDE;
+                case 'Q' -> Zobrist.WHITE_QUEEN_SIDE;
+                case 'k' -> Zobrist.BLACK_KING_SIDE;
+                case 'q' -> Zobrist.BLACK_QUEEN_SIDE;
+                default -> throw error("castling rights must be - or some of KQkq");
+            };
+            if ((rights & flag) != 0) {
+                throw error("castling right repeated");
+            }
+            rights |= flag;
+        }
+        if (rights == 0) {
+            throw error("castling rights must be - or some of KQkq");
+        }
+        return rights;
+    }
+
+    /**
+     * @return the column of the en passant target square, or 0 for none
+     */
+    private int readEnPassant(ChessGame.TeamColor turn) {
+        char file = next();
+        if (file == '-') {
+            return 0;
+        }
+        char rank = next();
+        // The target is the square the pawn skipped, behind it from the mover's side
+        char expected = turn == ChessGame.TeamColor.WHITE ? '6' : '3';
+        if (file < 'a' || file > 'h' || rank != expected) {
+            throw error("en passant target must be - or a square on rank " + expected);
+        }
+        return file - 'a' + 1;
+    }
+
+    private int readNumber() {
+        int start = index;
+        int value = 0;
+        while (index < fen.length() && peek() >= '0' && peek() <= '9') {
+            value = value * 10 + (next() - '0');
+            if (value > 100_000) {
+                throw error("move counter out of range");
+            }
+        }
+        if (index == start) {
+            throw error("expected a number");
+        }
+        return value;
+    }
+
+    private void markMoved(ChessBoard board, int rights) {
+        requireCastling(board, rights, Zobrist.WHITE_KING_SIDE, 1, 8, ChessGame.TeamColor.WHITE);
+        requireCastling(board, rights, Zobrist.WHITE_QUEEN_SIDE, 1, 1, ChessGame.TeamColor.WHITE);
+        requireCastling(board, rights, Zobrist.BLACK_KING_SIDE, 8, 8, ChessGame.TeamColor.BLACK);
+        requireCastling(board, rights, Zobrist.BLACK_QUEEN_SIDE, 8, 1, ChessGame.TeamColor.BLACK);
+        setMovedFlags(board, rights);
+    }
+
+    /**
+     * Sets the moved flags that castling rights are derived from: a king or rook
+     * counts as unmoved only if a right needs it, and a pawn only on its start row.
+     * The kings and rooks the rights need must already be in place.
+     */
+    static void setMovedFlags(ChessBoard board, int rights) {
+        long occupied = board.getPosition().occupied();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int row = BitboardPosition.row(square);
+            int col = BitboardPosition.column(square);
+            ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+            boolean white = piece.getTeamColor() == ChessGame.TeamColor.WHITE;
+            boolean unmoved = switch (piece.getPieceType()) {
+                case PAWN -> row == (white ? 2 : 7);
+                case KING -> (rights & (white ? Zobrist.WHITE_KING_SIDE | Zobrist.WHITE_QUEEN_SIDE
+                        : Zobrist.BLACK_KING_SIDE | Zobrist.BLACK_QUEEN_SIDE)) != 0;
+                case ROOK -> (col == 8 && (rights & (white ? Zobrist.WHITE_KING_SIDE : Zobrist.BLACK_KING_SIDE)) != 0)
+                        || (col == 1 && (rights & (white ? Zobrist.WHITE_QUEEN_SIDE : Zobrist.BLACK_QUEEN_SIDE)) != 0);
+                default -> false;
+            };
+            piece.setHasMoved(!unmoved);
+        }
+    }
+
+    private void requireCastling(ChessBoard board, int rights, int flag, int row, int rookCol, ChessGame.TeamColor color) {
+        if ((rights & flag) == 0) {
+            return;
+        }
+        if (!is(board, row, 5, color, ChessPiece.PieceType.KING) || !is(board, row, rookCol, color, ChessPiece.PieceType.ROOK)) {
+            throw error("castling right without the king and rook on their starting squares");
+        }
+    }
+
+    private static boolean is(ChessBoard board, int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        ChessPiece piece = board.getPiece(ChessPosition.of(row, col));
+        return piece != null && piece.getTeamColor() == color && piece.getPieceType() == type;
+    }
+
+    /**
+     * @return the double pawn push that left an en passant target on the column,
+     * which is how the game tracks en passant
+     */
+    private ChessMove doublePush(ChessBoard board, ChessGame.TeamColor turn, int col) {
+        boolean whiteMoved = turn == ChessGame.TeamColor.BLACK;
+        ChessGame.TeamColor mover = whiteMoved ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+        int fromRow = whiteMoved ? 2 : 7;
+        int toRow = whiteMoved ? 4 : 5;
+        int skippedRow = whiteMoved ? 3 : 6;
+        if (!is(board, toRow, col, mover, ChessPiece.PieceType.PAWN)
+                || board.getPiece(ChessPosition.of(skippedRow, col)) != null
+                || board.getPiece(ChessPosition.of(fromRow, col)) != null) {
+            throw error("en passant target without a pawn that just moved two squares");
+        }
+        return ChessMove.of(ChessPosition.of(fromRow, col), ChessPosition.of(toRow, col), null);
+    }
+
+    private static int kind(char letter) {
+        for (int kind = 0; kind < LETTERS.length; kind++) {
+            if (LETTERS[kind] == letter) {
+                return kind;
+            }
+        }
+        return -1;
+    }
+
+    private char peek() {
+        if (index >= fen.length()) {
+            throw error("unexpected end");
+        }
+        return fen.charAt(index);
+    }
+
+    private char next() {
+        char c = peek();
+        index++;
+        return c;
+    }
+
+    private void expect(char c) {
+        if (next() != c) {
+            throw error("expected '" + c + "' at position " + (index - 1));
+        }
+    }
+
+    private IllegalArgumentException error(String reason) {
+        return new IllegalArgumentException("Invalid FEN \"" + fen + "\": " + reason);
+    }
+
+    /**
+     * Writes the game's position. The en passant target is only given when a
+     * capture there is possible, matching {@link ChessGame#positionKey()}.
+     */
+    static String write(ChessGame game) {
+        BitboardPosition position = game.getBoard().getPosition();
+        StringBuilder fen = new StringBuilder(90);
+        for (int row = 8; row >= 1; row--) {
+            int empty = 0;
+            for (int col = 1; col <= 8; col++) {
+                int kind = position.kindAt(BitboardPosition.square(row, col));
+                if (kind == BitboardPosition.EMPTY) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    fen.append((char) ('0' + empty));
+                    empty = 0;
+                }
+                fen.append(LETTERS[kind]);
+            }
+            if (empty > 0) {
+                fen.append((char) ('0' + empty));
+            }
+            if (row > 1) {
+                fen.append('/');
+            }
+        }
+
+        fen.append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? " w " : " b ");
+        int rights = game.castlingRights();
+        if (rights == 0) {
+            fen.append('-');
+        } else {
+            appendIf(fen, rights, Zobrist.WHITE_KING_SIDE, 'K');
+            appendIf(fen, rights, Zobrist.WHITE_QUEEN_SIDE, 'Q');
+            appendIf(fen, rights, Zobrist.BLACK_KING_SIDE, 'k');
+            appendIf(fen, rights, Zobrist.BLACK_QUEEN_SIDE, 'q');
+        }
+
+        int enPassantColumn = game.enPassantColumn();
+        fen.append(' ');
+        if (enPassantColumn == 0) {
+            fen.append('-');
+        } else {
+            fen.append((char) ('a' + enPassantColumn - 1))
+                    .append(game.getTeamTurn() == ChessGame.TeamColor.WHITE ? '6' : '3');
+        }
+        return fen.append(' ').append(game.getHalfmoveClock())
+                .append(' ').append(game.getFullmoveNumber()).toString();
+    }
+
+    private static void appendIf(StringBuilder fen, int rights, int flag, char letter) {
+        if ((rights & flag) != 0) {
+            fen.append(letter);
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package chess;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * A compact, versioned binary form of a game for storage, a few dozen bytes
+ * plus two per move played, in place of the multi-kilobyte JSON Gson makes of
+ * the piece objects.
+ * <p>
+ * Version 1 layout:
+ * <pre>
+ *   magic (1 byte) | version (1 byte)
+ *   flags (1 byte): bit 0 black to move, bit 1 game over, bit 2 last move present,
+ *                   bit 3 resigned player present, bits 4-7 castling rights
+ *   board (32 bytes): one nibble per square from square 0, 0 for empty or kind + 1
+ *   last move (2 bytes, if present)
+ *   halfmove clock, fullmove number (varints)
+ *   move history: count (varint), then 2 bytes per move
+ *   resigned player (if present): UTF-8 length (varint) and bytes
+ * </pre>
+ * Moves are the low 15 bits of a {@link PackedMove}: from, to and promotion.
+ * Moved flags are not stored; as with FEN they are rebuilt from the castling
+ * rights, which is all the rules use them for.
+ */
+public final class GameCodec {
+    /** First byte of every encoded game; JSON always starts with '{' instead */
+    public static final byte MAGIC = (byte) 0xC5;
+    public static final int VERSION = 1;
+
+    private static final int BLACK_TO_MOVE = 1;
+    private static final int GAME_OVER = 1 << 1;
+    private static final int HAS_LAST_MOVE = 1 << 2;
+    private static final int HAS_RESIGNED = 1 << 3;
+    private static final int RIGHTS_SHIFT = 4;
+    private static final int MOVE_MASK = 0x7FFF;
+
+    private GameCodec() {
+    }
+
+    /**
+     * @return whether the bytes look like an encoded game rather than, say, JSON
+     */
+    public static boolean isEncoded(byte[] data) {
+        return data != null && data.length > 1 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(ChessGame game) {
+        return encode(game, true);
+    }
+
+    /**
+     * Encodes the position and state but not the move history, so the size does
+     * not grow as the game goes on. For stores that keep the moves elsewhere.
+     */
+    public static byte[] encodeSnapshot(ChessGame game) {
+        return encode(game, false);
+    }
+
+    /**
+     * @return the move as a 15-bit number, as it appears in an encoded game
+     */
+    public static int encodeMove(ChessMove move) {
+        return PackedMove.of(move) & MOVE_MASK;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the number is not an encoded move
+     */
+    public static ChessMove decodeMove(int move) {
+        // Promotion bits are the piece type ordinal plus one: queen to rook, or none
+        int promotion = move >>> 12;
+        if (promotion > ChessPiece.PieceType.ROOK.ordinal() + 1 || promotion == ChessPiece.PieceType.KING.ordinal() + 1) {
+            throw new IllegalArgumentException("Corrupt game encoding: bad move " + move);
+        }
+        return PackedMove.toChessMove(move);
+    }
+
+    private static byte[] encode(ChessGame game, boolean withHistory) {
+        List<ChessMove> history = withHistory ? game.getMoveHistory() : List.of();
+        ByteArrayOutputStream out = new ByteArrayOutputStream(48 + 2 * history.size());
+        out.write(MAGIC);
+        out.write(VERSION);
+
+        ChessMove lastMove = game.getLastMove();
+        String resigned = game.getResignedPlayer();
+        int flags = game.castlingRights() << RIGHTS_SHIFT;
+        flags |= game.getTeamTurn() == ChessGame.TeamColor.BLACK ? BLACK_TO_MOVE : 0;
+        flags |= game.isGameOver() ? GAME_OVER : 0;
+        flags |= lastMove != null ? HAS_LAST_MOVE : 0;
+        flags |= resigned != null ? HAS_RESIGNED : 0;
+        out.write(flags);
+
+        BitboardPosition position = game.getBoard().getPosition();
+        for (int square = 0; square < 64; square += 2) {
+            out.write(nibble(position, square) | nibble(position, square + 1) << 4);
+        }
+
+        if (lastMove != null) {
+            writeMove(out, lastMove);
+        }
+        writeVarint(out, game.getHalfmoveClock());
+        writeVarint(out, game.getFullmoveNumber());
+        writeVarint(out, history.size());
+        for (ChessMove move : history) {
+            writeMove(out, move);
+        }
+        if (resigned != null) {
+            byte[] name = resigned.getBytes(StandardCharsets.UTF_8);
+            writeVarint(out, name.length);
+            out.write(name, 0, name.length);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Reads whether the game is over without decoding the rest
+     *
+     * @throws IllegalArgumentException if the bytes are not an encoded game
+     */
+    public static boolean isGameOver(byte[] data) {
+        if (!isEncoded(data) || data.length < 3) {
+            throw new IllegalArgumentException("Not an encoded game");
+        }
+        return (data[2] & GAME_OVER) != 0;
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not an encoded game, or
+     *                                  come from a newer version of this codec
+     */
+    public static ChessGame decode(byte[] data) {
+        if (!isEncoded(data)) {
+            throw new IllegalArgumentException("Not an encoded game");
+        }
+        if (data[1] != VERSION) {
+            throw new IllegalArgumentException("Unsupported game encoding version " + data[1]);
+        }
+        Reader in = new Reader(data, 2);
+        int flags = in.readByte();
+
+        ChessBoard board = new ChessBoard();
+        for (int square = 0; square < 64; square += 2) {
+            int pair = in.readByte();
+            place(board, square, pair & 0xF);
+            place(board, square + 1, pair >>> 4);
+        }
+        int rights = flags >>> RIGHTS_SHIFT;
+        Fen.setMovedFlags(board, rights);
+
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn((flags & BLACK_TO_MOVE) != 0 ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        if ((flags & HAS_LAST_MOVE) != 0) {
+            game.setLastMove(in.readMove());
+        }
+        int halfmove = in.readVarint();
+        int fullmove = in.readVarint();
+        game.setMoveCounters(halfmove, fullmove);
+        int moves = in.readVarint();
+        for (int i = 0; i < moves; i++) {
+            game.getMoveHistory().add(in.readMove());
+        }
+        if ((flags & HAS_RESIGNED) != 0) {
+            int length = in.readVarint();
+            game.setResignedPlayer(new String(data, in.take(length), length, StandardCharsets.UTF_8));
+        }
+        game.setGameOver((flags & GAME_OVER) != 0);
+        return game;
+    }
+
+    private static int nibble(BitboardPosition position, int square) {
+        return position.kindAt(square) + 1;
+    }
+
+    private static void place(ChessBoard board, int square, int nibble) {
+        if (nibble == 0) {
+            return;
+        }
+        if (nibble > BitboardPosition.KIND_COUNT) {
+            throw new IllegalArgumentException("Corrupt game encoding: bad piece " + nibble);
+        }
+        int kind = nibble - 1;
+        board.addPiece(ChessPosition.of(BitboardPosition.row(square), BitboardPosition.column(square)),
+                new ChessPiece(BitboardPosition.colorOf(kind), BitboardPosition.typeOf(kind)));
+    }
+
+    private static void writeMove(ByteArrayOutputStream out, ChessMove move) {
+        int packed = encodeMove(move);
+        out.write(packed);
+        out.write(packed >>> 8);
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int index;
+
+        private Reader(byte[] data, int index) {
+            this.data = data;
+            this.index = index;
+        }
+
+        int readByte() {
+            if (index >= data.length) {
+                throw new IllegalArgumentException("Corrupt game encoding: truncated");
+            }
+            return data[index++] & 0xFF;
+        }
+
+        ChessMove readMove() {
+            return decodeMove(readByte() | readByte() << 8);
+        }
+
+        int readVarint() {
+            int value = 0;
+            for (int shift = 0; shift < 32; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Corrupt game encoding: bad number");
+        }
+
+        /**
+         * @return the index of the next {@code length} bytes, which are skipped
+         */
+        int take(int length) {
+            if (length < 0 || length > data.length - index) {
+                throw new IllegalArgumentException("Corrupt game encoding: truncated");
+            }
+            int start = index;
+            index += length;
+            return start;
+        }
+    }
+}
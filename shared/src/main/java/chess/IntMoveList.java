@@ -0,0 +1,71 @@
+package chess;
+
+import java.util.Arrays;
+
+/**
+ * A growable list of packed moves (see {@link PackedMove}) backed by an int array.
+ * Meant to be cleared and refilled rather than reallocated, one list per search ply.
+ */
+public final class IntMoveList {
+    private int[] moves;
+    private int size;
+
+    public IntMoveList() {
+        this(64);
+    }
+
+    public IntMoveList(int capacity) {
+        moves = new int[Math.max(capacity, 1)];
+    }
+
+    public void add(int move) {
+        if (size == moves.length) {
+            moves = Arrays.copyOf(moves, size * 2);
+        }
+        moves[size++] = move;
+    }
+
+    public int get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        return moves[index];
+    }
+
+    public void set(int index, int move) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size);
+        }
+        moves[index] = move;
+    }
+
+    public void swap(int i, int j) {
+        int move = get(i);
+        moves[i] = get(j);
+        moves[j] = move;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * @return the index of a move with the same squares and promotion, or -1
+     */
+    public int indexOf(int move) {
+        for (int i = 0; i < size; i++) {
+            if (PackedMove.sameMove(moves[i], move)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
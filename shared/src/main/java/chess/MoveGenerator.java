@@ -0,0 +1,199 @@
+package chess;
+
+/**
+ * Generates every legal move for one side in a single pass over the bitboards.
+ * <p>
+ * Checkers and pinned pieces are worked out once up front. With two checkers only
+ * the king may move; with one, other pieces must capture the checker or block
+ * the check; a pinned piece may only move along its pin. King moves are tested
+ * against the board with the king lifted off, so it cannot step back along a
+ * slider's ray. En passant, the one move that can expose the king along the rank
+ * it empties, is checked by making it on the board and taking it back.
+ * <p>
+ * Moves are written as packed ints (see {@link PackedMove}) with their capture,
+ * castle, en passant and double push flags set.
+ */
+final class MoveGenerator {
+    private static final ChessPiece.PieceType[] PROMOTIONS = {
+            ChessPiece.PieceType.QUEEN, ChessPiece.PieceType.ROOK, ChessPiece.PieceType.BISHOP, ChessPiece.PieceType.KNIGHT};
+    private static final int[] KING_SIDE_EMPTY = {6, 7};
+    private static final int[] KING_SIDE_SAFE = {6, 7};
+    private static final int[] QUEEN_SIDE_EMPTY = {2, 3, 4};
+    private static final int[] QUEEN_SIDE_SAFE = {4, 3};
+
+    private final long[] pinRays = new long[64];
+    private final MoveUndo undo = new MoveUndo();
+
+    void generate(ChessBoard board, ChessGame.TeamColor us, ChessMove lastMove, IntMoveList moves) {
+        BitboardPosition position = board.getPosition();
+        ChessGame.TeamColor them = us == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long own = position.pieces(us);
+        long occupied = position.occupied();
+        int king = position.kingSquare(us);
+
+        long checkers = 0L;
+        long pinned = 0L;
+        long evasions = ~0L;
+        if (king != BitboardPosition.NO_SQUARE) {
+            checkers = position.attackersTo(king, them);
+            pinned = findPins(position, king, them, own);
+            addKingMoves(board, position, king, us, them, checkers, moves);
+            if (Long.bitCount(checkers) > 1) {
+                return;
+            }
+            if (checkers != 0) {
+                evasions = checkers | Attacks.between(king, Long.numberOfTrailingZeros(checkers));
+            }
+        }
+
+        long pieces = own & ~position.pieces(us, ChessPiece.PieceType.KING);
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            long allowed = evasions;
+            if ((pinned & (1L << from)) != 0) {
+                allowed &= pinRays[from];
+            }
+            ChessPiece.PieceType type = BitboardPosition.typeOf(position.kindAt(from));
+            if (type == ChessPiece.PieceType.PAWN) {
+                addPawnMoves(position, from, us, allowed, moves);
+            } else {
+                long targets = Attacks.of(position.kindAt(from), from, occupied) & ~own & allowed;
+                addMoves(from, targets, position.pieces(them), moves);
+            }
+        }
+
+        addEnPassantMoves(board, position, us, them, king, lastMove, moves);
+    }
+
+    private long findPins(BitboardPosition position, int king, ChessGame.TeamColor them, long own) {
+        long enemy = position.pieces(them);
+        long queens = position.pieces(them, ChessPiece.PieceType.QUEEN);
+        long snipers = (Attacks.rook(king, enemy) & (position.pieces(them, ChessPiece.PieceType.ROOK) | queens))
+                | (Attacks.bishop(king, enemy) & (position.pieces(them, ChessPiece.PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Long.numberOfTrailingZeros(snipers);
+            snipers &= snipers - 1;
+            long between = Attacks.between(king, sniper);
+            long blockers = between & position.occupied();
+            if (Long.bitCount(blockers) == 1 && (blockers & own) != 0) {
+                pinned |= blockers;
+                pinRays[Long.numberOfTrailingZeros(blockers)] = between | (1L << sniper);
+            }
+        }
+        return pinned;
+    }
+
+    private void addKingMoves(ChessBoard board, BitboardPosition position, int king, ChessGame.TeamColor us,
+                              ChessGame.TeamColor them, long checkers, IntMoveList moves) {
+        long withoutKing = position.occupied() & ~(1L << king);
+        long enemy = position.pieces(them);
+        long targets = Attacks.king(king) & ~position.pieces(us);
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            if (position.attackersTo(to, them, withoutKing) == 0) {
+                moves.add(PackedMove.of(king, to, null, (enemy & (1L << to)) != 0 ? PackedMove.CAPTURE : 0));
+            }
+        }
+
+        ChessPiece kingPiece = board.pieceAt(king);
+        if (checkers != 0 || kingPiece.hasMoved() || BitboardPosition.column(king) != 5) {
+            return;
+        }
+        int row = BitboardPosition.row(king);
+        if (canCastle(board, position, row, 8, KING_SIDE_EMPTY, KING_SIDE_SAFE, us, them)) {
+            moves.add(PackedMove.of(king, BitboardPosition.square(row, 7), null, PackedMove.CASTLE));
+        }
+        if (canCastle(board, position, row, 1, QUEEN_SIDE_EMPTY, QUEEN_SIDE_SAFE, us, them)) {
+            moves.add(PackedMove.of(king, BitboardPosition.square(row, 3), null, PackedMove.CASTLE));
+        }
+    }
+
+    private boolean canCastle(ChessBoard board, BitboardPosition position, int row, int rookCol, int[] emptyCols,
+                              int[] safeCols, ChessGame.TeamColor us, ChessGame.TeamColor them) {
+        ChessPiece rook = board.pieceAt(BitboardPosition.square(row, rookCol));
+        if (rook == null || rook.getPieceType() != ChessPiece.PieceType.ROOK || rook.getTeamColor() != us
+                || rook.hasMoved()) {
+            return false;
+        }
+        for (int col : emptyCols) {
+            if (position.isOccupied(BitboardPosition.square(row, col))) {
+                return false;
+            }
+        }
+        for (int col : safeCols) {
+            if (position.isAttacked(BitboardPosition.square(row, col), them)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addPawnMoves(BitboardPosition position, int from, ChessGame.TeamColor us, long allowed,
+                              IntMoveList moves) {
+        int direction = us == ChessGame.TeamColor.WHITE ? 8 : -8;
+        int startRow = us == ChessGame.TeamColor.WHITE ? 2 : 7;
+        long enemy = position.pieces(us == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE);
+        long targets = Attacks.pawn(from, us) & enemy;
+        int oneAhead = from + direction;
+        if (oneAhead >= 0 && oneAhead < 64 && !position.isOccupied(oneAhead)) {
+            targets |= 1L << oneAhead;
+            int twoAhead = oneAhead + direction;
+            if (BitboardPosition.row(from) == startRow && !position.isOccupied(twoAhead)) {
+                targets |= 1L << twoAhead;
+            }
+        }
+        targets &= allowed;
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            int toRow = BitboardPosition.row(to);
+            int flags = (enemy & (1L << to)) != 0 ? PackedMove.CAPTURE : 0;
+            if (Math.abs(to - from) == 16) {
+                flags |= PackedMove.DOUBLE_PUSH;
+            }
+            if (toRow == 1 || toRow == 8) {
+                for (ChessPiece.PieceType promotion : PROMOTIONS) {
+                    moves.add(PackedMove.of(from, to, promotion, flags));
+                }
+            } else {
+                moves.add(PackedMove.of(from, to, null, flags));
+            }
+        }
+    }
+
+    private void addEnPassantMoves(ChessBoard board, BitboardPosition position, ChessGame.TeamColor us,
+                                   ChessGame.TeamColor them, int king, ChessMove lastMove, IntMoveList moves) {
+        if (lastMove == null) {
+            return;
+        }
+        int lastFrom = BitboardPosition.square(lastMove.getStartPosition());
+        int lastTo = BitboardPosition.square(lastMove.getEndPosition());
+        if (position.kindAt(lastTo) != BitboardPosition.kind(them, ChessPiece.PieceType.PAWN)
+                || Math.abs(lastFrom - lastTo) != 16) {
+            return;
+        }
+        int target = (lastFrom + lastTo) / 2;
+        long capturers = Attacks.pawn(target, them) & position.pieces(us, ChessPiece.PieceType.PAWN);
+        while (capturers != 0) {
+            int from = Long.numberOfTrailingZeros(capturers);
+            capturers &= capturers - 1;
+            board.makeMove(from, target, null, undo);
+            boolean safe = king == BitboardPosition.NO_SQUARE || !position.isAttacked(king, them);
+            board.unmakeMove(undo);
+            if (safe) {
+                moves.add(PackedMove.of(from, target, null, PackedMove.CAPTURE | PackedMove.EN_PASSANT));
+            }
+        }
+    }
+
+    private static void addMoves(int from, long targets, long enemy, IntMoveList moves) {
+        while (targets != 0) {
+            int to = Long.numberOfTrailingZeros(targets);
+            targets &= targets - 1;
+            moves.add(PackedMove.of(from, to, null, (enemy & (1L << to)) != 0 ? PackedMove.CAPTURE : 0));
+        }
+    }
+}
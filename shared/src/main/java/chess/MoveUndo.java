@@ -0,0 +1,44 @@
+package chess;
+
+/**
+ * Records everything a move made in place changed, so it can be taken back
+ * exactly: the captured piece and where it stood, hasMoved flags of the king or
+ * rook involved (which is what castling rights are derived from) and the
+ * previous last move (which is what en passant is derived from), plus the turn
+ * and move counters.
+ * <p>
+ * Records are meant to be reused; each makeMove overwrites the previous contents.
+ */
+public final class MoveUndo {
+    int from;
+    int to;
+    ChessPiece moved;
+    boolean movedHadMoved;
+    ChessPiece captured;
+    int capturedSquare;
+
+    ChessPiece rook;
+    int rookFrom;
+    int rookTo;
+    boolean rookHadMoved;
+
+    ChessMove previousLastMove;
+    ChessGame.TeamColor previousTurn;
+    int previousHalfmoveClock;
+    int previousFullmoveNumber;
+
+    private ChessPiece spare;
+
+    /**
+     * Hands out the piece a pawn promotes into, reusing the one from the last
+     * promotion made with this record. Records are only reused once the move
+     * they describe has been taken back, so that piece is off the board again.
+     */
+    ChessPiece promotedPiece(ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        if (spare == null || spare.getTeamColor() != color || spare.getPieceType() != type) {
+            spare = new ChessPiece(color, type);
+        }
+        spare.setHasMoved(false);
+        return spare;
+    }
+}
@@ -0,0 +1,79 @@
+package chess;
+
+/**
+ * Packs a move into an int for the engine paths, where allocating a {@link ChessMove}
+ * per generated move would dominate the cost.
+ * <p>
+ * Bits 0-5 hold the start square and bits 6-11 the end square, numbered as in
+ * {@link BitboardPosition}. Bits 12-14 hold the promotion piece's ordinal plus
+ * one, or zero for no promotion, and the bits above are flags describing the move.
+ * Two packed moves for the same squares and promotion are the same move whatever
+ * their flags; use {@link #sameMove(int, int)} to compare them.
+ */
+public final class PackedMove {
+    public static final int NONE = 0;
+
+    public static final int CAPTURE = 1 << 15;
+    public static final int EN_PASSANT = 1 << 16;
+    public static final int CASTLE = 1 << 17;
+    public static final int DOUBLE_PUSH = 1 << 18;
+
+    private static final int SQUARE_MASK = 0x3F;
+    private static final int MOVE_MASK = 0x7FFF;
+    private static final ChessPiece.PieceType[] TYPES = ChessPiece.PieceType.values();
+
+    private PackedMove() {
+    }
+
+    public static int of(int from, int to, ChessPiece.PieceType promotion, int flags) {
+        int promotionBits = promotion == null ? 0 : promotion.ordinal() + 1;
+        return from | (to << 6) | (promotionBits << 12) | flags;
+    }
+
+    /**
+     * Packs a move from the public API, without flags
+     */
+    public static int of(ChessMove move) {
+        return of(BitboardPosition.square(move.getStartPosition()), BitboardPosition.square(move.getEndPosition()),
+                move.getPromotionPiece(), 0);
+    }
+
+    public static int from(int move) {
+        return move & SQUARE_MASK;
+    }
+
+    public static int to(int move) {
+        return (move >>> 6) & SQUARE_MASK;
+    }
+
+    /**
+     * @return the piece a pawn promotes to, or null if the move is not a promotion
+     */
+    public static ChessPiece.PieceType promotion(int move) {
+        int bits = (move >>> 12) & 7;
+        return bits == 0 ? null : TYPES[bits - 1];
+    }
+
+    public static boolean isCapture(int move) {
+        return (move & CAPTURE) != 0;
+    }
+
+    public static boolean isPromotion(int move) {
+        return (move & (7 << 12)) != 0;
+    }
+
+    public static boolean sameMove(int a, int b) {
+        return (a & MOVE_MASK) == (b & MOVE_MASK);
+    }
+
+    /**
+     * @return the shared {@link ChessMove} for a packed move
+     */
+    public static ChessMove toChessMove(int move) {
+        return ChessMove.of(from(move), to(move), promotion(move));
+    }
+
+    public static String toString(int move) {
+        return toChessMove(move).toString();
+    }
+}
@@ -0,0 +1,163 @@
+package chess;
+
+/**
+ * Piece values and piece-square bonuses for the opening/middlegame and for the
+ * endgame, with material folded into each entry. {@link BitboardPosition} keeps
+ * the white-minus-black sums of both up to date as pieces are placed and removed,
+ * together with the game phase used to blend them, so an evaluation reads three
+ * fields instead of walking the board.
+ * <p>
+ * The tables below are written from white's side with row 8 at the top, the way
+ * a board is printed; black uses the same tables mirrored top to bottom.
+ */
+public final class PieceSquareTables {
+    /** Phase with every piece on the board; it falls toward 0 as pieces come off */
+    public static final int MAX_PHASE = 24;
+
+    // Indexed by ChessPiece.PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    private static final int[] MIDGAME_VALUES = {0, 1025, 365, 337, 477, 82};
+    private static final int[] ENDGAME_VALUES = {0, 936, 297, 281, 512, 94};
+    private static final int[] PHASE = {0, 4, 1, 1, 2, 0};
+
+    private static final int[] KING_MIDGAME = {
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -30, -40, -40, -50, -50, -40, -40, -30,
+        -20, -30, -30, -40, -40, -30, -30, -20,
+        -10, -20, -20, -20, -20, -20, -20, -10,
+         20,  20,   0,   0,   0,   0,  20,  20,
+         20,  30,  10,   0,   0,  10,  30,  20,
+    };
+    private static final int[] KING_ENDGAME = {
+        -50, -40, -30, -20, -20, -30, -40, -50,
+        -30, -20, -10,   0,   0, -10, -20, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  30,  40,  40,  30, -10, -30,
+        -30, -10,  20,  30,  30,  20, -10, -30,
+        -30, -30,   0,   0,   0,   0, -30, -30,
+        -50, -30, -30, -30, -30, -30, -30, -50,
+    };
+    private static final int[] QUEEN = {
+        -20, -10, -10,  -5,  -5, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,   5,   5,   5,   0, -10,
+         -5,   0,   5,   5,   5,   5,   0,  -5,
+          0,   0,   5,   5,   5,   5,   0,  -5,
+        -10,   5,   5,   5,   5,   5,   0, -10,
+        -10,   0,   5,   0,   0,   0,   0, -10,
+        -20, -10, -10,  -5,  -5, -10, -10, -20,
+    };
+    private static final int[] BISHOP = {
+        -20, -10, -10, -10, -10, -10, -10, -20,
+        -10,   0,   0,   0,   0,   0,   0, -10,
+        -10,   0,   5,  10,  10,   5,   0, -10,
+        -10,   5,   5,  10,  10,   5,   5, -10,
+        -10,   0,  10,  10,  10,  10,   0, -10,
+        -10,  10,  10,  10,  10,  10,  10, -10,
+        -10,   5,   0,   0,   0,   0,   5, -10,
+        -20, -10, -10, -10, -10, -10, -10, -20,
+    };
+    private static final int[] KNIGHT = {
+        -50, -40, -30, -30, -30, -30, -40, -50,
+        -40, -20,   0,   0,   0,   0, -20, -40,
+        -30,   0,  10,  15,  15,  10,   0, -30,
+        -30,   5,  15,  20,  20,  15,   5, -30,
+        -30,   0,  15,  20,  20,  15,   0, -30,
+        -30,   5,  10,  15,  15,  10,   5, -30,
+        -40, -20,   0,   5,   5,   0, -20, -40,
+        -50, -40, -30, -30, -30, -30, -40, -50,
+    };
+    private static final int[] ROOK = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+          5,  10,  10,  10,  10,  10,  10,   5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+         -5,   0,   0,   0,   0,   0,   0,  -5,
+          0,   0,   0,   5,   5,   0,   0,   0,
+    };
+    private static final int[] PAWN_MIDGAME = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+         50,  50,  50,  50,  50,  50,  50,  50,
+         10,  10,  20,  30,  30,  20,  10,  10,
+          5,   5,  10,  25,  25,  10,   5,   5,
+          0,   0,   0,  20,  20,   0,   0,   0,
+          5,  -5, -10,   0,   0, -10,  -5,   5,
+          5,  10,  10, -20, -20,  10,  10,   5,
+          0,   0,   0,   0,   0,   0,   0,   0,
+    };
+    private static final int[] PAWN_ENDGAME = {
+          0,   0,   0,   0,   0,   0,   0,   0,
+         80,  80,  80,  80,  80,  80,  80,  80,
+         50,  50,  50,  50,  50,  50,  50,  50,
+         30,  30,  30,  30,  30,  30,  30,  30,
+         15,  15,  15,  15,  15,  15,  15,  15,
+          5,   5,   5,   5,   5,   5,   5,   5,
+          0,   0,   0,   0,   0,   0,   0,   0,
+          0,   0,   0,   0,   0,   0,   0,   0,
+    };
+
+    // Signed for the piece's color, so the incremental sums are white minus black
+    private static final int[][] MIDGAME = new int[BitboardPosition.KIND_COUNT][64];
+    private static final int[][] ENDGAME = new int[BitboardPosition.KIND_COUNT][64];
+
+    static {
+        int[][] midgame = {KING_MIDGAME, QUEEN, BISHOP, KNIGHT, ROOK, PAWN_MIDGAME};
+        // Minor and major pieces care less about where they stand once the board empties
+        int[][] endgame = {KING_ENDGAME, half(QUEEN), half(BISHOP), half(KNIGHT), half(ROOK), PAWN_ENDGAME};
+        for (int type = 0; type < 6; type++) {
+            for (int square = 0; square < 64; square++) {
+                // Table index 0 is row 8, column 1; square 0 is row 1, column 1
+                int white = square ^ 56;
+                MIDGAME[type][square] = MIDGAME_VALUES[type] + midgame[type][white];
+                ENDGAME[type][square] = ENDGAME_VALUES[type] + endgame[type][white];
+                MIDGAME[6 + type][square] = -(MIDGAME_VALUES[type] + midgame[type][square]);
+                ENDGAME[6 + type][square] = -(ENDGAME_VALUES[type] + endgame[type][square]);
+            }
+        }
+    }
+
+    private PieceSquareTables() {
+    }
+
+    private static int[] half(int[] table) {
+        int[] halved = new int[table.length];
+        for (int i = 0; i < table.length; i++) {
+            halved[i] = table[i] / 2;
+        }
+        return halved;
+    }
+
+    /**
+     * @return the piece's middlegame worth on the square, negative for black
+     */
+    public static int midgame(int kind, int square) {
+        return MIDGAME[kind][square];
+    }
+
+    /**
+     * @return the piece's endgame worth on the square, negative for black
+     */
+    public static int endgame(int kind, int square) {
+        return ENDGAME[kind][square];
+    }
+
+    /**
+     * @return how much the piece counts toward the game phase
+     */
+    public static int phase(int kind) {
+        return PHASE[kind % 6];
+    }
+
+    /**
+     * Blends middlegame and endgame scores by phase: all middlegame at
+     * {@link #MAX_PHASE}, all endgame at 0.
+     */
+    public static int taper(int midgame, int endgame, int phase) {
+        int p = Math.min(phase, MAX_PHASE);
+        return (midgame * p + endgame * (MAX_PHASE - p)) / MAX_PHASE;
+    }
+}
@@ -0,0 +1,71 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Remembers legal moves and check status per position, keyed by Zobrist key, in a
+ * {@link TranspositionTable} that every game on the server shares. Openings and
+ * repeated positions come up across many games, and observers reloading a game
+ * ask about the same position again, so most of those queries become one lookup.
+ * <p>
+ * For each position and side to move the cache holds the squares each piece can
+ * legally move to, as one bitboard per piece, and the number of legal moves
+ * together with whether the side is in check. Positions with more pieces on the
+ * board are kept in preference to sparser ones, since openings recur most.
+ * <p>
+ * Keys are 64-bit hashes, so two different positions could in principle share
+ * one; with random keys that is vanishingly unlikely at any realistic table size.
+ */
+public final class PositionCache {
+    private static final long[] SQUARE_SALT = new long[64];
+    private static final long STATUS_SALT;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x5EED_CAC4EL);
+        for (int square = 0; square < 64; square++) {
+            SQUARE_SALT[square] = random.nextLong();
+        }
+        STATUS_SALT = random.nextLong();
+    }
+
+    private final TranspositionTable table;
+
+    /**
+     * @param entries how many results to hold; see {@link TranspositionTable#TranspositionTable(int)}
+     */
+    public PositionCache(int entries) {
+        this.table = new TranspositionTable(entries);
+    }
+
+    /**
+     * @return the legal destinations of the piece on {@code from}, or the piece's own
+     * square as a one-bit bitboard if the position is not cached, since no piece
+     * can move to the square it stands on
+     */
+    long destinations(long key, int from) {
+        return table.get(key ^ SQUARE_SALT[from], 1L << from);
+    }
+
+    void putDestinations(long key, int from, long destinations, int pieceCount) {
+        table.put(key ^ SQUARE_SALT[from], destinations, pieceCount);
+    }
+
+    /**
+     * @return the number of legal moves shifted left one, with the low bit set if the
+     * side to move is in check, or -1 if the position is not cached
+     */
+    long status(long key) {
+        return table.get(key ^ STATUS_SALT, -1);
+    }
+
+    void putStatus(long key, long status, int pieceCount) {
+        table.put(key ^ STATUS_SALT, status, pieceCount);
+    }
+
+    /**
+     * @return the backing table, for its hit rate and other statistics
+     */
+    public TranspositionTable table() {
+        return table;
+    }
+}
@@ -0,0 +1,146 @@
+package chess;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table from 64-bit position keys to 64-bit values that any
+ * number of threads can read and write without locking.
+ * <p>
+ * The table is one long array split into buckets of two entries. The first entry
+ * in a bucket is depth-preferred: it is only replaced by an entry of at least the
+ * same depth, or once it is from an older generation. The second is
+ * always-replace and takes whatever the first turns away. An entry is three
+ * longs: the key XORed with the value and metadata, the value, and the metadata
+ * (depth and generation). Each long is written atomically, but two threads can
+ * interleave their writes to the same entry; the XOR check makes such a torn
+ * entry read as a miss rather than as a wrong value.
+ */
+public final class TranspositionTable {
+    private static final VarHandle SLOTS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final int ENTRY_LONGS = 3;
+    private static final int BUCKET_LONGS = 2 * ENTRY_LONGS;
+    private static final long DEPTH_MASK = 0xFFFF;
+    private static final int MAX_ENTRIES = 1 << 24;
+
+    private final long[] slots;
+    private final long bucketMask;
+    private volatile int generation;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * @param entries how many entries to hold; rounded up to a power of two, and
+     *                each entry takes 24 bytes
+     */
+    public TranspositionTable(int entries) {
+        if (entries < 2 || entries > MAX_ENTRIES) {
+            throw new IllegalArgumentException("Entries must be between 2 and " + MAX_ENTRIES);
+        }
+        int buckets = Integer.highestOneBit(entries - 1);
+        slots = new long[buckets * BUCKET_LONGS];
+        bucketMask = buckets - 1;
+    }
+
+    /**
+     * @return the value stored for the key, or {@code missing} if there is none
+     */
+    public long get(long key, long missing) {
+        int bucket = bucket(key);
+        for (int entry = bucket; entry < bucket + BUCKET_LONGS; entry += ENTRY_LONGS) {
+            long check = (long) SLOTS.getOpaque(slots, entry);
+            long value = (long) SLOTS.getOpaque(slots, entry + 1);
+            long meta = (long) SLOTS.getOpaque(slots, entry + 2);
+            if ((check ^ value ^ meta) == key && meta != 0) {
+                hits.increment();
+                return value;
+            }
+        }
+        misses.increment();
+        return missing;
+    }
+
+    /**
+     * Stores a value, replacing whatever entry the replacement scheme picks
+     *
+     * @param depth how much work the value represents, 0 to 65534; deeper entries
+     *              are kept in preference to shallower ones
+     */
+    public void put(long key, long value, int depth) {
+        if (depth < 0 || depth >= DEPTH_MASK) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + (DEPTH_MASK - 1));
+        }
+        // Depth is stored plus one so an empty entry, all zeros, never matches
+        long meta = ((long) generation << 16) | (depth + 1);
+        int bucket = bucket(key);
+        int preferred = bucket;
+        int always = bucket + ENTRY_LONGS;
+        long preferredMeta = (long) SLOTS.getOpaque(slots, preferred + 2);
+        long preferredKey = (long) SLOTS.getOpaque(slots, preferred)
+                ^ (long) SLOTS.getOpaque(slots, preferred + 1) ^ preferredMeta;
+        boolean replacePreferred = preferredMeta == 0
+                || (preferredMeta >>> 16) != generation
+                || (preferredMeta & DEPTH_MASK) <= depth + 1
+                || preferredKey == key;
+        write(replacePreferred ? preferred : always, key, value, meta);
+        stores.increment();
+    }
+
+    private void write(int entry, long key, long value, long meta) {
+        SLOTS.setOpaque(slots, entry + 1, value);
+        SLOTS.setOpaque(slots, entry + 2, meta);
+        SLOTS.setOpaque(slots, entry, key ^ value ^ meta);
+    }
+
+    /**
+     * Starts a new generation. Entries from earlier generations stay readable, but
+     * the depth-preferred slots no longer protect them from being replaced.
+     */
+    public void newGeneration() {
+        generation = (generation + 1) & 0xFFFF;
+    }
+
+    /**
+     * Empties the table and resets the statistics. Not safe to call while other
+     * threads are using the table.
+     */
+    public void clear() {
+        Arrays.fill(slots, 0L);
+        hits.reset();
+        misses.reset();
+        stores.reset();
+    }
+
+    public int capacity() {
+        return slots.length / ENTRY_LONGS;
+    }
+
+    public long hits() {
+        return hits.sum();
+    }
+
+    public long misses() {
+        return misses.sum();
+    }
+
+    public long stores() {
+        return stores.sum();
+    }
+
+    /**
+     * @return the fraction of lookups that found a value, or 0 before any lookups
+     */
+    public double hitRate() {
+        long found = hits.sum();
+        long total = found + misses.sum();
+        return total == 0 ? 0 : (double) found / total;
+    }
+
+    private int bucket(long key) {
+        // The low bits pick the bucket; the whole key is still checked on a match
+        return (int) (key & bucketMask) * BUCKET_LONGS;
+    }
+}
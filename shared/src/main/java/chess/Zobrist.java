@@ -0,0 +1,72 @@
+package chess;
+
+import java.util.SplittableRandom;
+
+/**
+ * Random 64-bit keys for Zobrist hashing. A position's key is the XOR of one key
+ * per piece on its square, plus keys for the side to move, the castling rights
+ * and the en passant file, so making a move only XORs in what changed.
+ * <p>
+ * The keys come from a fixed seed, so a position has the same key in every run
+ * and keys can be stored alongside games.
+ */
+public final class Zobrist {
+    public static final int WHITE_KING_SIDE = 1;
+    public static final int WHITE_QUEEN_SIDE = 2;
+    public static final int BLACK_KING_SIDE = 4;
+    public static final int BLACK_QUEEN_SIDE = 8;
+
+    private static final long[][] PIECE_SQUARE = new long[BitboardPosition.KIND_COUNT][64];
+    private static final long[] CASTLING = new long[16];
+    private static final long[] EN_PASSANT_FILE = new long[8];
+    private static final long BLACK_TO_MOVE;
+
+    static {
+        SplittableRandom random = new SplittableRandom(0x240C4E55L);
+        for (long[] squares : PIECE_SQUARE) {
+            for (int square = 0; square < 64; square++) {
+                squares[square] = random.nextLong();
+            }
+        }
+        long[] rights = new long[4];
+        for (int i = 0; i < rights.length; i++) {
+            rights[i] = random.nextLong();
+        }
+        for (int mask = 0; mask < CASTLING.length; mask++) {
+            for (int i = 0; i < rights.length; i++) {
+                if ((mask & (1 << i)) != 0) {
+                    CASTLING[mask] ^= rights[i];
+                }
+            }
+        }
+        for (int file = 0; file < EN_PASSANT_FILE.length; file++) {
+            EN_PASSANT_FILE[file] = random.nextLong();
+        }
+        BLACK_TO_MOVE = random.nextLong();
+    }
+
+    private Zobrist() {
+    }
+
+    public static long piece(int kind, int square) {
+        return PIECE_SQUARE[kind][square];
+    }
+
+    /**
+     * @param rights castling rights as a combination of the side flags in this class
+     */
+    public static long castling(int rights) {
+        return CASTLING[rights];
+    }
+
+    /**
+     * @param column the en passant column, 1 through 8
+     */
+    public static long enPassant(int column) {
+        return EN_PASSANT_FILE[column - 1];
+    }
+
+    public static long blackToMove() {
+        return BLACK_TO_MOVE;
+    }
+}
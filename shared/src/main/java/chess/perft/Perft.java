@@ -0,0 +1,161 @@
+package chess.perft;
+
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.IntMoveList;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the leaf nodes of the legal move tree to a fixed depth. The counts for
+ * well-known positions are published, so a mismatch pinpoints a move generation
+ * bug, and the time taken tracks move generation speed.
+ * <p>
+ * Moves are generated as packed ints and made and taken back in place on the
+ * game, so the game is left as it was once a count finishes. The parallel count
+ * gives each root move its own copy.
+ */
+public final class Perft {
+
+    private Perft() {
+    }
+
+    /**
+     * @param game  the position to count from, with the side to move set
+     * @param depth number of plies to look ahead
+     * @return the number of move sequences of exactly that many plies
+     */
+    public static long count(ChessGame game, int depth) {
+        if (depth <= 0) {
+            return 1;
+        }
+        IntMoveList[] lists = new IntMoveList[depth + 1];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = new IntMoveList();
+        }
+        return count(game, depth, lists);
+    }
+
+    private static long count(ChessGame game, int depth, IntMoveList[] lists) {
+        IntMoveList moves = lists[depth];
+        moves.clear();
+        game.generateLegalMoves(game.getTeamTurn(), moves);
+        if (depth == 1) {
+            return moves.size();
+        }
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            game.pushMove(moves.get(i));
+            nodes += count(game, depth - 1, lists);
+            game.popMove();
+        }
+        return nodes;
+    }
+
+    /**
+     * Counts the nodes under each root move separately, in the order the moves
+     * were generated. Comparing this against a reference engine narrows a wrong
+     * total down to the move whose subtree is off.
+     */
+    public static Map<ChessMove, Long> divide(ChessGame game, int depth) {
+        Map<ChessMove, Long> counts = new LinkedHashMap<>();
+        for (ChessMove move : game.generateLegalMoves(game.getTeamTurn())) {
+            game.pushMove(move);
+            counts.put(move, count(game, depth - 1));
+            game.popMove();
+        }
+        return counts;
+    }
+
+    /**
+     * Same as {@link #count(ChessGame, int)}, with each root move's subtree counted
+     * as a separate task on the pool.
+     */
+    public static long count(ChessGame game, int depth, ForkJoinPool pool) {
+        if (depth <= 1) {
+            return count(game, depth);
+        }
+        return pool.invoke(new RootTask(game, depth));
+    }
+
+    private static final class RootTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        private RootTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            List<SubtreeTask> subtrees = new ArrayList<>();
+            for (ChessMove move : game.generateLegalMoves(game.getTeamTurn())) {
+                ChessGame copy = new ChessGame(game);
+                copy.pushMove(move);
+                subtrees.add(new SubtreeTask(copy, depth - 1));
+            }
+            invokeAll(subtrees);
+            long nodes = 0;
+            for (SubtreeTask subtree : subtrees) {
+                nodes += subtree.join();
+            }
+            return nodes;
+        }
+    }
+
+    private static final class SubtreeTask extends RecursiveTask<Long> {
+        private final ChessGame game;
+        private final int depth;
+
+        private SubtreeTask(ChessGame game, int depth) {
+            this.game = game;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return count(game, depth);
+        }
+    }
+
+    /**
+     * Runs perft from the starting position and prints nodes and nodes per second
+     * for each depth.
+     * <p>
+     * Usage: {@code Perft <depth> [threads] [divide]}. With more than one thread the
+     * root moves are split across a fork/join pool; {@code divide} also prints the
+     * per-move counts at the final depth.
+     */
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+        boolean divide = args.length > 2 && args[2].equals("divide");
+
+        ChessGame game = new ChessGame();
+        ForkJoinPool pool = threads > 1 ? new ForkJoinPool(threads) : null;
+        try {
+            for (int d = 1; d <= depth; d++) {
+                long start = System.nanoTime();
+                long nodes = pool == null ? count(game, d) : count(game, d, pool);
+                long elapsed = Math.max(System.nanoTime() - start, 1);
+                System.out.printf("depth %d: %,d nodes in %.3f s (%,.0f nodes/s)%n",
+                        d, nodes, elapsed / 1e9, nodes * 1e9 / elapsed);
+            }
+            if (divide) {
+                for (Map.Entry<ChessMove, Long> entry : divide(game, depth).entrySet()) {
+                    System.out.printf("%s: %d%n", entry.getKey(), entry.getValue());
+                }
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package chess.search;
+
+import chess.Attacks;
+import chess.BitboardPosition;
+import chess.ChessGame;
+import chess.ChessPiece;
+import chess.PieceSquareTables;
+
+/**
+ * Static evaluation: material and piece-square tables, pawn structure and king
+ * safety, each with a middlegame and an endgame weight blended by how much
+ * material is left.
+ * <p>
+ * Material and piece-square sums are maintained by {@link BitboardPosition} as
+ * moves are made and taken back, and pawn structure is cached by pawn key, so
+ * only king safety is worked out from scratch at each leaf. An evaluator keeps
+ * its own pawn cache and must not be shared between threads.
+ */
+public final class Evaluator {
+    // Indexed by ChessPiece.PieceType ordinal: king, queen, bishop, knight, rook, pawn
+    static final int[] VALUES = {0, 900, 330, 320, 500, 100};
+
+    private static final int WHITE = ChessGame.TeamColor.WHITE.ordinal();
+    private static final int BLACK = ChessGame.TeamColor.BLACK.ordinal();
+
+    private static final int DOUBLED_MIDGAME = -10;
+    private static final int DOUBLED_ENDGAME = -20;
+    private static final int ISOLATED_MIDGAME = -10;
+    private static final int ISOLATED_ENDGAME = -15;
+    // By rows advanced from the pawn's own back row
+    private static final int[] PASSED_MIDGAME = {0, 5, 10, 15, 25, 40, 60, 0};
+    private static final int[] PASSED_ENDGAME = {0, 10, 20, 35, 60, 90, 130, 0};
+
+    private static final int SHIELD_PAWN = 10;
+    private static final int OPEN_FILE_NEAR_KING = -15;
+    // Weight of each attacker type on the king's surroundings, by type ordinal
+    private static final int[] KING_ATTACK_WEIGHT = {0, 5, 2, 2, 3, 0};
+    private static final int MAX_KING_DANGER = 300;
+
+    private static final long[] FILES = new long[8];
+    private static final long[] ADJACENT_FILES = new long[8];
+    // Squares a pawn of each color must get past to be passed: ahead of it on its
+    // own and neighbouring files
+    private static final long[][] PASSED_SPAN = new long[2][64];
+    // The two rows in front of a king on each color's side of the board
+    private static final long[][] SHIELD = new long[2][64];
+
+    static {
+        for (int file = 0; file < 8; file++) {
+            FILES[file] = 0x0101010101010101L << file;
+        }
+        for (int file = 0; file < 8; file++) {
+            ADJACENT_FILES[file] = (file > 0 ? FILES[file - 1] : 0) | (file < 7 ? FILES[file + 1] : 0);
+        }
+        for (int square = 0; square < 64; square++) {
+            int row = BitboardPosition.row(square);
+            int file = square & 7;
+            long span = FILES[file] | ADJACENT_FILES[file];
+            long above = row == 8 ? 0 : -1L << (row * 8);
+            long below = (1L << ((row - 1) * 8)) - 1;
+            PASSED_SPAN[WHITE][square] = span & above;
+            PASSED_SPAN[BLACK][square] = span & below;
+            long twoAbove = row >= 6 ? above : above & ((1L << ((row + 2) * 8)) - 1);
+            long twoBelow = row <= 2 ? below : below & (-1L << ((row - 3) * 8));
+            SHIELD[WHITE][square] = span & twoAbove;
+            SHIELD[BLACK][square] = span & twoBelow;
+        }
+    }
+
+    private final PawnCache pawns = new PawnCache(1 << 14);
+
+    /**
+     * @return the score in centipawns from the point of view of the side to move
+     */
+    public int evaluate(ChessGame game) {
+        BitboardPosition position = game.getBoard().getPosition();
+        int midgame = position.midgame();
+        int endgame = position.endgame();
+
+        long pawnScore = pawnStructure(position);
+        midgame += PawnCache.midgame(pawnScore);
+        endgame += PawnCache.endgame(pawnScore);
+        midgame += kingSafety(position, ChessGame.TeamColor.WHITE) - kingSafety(position, ChessGame.TeamColor.BLACK);
+
+        int score = PieceSquareTables.taper(midgame, endgame, position.phase());
+        return game.getTeamTurn() == ChessGame.TeamColor.WHITE ? score : -score;
+    }
+
+    /**
+     * @return white's pawn-structure score minus black's, packed as middlegame
+     * and endgame halves
+     */
+    private long pawnStructure(BitboardPosition position) {
+        long key = position.pawnKey();
+        long cached = pawns.get(key);
+        if (cached != PawnCache.MISSING) {
+            return cached;
+        }
+        long white = position.pieces(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        long black = position.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        long whiteScore = pawnStructure(white, black, WHITE);
+        long blackScore = pawnStructure(black, white, BLACK);
+        long score = PawnCache.pack(PawnCache.midgame(whiteScore) - PawnCache.midgame(blackScore),
+                PawnCache.endgame(whiteScore) - PawnCache.endgame(blackScore));
+        pawns.put(key, score);
+        return score;
+    }
+
+    private static long pawnStructure(long own, long enemy, int color) {
+        int midgame = 0;
+        int endgame = 0;
+        for (int file = 0; file < 8; file++) {
+            int count = Long.bitCount(own & FILES[file]);
+            if (count > 1) {
+                midgame += DOUBLED_MIDGAME * (count - 1);
+                endgame += DOUBLED_ENDGAME * (count - 1);
+            }
+            if (count > 0 && (own & ADJACENT_FILES[file]) == 0) {
+                midgame += ISOLATED_MIDGAME * count;
+                endgame += ISOLATED_ENDGAME * count;
+            }
+        }
+        long remaining = own;
+        while (remaining != 0) {
+            int square = Long.numberOfTrailingZeros(remaining);
+            remaining &= remaining - 1;
+            if ((PASSED_SPAN[color][square] & enemy) == 0) {
+                int row = BitboardPosition.row(square);
+                int advanced = color == WHITE ? row - 1 : 8 - row;
+                midgame += PASSED_MIDGAME[advanced];
+                endgame += PASSED_ENDGAME[advanced];
+            }
+        }
+        return PawnCache.pack(midgame, endgame);
+    }
+
+    /**
+     * Middlegame only: pawns sheltering the king, open files beside it, and enemy
+     * pieces bearing on the squares around it. In the endgame the king should be
+     * out fighting, which the piece-square tables already encourage.
+     */
+    private static int kingSafety(BitboardPosition position, ChessGame.TeamColor color) {
+        int king = position.kingSquare(color);
+        if (king == BitboardPosition.NO_SQUARE) {
+            return 0;
+        }
+        ChessGame.TeamColor enemy = color == ChessGame.TeamColor.WHITE ? ChessGame.TeamColor.BLACK : ChessGame.TeamColor.WHITE;
+        long ownPawns = position.pieces(color, ChessPiece.PieceType.PAWN);
+        int score = SHIELD_PAWN * Long.bitCount(ownPawns & SHIELD[color.ordinal()][king]);
+
+        int file = king & 7;
+        for (int f = Math.max(0, file - 1); f <= Math.min(7, file + 1); f++) {
+            if ((ownPawns & FILES[f]) == 0) {
+                score += OPEN_FILE_NEAR_KING;
+            }
+        }
+
+        long zone = Attacks.king(king) | (1L << king);
+        long occupied = position.occupied();
+        int attackers = 0;
+        int weight = 0;
+        long pieces = position.pieces(enemy) & ~position.pieces(enemy, ChessPiece.PieceType.PAWN)
+                & ~position.pieces(enemy, ChessPiece.PieceType.KING);
+        while (pieces != 0) {
+            int square = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            int kind = position.kindAt(square);
+            if ((Attacks.of(kind, square, occupied) & zone) != 0) {
+                attackers++;
+                weight += KING_ATTACK_WEIGHT[BitboardPosition.typeOf(kind).ordinal()];
+            }
+        }
+        // A lone attacker is rarely a threat; danger grows quickly as more join in
+        if (attackers >= 2) {
+            score -= Math.min(MAX_KING_DANGER, weight * weight);
+        }
+        return score;
+    }
+
+    static int value(ChessPiece.PieceType type) {
+        return VALUES[type.ordinal()];
+    }
+
+    long pawnCacheHits() {
+        return pawns.hits();
+    }
+}
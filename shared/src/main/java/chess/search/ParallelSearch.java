@@ -0,0 +1,112 @@
+package chess.search;
+
+import chess.ChessGame;
+import chess.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Searches one position on several threads at once, Lazy SMP style.
+ * <p>
+ * Every thread runs an ordinary {@link Search} on its own copy of the game, and
+ * they all share one transposition table. Helpers do not coordinate beyond that:
+ * what one thread stores, the others find, so the main thread reaches each depth
+ * sooner. Helpers start one ply deeper on alternate threads so they do not all
+ * walk the same part of the tree in lockstep. The main thread's result is the
+ * one returned; helpers are stopped as soon as it finishes.
+ */
+public final class ParallelSearch implements AutoCloseable {
+    private final TranspositionTable table;
+    private final Search[] searches;
+    private final ExecutorService helpers;
+    private volatile AtomicBoolean currentStop = new AtomicBoolean();
+
+    /**
+     * @param threads how many threads to search with, including the caller's
+     * @param table   the table the threads share
+     */
+    public ParallelSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one search thread");
+        }
+        this.table = table;
+        searches = new Search[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new Search(table);
+        }
+        AtomicInteger helperNumber = new AtomicInteger();
+        helpers = threads == 1 ? null : Executors.newFixedThreadPool(threads - 1, task -> {
+            Thread thread = new Thread(task, "search-helper-" + helperNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public int threads() {
+        return searches.length;
+    }
+
+    /**
+     * Searches for the best move, blocking until the limits are reached. The game
+     * is searched in place on the calling thread and restored before returning.
+     *
+     * @return the main thread's result, with nodes counted across every thread
+     */
+    public synchronized SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newGeneration();
+        AtomicBoolean stop = new AtomicBoolean();
+        currentStop = stop;
+        // Helpers run until the main thread stops them, a ply past its depth limit at most
+        SearchLimits helperLimits = SearchLimits.depth(limits.depth() == 0
+                ? Search.MAX_DEPTH : Math.min(limits.depth() + 1, Search.MAX_DEPTH));
+        List<Future<SearchResult>> running = new ArrayList<>(searches.length - 1);
+        for (int i = 1; i < searches.length; i++) {
+            Search helper = searches[i];
+            ChessGame copy = new ChessGame(game);
+            int firstDepth = 1 + (i & 1);
+            running.add(helpers.submit(() -> helper.search(copy, helperLimits, stop, firstDepth)));
+        }
+
+        SearchResult result;
+        try {
+            result = searches[0].search(game, limits, stop, 1);
+        } finally {
+            stop.set(true);
+        }
+        long nodes = result.nodes();
+        for (Future<SearchResult> helper : running) {
+            try {
+                nodes += helper.get().nodes();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Helper search failed", e.getCause());
+            }
+        }
+        return new SearchResult(result.bestMove(), result.score(), result.depth(), nodes, result.principalVariation());
+    }
+
+    /**
+     * Asks the running search, if any, to stop and return what it has. Safe to
+     * call from any thread.
+     */
+    public void stop() {
+        currentStop.set(true);
+    }
+
+    @Override
+    public void close() {
+        stop();
+        if (helpers != null) {
+            helpers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package chess.search;
+
+import java.util.Arrays;
+
+/**
+ * Remembers pawn-structure scores by pawn key. Pawns move rarely compared with
+ * everything else, so most positions a search visits share their pawn structure
+ * with one already scored. Each search has its own cache, so there is no locking;
+ * a collision simply overwrites the slot.
+ */
+final class PawnCache {
+    static final long MISSING = Long.MIN_VALUE;
+
+    private final long[] keys;
+    private final long[] scores;
+    private final int mask;
+    private long hits;
+    private long misses;
+
+    /**
+     * @param entries slots to hold; must be a power of two
+     */
+    PawnCache(int entries) {
+        if (Integer.bitCount(entries) != 1) {
+            throw new IllegalArgumentException("Entries must be a power of two");
+        }
+        keys = new long[entries];
+        scores = new long[entries];
+        Arrays.fill(scores, MISSING);
+        mask = entries - 1;
+    }
+
+    /**
+     * @return the packed score stored for the key, or {@link #MISSING}
+     */
+    long get(long key) {
+        int slot = (int) key & mask;
+        // The score is checked as well because an empty slot has key 0, which is
+        // also the key of a board with no pawns
+        if (keys[slot] == key && scores[slot] != MISSING) {
+            hits++;
+            return scores[slot];
+        }
+        misses++;
+        return MISSING;
+    }
+
+    void put(long key, long score) {
+        int slot = (int) key & mask;
+        keys[slot] = key;
+        scores[slot] = score;
+    }
+
+    /**
+     * Packs a middlegame and an endgame score into one long for storage
+     */
+    static long pack(int midgame, int endgame) {
+        return ((long) midgame << 32) | (endgame & 0xFFFFFFFFL);
+    }
+
+    static int midgame(long packed) {
+        return (int) (packed >> 32);
+    }
+
+    static int endgame(long packed) {
+        return (int) packed;
+    }
+
+    long hits() {
+        return hits;
+    }
+
+    long misses() {
+        return misses;
+    }
+}
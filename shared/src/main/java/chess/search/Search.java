@@ -0,0 +1,454 @@
+package chess.search;
+
+import chess.BitboardPosition;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.IntMoveList;
+import chess.PackedMove;
+import chess.TranspositionTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Iterative-deepening alpha-beta search over a {@link ChessGame}.
+ * <p>
+ * Each iteration searches one ply deeper than the last, trying the previous
+ * iteration's principal variation first. The tree ends in a quiescence search
+ * over captures and promotions so a line never stops in the middle of an
+ * exchange. Remaining moves are ordered by most valuable victim, then killer
+ * moves that refuted a sibling, then a history score of past cutoffs.
+ * <p>
+ * Positions already searched are looked up in a {@link TranspositionTable}, which
+ * cuts off repeated subtrees and supplies the best move found last time to try
+ * first. The table can be shared between searches, including ones running on
+ * other threads, as {@link ParallelSearch} does.
+ * <p>
+ * A search object holds every buffer it needs and reuses them across searches, so
+ * searching allocates nothing beyond the result. It is not thread-safe: use one per
+ * thread. The game is searched in place and restored before {@code search} returns.
+ */
+public final class Search {
+    public static final int MAX_DEPTH = 48;
+    public static final int MATE = 32000;
+
+    static final int INFINITY = 32767;
+    static final int MAX_PLY = 96;
+    private static final int PV_SCORE = 1 << 30;
+    private static final int HASH_MOVE_SCORE = (1 << 30) - 1;
+    private static final int CAPTURE_SCORE = 1 << 28;
+    private static final int KILLER_SCORE = 1 << 27;
+    private static final int HISTORY_LIMIT = 1 << 26;
+    private static final int CHECK_INTERVAL = 1023;
+    private static final int EXACT = 0;
+    private static final int LOWER_BOUND = 1;
+    private static final int UPPER_BOUND = 2;
+    private static final long NO_ENTRY = -1L;
+
+    private final Evaluator evaluator = new Evaluator();
+    private final IntMoveList[] moveLists = new IntMoveList[MAX_PLY + 1];
+    private final int[][] moveScores = new int[MAX_PLY + 1][];
+    private final int[][] killers = new int[MAX_PLY + 1][2];
+    private final int[][] history = new int[64][64];
+    private final int[][] pv = new int[MAX_PLY + 1][MAX_PLY + 1];
+    private final int[] pvLength = new int[MAX_PLY + 1];
+    private final int[] previousPv = new int[MAX_PLY + 1];
+    private int previousPvLength;
+    private boolean followPv;
+    private final long[] keys = new long[MAX_PLY + 1];
+
+    private final TranspositionTable table;
+    private ChessGame game;
+    private long nodes;
+    private long nodeLimit;
+    private long deadline;
+    private boolean aborted;
+    private volatile AtomicBoolean stopFlag = new AtomicBoolean();
+
+    /**
+     * Creates a search with its own table of 2^18 entries
+     */
+    public Search() {
+        this(new TranspositionTable(1 << 18));
+    }
+
+    /**
+     * @param table the transposition table to read and write, which may be shared
+     *              with other searches
+     */
+    public Search(TranspositionTable table) {
+        this.table = table;
+        for (int ply = 0; ply <= MAX_PLY; ply++) {
+            moveLists[ply] = new IntMoveList(64);
+            moveScores[ply] = new int[64];
+        }
+    }
+
+    /**
+     * Searches for the best move for the side to move.
+     *
+     * @param game   the game to search; it must not be changed by another thread
+     *               until the search returns
+     * @param limits when to stop
+     * @return the best move found, with its score and principal variation
+     */
+    public SearchResult search(ChessGame game, SearchLimits limits) {
+        table.newGeneration();
+        return search(game, limits, new AtomicBoolean(), 1);
+    }
+
+    /**
+     * Runs a search that also stops when {@code stop} is set, starting from the
+     * given depth rather than 1. Helper threads start at different depths so they
+     * spread out over the tree instead of repeating one another.
+     */
+    SearchResult search(ChessGame game, SearchLimits limits, AtomicBoolean stop, int firstDepth) {
+        this.stopFlag = stop;
+        this.game = game;
+        nodes = 0;
+        nodeLimit = limits.nodes() > 0 ? limits.nodes() : Long.MAX_VALUE;
+        deadline = limits.timeMillis() > 0 ? System.nanoTime() + limits.timeMillis() * 1_000_000L : Long.MAX_VALUE;
+        aborted = false;
+        previousPvLength = 0;
+        for (int[] pair : killers) {
+            pair[0] = PackedMove.NONE;
+            pair[1] = PackedMove.NONE;
+        }
+        for (int[] row : history) {
+            Arrays.fill(row, 0);
+        }
+
+        IntMoveList rootMoves = moveLists[0];
+        rootMoves.clear();
+        game.generateLegalMoves(game.getTeamTurn(), rootMoves);
+        if (rootMoves.isEmpty()) {
+            int score = game.isInCheck(game.getTeamTurn()) ? -MATE : 0;
+            return new SearchResult(null, score, 0, 0, List.of());
+        }
+
+        keys[0] = game.positionKey();
+        int bestScore = 0;
+        int completedDepth = 0;
+        for (int depth = Math.min(firstDepth, limits.maxDepth()); depth <= limits.maxDepth(); depth++) {
+            followPv = true;
+            int score = alphaBeta(depth, 0, -INFINITY, INFINITY);
+            if (aborted) {
+                break;
+            }
+            bestScore = score;
+            completedDepth = depth;
+            previousPvLength = pvLength[0];
+            System.arraycopy(pv[0], 0, previousPv, 0, previousPvLength);
+            if (isMate(score)) {
+                break;
+            }
+        }
+        if (previousPvLength == 0) {
+            // Stopped before the first iteration finished; any legal move will do
+            previousPv[0] = rootMoves.get(0);
+            previousPvLength = 1;
+        }
+
+        List<ChessMove> line = new ArrayList<>(previousPvLength);
+        for (int i = 0; i < previousPvLength; i++) {
+            line.add(PackedMove.toChessMove(previousPv[i]));
+        }
+        return new SearchResult(line.get(0), bestScore, completedDepth, nodes, List.copyOf(line));
+    }
+
+    /**
+     * Asks a running search to stop as soon as it can. The search still returns
+     * the result of its deepest finished iteration. Safe to call from any thread.
+     */
+    public void stop() {
+        stopFlag.set(true);
+    }
+
+    /**
+     * @return whether a score means one side can force mate
+     */
+    public static boolean isMate(int score) {
+        return Math.abs(score) >= MATE - MAX_PLY;
+    }
+
+    private int alphaBeta(int depth, int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (ply > 0 && isRepetition(ply)) {
+            return 0;
+        }
+        ChessGame.TeamColor us = game.getTeamTurn();
+        boolean inCheck = game.isInCheck(us);
+        if (inCheck) {
+            depth++;
+        }
+        if (depth <= 0 || ply >= MAX_PLY - 1) {
+            return quiesce(ply, alpha, beta);
+        }
+        if (countNode()) {
+            return 0;
+        }
+
+        long key = keys[ply];
+        long entry = table.get(key, NO_ENTRY);
+        int hashMove = PackedMove.NONE;
+        if (entry != NO_ENTRY) {
+            hashMove = entryMove(entry);
+            if (ply > 0 && entryDepth(entry) >= depth) {
+                int score = fromTable(entryScore(entry), ply);
+                int bound = entryBound(entry);
+                if (bound == EXACT || (bound == LOWER_BOUND && score >= beta) || (bound == UPPER_BOUND && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        IntMoveList moves = moveLists[ply];
+        if (ply > 0) {
+            moves.clear();
+            game.generateLegalMoves(us, moves);
+        }
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+        scoreMoves(ply, moves, hashMove);
+
+        int originalAlpha = alpha;
+        int bestMove = PackedMove.NONE;
+        int best = -INFINITY;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(ply, moves, i);
+            if (i > 0) {
+                followPv = false;
+            }
+            game.pushMove(move);
+            keys[ply + 1] = game.positionKey();
+            int score = -alphaBeta(depth - 1, ply + 1, -beta, -alpha);
+            game.popMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+                bestMove = move;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (alpha >= beta) {
+                    if (!PackedMove.isCapture(move) && !PackedMove.isPromotion(move)) {
+                        rememberCutoff(ply, move, depth);
+                    }
+                    break;
+                }
+            }
+        }
+
+        int bound = best >= beta ? LOWER_BOUND : best > originalAlpha ? EXACT : UPPER_BOUND;
+        table.put(key, packEntry(bestMove, toTable(best, ply), bound, depth), depth);
+        return best;
+    }
+
+    // Table entries: move in bits 0-14, score in 16-31, bound in 32-33, depth in 40-47
+
+    private static long packEntry(int move, int score, int bound, int depth) {
+        return (move & 0x7FFFL) | ((score & 0xFFFFL) << 16) | ((long) bound << 32) | ((long) depth << 40);
+    }
+
+    private static int entryMove(long entry) {
+        return (int) (entry & 0x7FFF);
+    }
+
+    private static int entryScore(long entry) {
+        return (short) (entry >>> 16);
+    }
+
+    private static int entryBound(long entry) {
+        return (int) (entry >>> 32) & 3;
+    }
+
+    private static int entryDepth(long entry) {
+        return (int) (entry >>> 40) & 0xFF;
+    }
+
+    /**
+     * Mate scores count plies from the root, but a table entry can be reached at a
+     * different ply, so they are stored counting from the entry's own position
+     */
+    private static int toTable(int score, int ply) {
+        if (isMate(score)) {
+            return score > 0 ? score + ply : score - ply;
+        }
+        return score;
+    }
+
+    private static int fromTable(int score, int ply) {
+        if (isMate(score)) {
+            return score > 0 ? score - ply : score + ply;
+        }
+        return score;
+    }
+
+    /**
+     * Searches only captures and promotions, letting the side to move stand pat on
+     * the static evaluation instead. In check every evasion is searched, since
+     * standing pat is not an option.
+     */
+    private int quiesce(int ply, int alpha, int beta) {
+        pvLength[ply] = ply;
+        if (countNode()) {
+            return 0;
+        }
+        ChessGame.TeamColor us = game.getTeamTurn();
+        boolean inCheck = game.isInCheck(us);
+        IntMoveList moves = moveLists[ply];
+        moves.clear();
+        game.generateLegalMoves(us, moves);
+        if (moves.isEmpty()) {
+            return inCheck ? -MATE + ply : 0;
+        }
+
+        int best = -INFINITY;
+        if (!inCheck) {
+            best = evaluator.evaluate(game);
+            if (best >= beta || ply >= MAX_PLY - 1) {
+                return best;
+            }
+            alpha = Math.max(alpha, best);
+        } else if (ply >= MAX_PLY - 1) {
+            return evaluator.evaluate(game);
+        }
+
+        followPv = false;
+        scoreMoves(ply, moves, PackedMove.NONE);
+        for (int i = 0; i < moves.size(); i++) {
+            int move = pickNext(ply, moves, i);
+            if (!inCheck && !PackedMove.isCapture(move) && !PackedMove.isPromotion(move)) {
+                continue;
+            }
+            game.pushMove(move);
+            int score = -quiesce(ply + 1, -beta, -alpha);
+            game.popMove();
+            if (aborted) {
+                return 0;
+            }
+            if (score > best) {
+                best = score;
+            }
+            if (score > alpha) {
+                alpha = score;
+                updatePv(ply, move);
+                if (alpha >= beta) {
+                    break;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Counts a node and checks the limits every so often
+     *
+     * @return true if the search has to stop
+     */
+    private boolean countNode() {
+        nodes++;
+        if (nodes >= nodeLimit
+                || ((nodes & CHECK_INTERVAL) == 0 && (stopFlag.get() || System.nanoTime() >= deadline))) {
+            aborted = true;
+        }
+        return aborted;
+    }
+
+    private boolean isRepetition(int ply) {
+        for (int earlier = ply - 2; earlier >= 0; earlier -= 2) {
+            if (keys[earlier] == keys[ply]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void scoreMoves(int ply, IntMoveList moves, int hashMove) {
+        if (moveScores[ply].length < moves.size()) {
+            moveScores[ply] = new int[moves.size() * 2];
+        }
+        int[] scores = moveScores[ply];
+        int pvMove = followPv && ply < previousPvLength ? previousPv[ply] : PackedMove.NONE;
+        boolean pvFound = false;
+        BitboardPosition position = game.getBoard().getPosition();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            int from = PackedMove.from(move);
+            int to = PackedMove.to(move);
+            if (pvMove != PackedMove.NONE && PackedMove.sameMove(move, pvMove)) {
+                scores[i] = PV_SCORE;
+                pvFound = true;
+            } else if (hashMove != PackedMove.NONE && PackedMove.sameMove(move, hashMove)) {
+                scores[i] = HASH_MOVE_SCORE;
+            } else if (PackedMove.isCapture(move) || PackedMove.isPromotion(move)) {
+                int victim = position.kindAt(to) == BitboardPosition.EMPTY
+                        ? (PackedMove.isCapture(move) ? Evaluator.VALUES[5] : 0)
+                        : Evaluator.value(BitboardPosition.typeOf(position.kindAt(to)));
+                int promotion = PackedMove.isPromotion(move) ? Evaluator.value(PackedMove.promotion(move)) : 0;
+                int attacker = Evaluator.value(BitboardPosition.typeOf(position.kindAt(from)));
+                scores[i] = CAPTURE_SCORE + (victim + promotion) * 16 - attacker / 16;
+            } else if (PackedMove.sameMove(move, killers[ply][0])) {
+                scores[i] = KILLER_SCORE + 1;
+            } else if (PackedMove.sameMove(move, killers[ply][1])) {
+                scores[i] = KILLER_SCORE;
+            } else {
+                scores[i] = history[from][to];
+            }
+        }
+        if (!pvFound) {
+            followPv = false;
+        }
+    }
+
+    /**
+     * Moves the highest-scored remaining move into slot {@code index}. Sorting
+     * lazily pays off because most nodes cut off after the first few moves.
+     */
+    private int pickNext(int ply, IntMoveList moves, int index) {
+        int[] scores = moveScores[ply];
+        int best = index;
+        for (int i = index + 1; i < moves.size(); i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        if (best != index) {
+            moves.swap(index, best);
+            int score = scores[index];
+            scores[index] = scores[best];
+            scores[best] = score;
+        }
+        return moves.get(index);
+    }
+
+    private void rememberCutoff(int ply, int move, int depth) {
+        if (!PackedMove.sameMove(move, killers[ply][0])) {
+            killers[ply][1] = killers[ply][0];
+            killers[ply][0] = move;
+        }
+        int[] fromRow = history[PackedMove.from(move)];
+        int to = PackedMove.to(move);
+        fromRow[to] += depth * depth;
+        if (fromRow[to] >= HISTORY_LIMIT) {
+            for (int[] row : history) {
+                for (int i = 0; i < row.length; i++) {
+                    row[i] /= 2;
+                }
+            }
+        }
+    }
+
+    private void updatePv(int ply, int move) {
+        pv[ply][ply] = move;
+        int childLength = pvLength[ply + 1];
+        System.arraycopy(pv[ply + 1], ply + 1, pv[ply], ply + 1, childLength - (ply + 1));
+        pvLength[ply] = childLength;
+    }
+}
@@ -0,0 +1,44 @@
+package chess.search;
+
+/**
+ * How far a search may go. A search stops at whichever limit it reaches first;
+ * a limit of zero means no limit of that kind, but at least one must be set.
+ *
+ * @param depth      deepest iteration to search, in plies
+ * @param nodes      positions to visit before stopping
+ * @param timeMillis wall-clock time to search for
+ */
+public record SearchLimits(int depth, long nodes, long timeMillis) {
+
+    public SearchLimits {
+        if (depth < 0 || depth > Search.MAX_DEPTH) {
+            throw new IllegalArgumentException("Depth must be between 0 and " + Search.MAX_DEPTH);
+        }
+        if (nodes < 0 || timeMillis < 0) {
+            throw new IllegalArgumentException("Node and time limits cannot be negative");
+        }
+        if (depth == 0 && nodes == 0 && timeMillis == 0) {
+            throw new IllegalArgumentException("A search needs at least one limit");
+        }
+    }
+
+    public static SearchLimits depth(int depth) {
+        return new SearchLimits(depth, 0, 0);
+    }
+
+    public static SearchLimits nodes(long nodes) {
+        return new SearchLimits(0, nodes, 0);
+    }
+
+    public static SearchLimits time(long timeMillis) {
+        return new SearchLimits(0, 0, timeMillis);
+    }
+
+    /**
+     * @return the depth to iterate up to, which is the deepest allowed when no
+     * depth limit is set
+     */
+    int maxDepth() {
+        return depth == 0 ? Search.MAX_DEPTH : depth;
+    }
+}
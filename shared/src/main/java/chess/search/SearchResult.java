@@ -0,0 +1,19 @@
+package chess.search;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * The outcome of a search, taken from the deepest iteration that finished.
+ *
+ * @param bestMove           the move to play, or null if the side to move has none
+ * @param score              in centipawns from the side to move's point of view;
+ *                           see {@link Search#isMate(int)} for mate scores
+ * @param depth              the deepest iteration that finished
+ * @param nodes              positions visited, including the unfinished iteration
+ * @param principalVariation the expected line of play, starting with the best move
+ */
+public record SearchResult(ChessMove bestMove, int score, int depth, long nodes,
+                           List<ChessMove> principalVariation) {
+}
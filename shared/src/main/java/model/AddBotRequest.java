@@ -0,0 +1,4 @@
+package model;
+
+public record AddBotRequest(String playerColor, int gameID, String difficulty) {
+}
@@ -0,0 +1,20 @@
+package model;
+
+import chess.ChessMove;
+
+import java.util.List;
+
+/**
+ * Engine analysis of a game's current position. Scores are in centipawns from
+ * white's point of view; a mate is reported in {@code mate} instead, as the
+ * number of moves to mate, positive when white mates and negative when black does.
+ *
+ * @param bestLine   the expected line of play, starting with the best move
+ * @param candidates the best few moves for the side to move, strongest first
+ */
+public record AnalysisResult(int score, int mate, int depth, long nodes,
+                             List<ChessMove> bestLine, List<Candidate> candidates) {
+
+    public record Candidate(ChessMove move, int score, int mate) {
+    }
+}
@@ -2,6 +2,13 @@ package model;
 
 import java.util.List;
 
-public record ListGamesResult(List<GameSummary> games) {
+/**
+ * @param nextCursor the cursor for the page after this one, or null if this is the last page
+ */
+public record ListGamesResult(List<GameSummary> games, Integer nextCursor) {
+    public ListGamesResult(List<GameSummary> games) {
+        this(games, null);
+    }
+
     public record GameSummary(int gameID, String whiteUsername, String blackUsername, String gameName) {}
 }
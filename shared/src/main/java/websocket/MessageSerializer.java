@@ -19,6 +19,7 @@ public class MessageSerializer {
                 case MAKE_MOVE -> GSON.fromJson(json, MakeMoveCommand.class);
                 case LEAVE -> GSON.fromJson(json, LeaveCommand.class);
                 case RESIGN -> GSON.fromJson(json, ResignCommand.class);
+                case ANALYZE -> GSON.fromJson(json, AnalyzeCommand.class);
             };
         } catch (Exception e) {
             System.out.println("Deserialization failed: " + e.getMessage());
@@ -0,0 +1,8 @@
+package websocket.commands;
+
+public class AnalyzeCommand extends UserGameCommand {
+
+    public AnalyzeCommand(String authToken, Integer gameID) {
+        super(CommandType.ANALYZE, authToken, gameID);
+    }
+}
@@ -8,7 +8,8 @@ public class ServerMessage {
     public enum ServerMessageType {
         LOAD_GAME,
         ERROR,
-        NOTIFICATION
+        NOTIFICATION,
+        ANALYSIS
     }
 
     public ServerMessage() {
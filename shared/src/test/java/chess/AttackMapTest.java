@@ -0,0 +1,49 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttackMapTest {
+
+    @Test
+    void attackMapMatchesRayScanThroughRandomGames() throws InvalidMoveException {
+        Random random = new Random(240);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            ChessGame game = new ChessGame();
+            AttackMap map = game.getBoard().getPosition().trackAttacks();
+            BitboardPosition scratch = new BitboardPosition();
+
+            for (int ply = 0; ply < 80 && !game.isGameOver(); ply++) {
+                scratch.copyFrom(game.getBoard().getPosition());
+                for (int square = 0; square < 64; square++) {
+                    for (ChessGame.TeamColor color : ChessGame.TeamColor.values()) {
+                        assertEquals(scratch.isAttacked(square, color), map.isAttacked(square, color),
+                                "square " + square + " for " + color + " at ply " + ply);
+                    }
+                }
+                List<ChessMove> moves = new ArrayList<>();
+                for (int row = 1; row <= 8; row++) {
+                    for (int col = 1; col <= 8; col++) {
+                        ChessPiece piece = game.getBoard().getPiece(new ChessPosition(row, col));
+                        if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                            moves.addAll(game.validMoves(new ChessPosition(row, col)));
+                        }
+                    }
+                }
+                game.makeMove(moves.get(random.nextInt(moves.size())));
+            }
+        }
+    }
+
+    @Test
+    void emptyBoardHasNoAttacks() {
+        AttackMap map = new BitboardPosition().trackAttacks();
+        assertEquals(0L, map.attacks(ChessGame.TeamColor.WHITE));
+        assertFalse(map.isAttacked(0, ChessGame.TeamColor.BLACK));
+    }
+}
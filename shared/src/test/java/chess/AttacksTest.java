@@ -0,0 +1,62 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttacksTest {
+    private static final int[][] ROOK_DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+    private static final int[][] BISHOP_DIRECTIONS = {{1, 1}, {1, -1}, {-1, 1}, {-1, -1}};
+
+    private static long walk(int square, long occupied, int[][] directions) {
+        long attacks = 0L;
+        for (int[] dir : directions) {
+            int r = BitboardPosition.row(square) + dir[0];
+            int c = BitboardPosition.column(square) + dir[1];
+            while (r >= 1 && r <= 8 && c >= 1 && c <= 8) {
+                long bit = 1L << BitboardPosition.square(r, c);
+                attacks |= bit;
+                if ((occupied & bit) != 0) {
+                    break;
+                }
+                r += dir[0];
+                c += dir[1];
+            }
+        }
+        return attacks;
+    }
+
+    @Test
+    void slidingTablesMatchRayWalkPositive() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 200; trial++) {
+            long occupied = random.nextLong() & random.nextLong();
+            for (int square = 0; square < 64; square++) {
+                assertEquals(walk(square, occupied, ROOK_DIRECTIONS), Attacks.rook(square, occupied));
+                assertEquals(walk(square, occupied, BISHOP_DIRECTIONS), Attacks.bishop(square, occupied));
+            }
+        }
+    }
+
+    @Test
+    void stepTablesPositive() {
+        assertEquals(2, Long.bitCount(Attacks.knight(BitboardPosition.square(1, 1))));
+        assertEquals(8, Long.bitCount(Attacks.knight(BitboardPosition.square(4, 4))));
+        assertEquals(3, Long.bitCount(Attacks.king(BitboardPosition.square(8, 8))));
+        assertEquals(1L << BitboardPosition.square(3, 2),
+                Attacks.pawn(BitboardPosition.square(2, 1), ChessGame.TeamColor.WHITE));
+        assertEquals(0L, Attacks.pawn(BitboardPosition.square(1, 4), ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void pieceMovesStopAtOwnPiecesNegative() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        ChessPiece rook = board.getPiece(ChessPosition.of(1, 1));
+        assertTrue(rook.pieceMoves(board, ChessPosition.of(1, 1)).isEmpty());
+        ChessPiece knight = board.getPiece(ChessPosition.of(1, 2));
+        assertEquals(2, knight.pieceMoves(board, ChessPosition.of(1, 2)).size());
+    }
+}
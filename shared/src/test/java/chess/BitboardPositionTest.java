@@ -0,0 +1,53 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitboardPositionTest {
+
+    @Test
+    void addAndRemoveKeepBitboardsInStep() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(4, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+
+        BitboardPosition position = board.getPosition();
+        assertEquals(BitboardPosition.square(1, 5), position.kingSquare(ChessGame.TeamColor.WHITE));
+        assertEquals(1L << BitboardPosition.square(4, 4),
+                position.pieces(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN));
+
+        board.removePiece(new ChessPosition(4, 4));
+        assertEquals(0L, position.pieces(ChessGame.TeamColor.BLACK));
+        assertEquals(1, Long.bitCount(position.occupied()));
+    }
+
+    @Test
+    void copyKeepsPiecesAndHasMoved() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+        board.getPiece(new ChessPosition(1, 1)).setHasMoved(true);
+
+        ChessBoard copy = new ChessBoard(board);
+        assertEquals(board, copy);
+        assertEquals(board.hashCode(), copy.hashCode());
+        assertTrue(copy.getPiece(new ChessPosition(1, 1)).hasMoved());
+        assertNotSame(board.getPiece(new ChessPosition(1, 1)), copy.getPiece(new ChessPosition(1, 1)));
+    }
+
+    @Test
+    void deserializedBoardRebuildsBitboards() {
+        ChessBoard board = new ChessBoard();
+        board.resetBoard();
+
+        ChessBoard restored = new Gson().fromJson(new Gson().toJson(board), ChessBoard.class);
+        assertEquals(board.getPosition(), restored.getPosition());
+        assertEquals(BitboardPosition.square(8, 5), restored.getPosition().kingSquare(ChessGame.TeamColor.BLACK));
+    }
+
+    @Test
+    void missingKingNegative() {
+        assertEquals(BitboardPosition.NO_SQUARE, new ChessBoard().getPosition().kingSquare(ChessGame.TeamColor.WHITE));
+    }
+}
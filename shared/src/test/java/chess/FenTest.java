@@ -0,0 +1,86 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FenTest {
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void startingPositionPositive() {
+        assertEquals(START, new ChessGame().toFen());
+        ChessGame game = ChessGame.fromFen(START);
+        assertEquals(new ChessGame(), game);
+        assertEquals(new ChessGame().positionKey(), game.positionKey());
+    }
+
+    @Test
+    void roundTripPositive() {
+        String[] positions = {
+            KIWIPETE,
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r2q1rk1/pp2bppp/2n1bn2/2pp4/3P4/2NBPN2/PPQ2PPP/R1B2RK1 b - - 4 10",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq - 3 12",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+        };
+        for (String fen : positions) {
+            assertEquals(fen, ChessGame.fromFen(fen).toFen());
+        }
+    }
+
+    @Test
+    void castlingAndEnPassantFollowTheGamePositive() throws InvalidMoveException {
+        ChessGame game = ChessGame.fromFen("rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3");
+        assertEquals(Zobrist.WHITE_KING_SIDE | Zobrist.WHITE_QUEEN_SIDE | Zobrist.BLACK_KING_SIDE | Zobrist.BLACK_QUEEN_SIDE,
+                game.castlingRights());
+        assertEquals(6, game.enPassantColumn());
+
+        game.makeMove(ChessMove.of(ChessPosition.of(5, 5), ChessPosition.of(6, 6), null));
+        assertEquals("rnbqkbnr/ppp1p1pp/5P2/3p4/8/8/PPPP1PPP/RNBQKBNR b KQkq - 0 3", game.toFen());
+
+        game.makeMove(ChessMove.of(ChessPosition.of(8, 7), ChessPosition.of(6, 6), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(1, 5), ChessPosition.of(2, 5), null));
+        assertEquals("rnbqkb1r/ppp1p1pp/5n2/3p4/8/8/PPPPKPPP/RNBQ1BNR b kq - 1 4", game.toFen());
+    }
+
+    @Test
+    void countersSurvivePushAndPopPositive() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        game.pushMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(1, 4), null));
+        game.pushMove(ChessMove.of(ChessPosition.of(7, 5), ChessPosition.of(8, 4), null));
+        assertEquals(2, game.getHalfmoveClock());
+        assertEquals(2, game.getFullmoveNumber());
+        game.popMove();
+        game.popMove();
+        assertEquals(KIWIPETE, game.toFen());
+    }
+
+    @Test
+    void countersOptionalPositive() {
+        ChessGame game = ChessGame.fromFen("8/8/8/4k3/8/8/8/4K3 b - -");
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+        assertEquals("8/8/8/4k3/8/8/8/4K3 b - - 0 1", game.toFen());
+    }
+
+    @Test
+    void malformedNegative() {
+        String[] invalid = {
+            null,
+            "",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/9/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNX w KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR x KQkq - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkqK - 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq e3 0 1",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 0",
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1 extra",
+            "8/8/8/4k3/8/8/8/4K3 w K - 0 1",
+        };
+        for (String fen : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> ChessGame.fromFen(fen), String.valueOf(fen));
+        }
+    }
+}
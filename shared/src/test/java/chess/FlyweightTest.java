@@ -0,0 +1,51 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlyweightTest {
+
+    @Test
+    void positionsAreSharedPositive() {
+        assertSame(ChessPosition.of(4, 5), ChessPosition.of(4, 5));
+        assertEquals(new ChessPosition(4, 5), ChessPosition.of(4, 5));
+        assertEquals(new ChessPosition(4, 5).hashCode(), ChessPosition.of(4, 5).hashCode());
+    }
+
+    @Test
+    void movesAreSharedPositive() {
+        ChessMove knight = ChessMove.of(new ChessPosition(1, 2), new ChessPosition(3, 3), null);
+        assertSame(knight, ChessMove.of(ChessPosition.of(1, 2), ChessPosition.of(3, 3), null));
+        assertSame(knight.getStartPosition(), ChessPosition.of(1, 2));
+
+        ChessMove promotion = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT);
+        assertSame(promotion, ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 2), ChessPiece.PieceType.KNIGHT));
+        assertEquals(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT), promotion);
+        assertEquals(new ChessMove(new ChessPosition(7, 1), new ChessPosition(8, 2), ChessPiece.PieceType.KNIGHT).hashCode(),
+                promotion.hashCode());
+    }
+
+    @Test
+    void generatedMovesAreSharedPositive() {
+        ChessGame game = new ChessGame();
+        for (ChessMove move : game.generateLegalMoves(ChessGame.TeamColor.WHITE)) {
+            assertSame(move, ChessMove.of(move.getStartPosition(), move.getEndPosition(), move.getPromotionPiece()));
+        }
+        for (ChessMove move : new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN)
+                .pieceMoves(game.getBoard(), ChessPosition.of(4, 4))) {
+            assertSame(move, ChessMove.of(move.getStartPosition(), move.getEndPosition(), null));
+        }
+    }
+
+    @Test
+    void impossibleMovesAreNotSharedNegative() {
+        ChessMove offBoard = ChessMove.of(new ChessPosition(0, 1), new ChessPosition(1, 1), null);
+        assertNotSame(offBoard, ChessMove.of(new ChessPosition(0, 1), new ChessPosition(1, 1), null));
+        assertEquals(offBoard, ChessMove.of(new ChessPosition(0, 1), new ChessPosition(1, 1), null));
+
+        ChessMove oddShape = ChessMove.of(ChessPosition.of(1, 1), ChessPosition.of(4, 2), null);
+        assertEquals(new ChessMove(new ChessPosition(1, 1), new ChessPosition(4, 2), null), oddShape);
+        assertNotSame(ChessPosition.of(0, 3), ChessPosition.of(0, 3));
+    }
+}
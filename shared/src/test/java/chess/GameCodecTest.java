@@ -0,0 +1,99 @@
+package chess;
+
+import com.google.gson.Gson;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameCodecTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1";
+
+    @Test
+    void roundTripPositive() {
+        String[] positions = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            KIWIPETE,
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R b Kq - 3 12",
+            "rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+        };
+        for (String fen : positions) {
+            ChessGame game = GameCodec.decode(GameCodec.encode(ChessGame.fromFen(fen)));
+            assertEquals(fen, game.toFen());
+            assertEquals(ChessGame.fromFen(fen).positionKey(), game.positionKey());
+        }
+    }
+
+    @Test
+    void historyAndResignationPositive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+        game.makeMove(ChessMove.of(ChessPosition.of(4, 5), ChessPosition.of(5, 4), null));
+        game.setResignedPlayer("bläck");
+        game.setGameOver(true);
+
+        ChessGame decoded = GameCodec.decode(GameCodec.encode(game));
+        assertEquals(game, decoded);
+        assertEquals(game.getMoveHistory(), decoded.getMoveHistory());
+        assertEquals(game.getLastMove(), decoded.getLastMove());
+        assertEquals("bläck", decoded.getResignedPlayer());
+        assertTrue(decoded.isGameOver());
+        assertTrue(GameCodec.isGameOver(GameCodec.encode(game)));
+        assertFalse(GameCodec.isGameOver(GameCodec.encode(new ChessGame())));
+        assertEquals(game.toFen(), decoded.toFen());
+        assertEquals(game.validMoves(ChessPosition.of(8, 5)), decoded.validMoves(ChessPosition.of(8, 5)));
+    }
+
+    @Test
+    void promotionsInHistoryPositive() {
+        ChessGame game = ChessGame.fromFen("8/P6k/8/8/8/8/8/K7 w - - 0 40");
+        ChessMove promotion = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.KNIGHT);
+        game.getMoveHistory().add(promotion);
+        assertEquals(promotion, GameCodec.decode(GameCodec.encode(game)).getMoveHistory().get(0));
+    }
+
+    @Test
+    void snapshotLeavesOutHistoryPositive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.getMoveHistory().add(ChessMove.of(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        ChessGame snapshot = GameCodec.decode(GameCodec.encodeSnapshot(game));
+        assertEquals(game.toFen(), snapshot.toFen());
+        assertTrue(snapshot.getMoveHistory().isEmpty());
+        assertEquals(GameCodec.encode(game).length - 2, GameCodec.encodeSnapshot(game).length);
+    }
+
+    @Test
+    void rejectsBadMoveNegative() {
+        ChessMove move = ChessMove.of(ChessPosition.of(7, 1), ChessPosition.of(8, 1), ChessPiece.PieceType.QUEEN);
+        assertEquals(move, GameCodec.decodeMove(GameCodec.encodeMove(move)));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeMove(1 << 12));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeMove(7 << 12));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decodeMove(1 << 15));
+    }
+
+    @Test
+    void muchSmallerThanJsonPositive() {
+        ChessGame game = ChessGame.fromFen(KIWIPETE);
+        int json = new Gson().toJson(game).getBytes().length;
+        int binary = GameCodec.encode(game).length;
+        assertTrue(binary * 10 < json, binary + " bytes encoded against " + json + " of JSON");
+    }
+
+    @Test
+    void rejectsUnknownVersionNegative() {
+        byte[] data = GameCodec.encode(new ChessGame());
+        data[1] = (byte) (GameCodec.VERSION + 1);
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(data));
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode("{}".getBytes()));
+        assertFalse(GameCodec.isEncoded("{\"board\":{}}".getBytes()));
+    }
+
+    @Test
+    void rejectsTruncatedNegative() {
+        byte[] data = GameCodec.encode(new ChessGame());
+        byte[] truncated = java.util.Arrays.copyOf(data, data.length - 2);
+        assertThrows(IllegalArgumentException.class, () -> GameCodec.decode(truncated));
+    }
+}
@@ -0,0 +1,69 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveGeneratorTest {
+
+    private static ChessGame gameWith(ChessGame.TeamColor turn, Object... placements) {
+        ChessBoard board = new ChessBoard();
+        for (int i = 0; i < placements.length; i += 4) {
+            board.addPiece(new ChessPosition((int) placements[i], (int) placements[i + 1]),
+                    new ChessPiece((ChessGame.TeamColor) placements[i + 2], (ChessPiece.PieceType) placements[i + 3]));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(turn);
+        return game;
+    }
+
+    @Test
+    void pinnedPieceOnlyMovesAlongPin() {
+        ChessGame game = gameWith(ChessGame.TeamColor.WHITE,
+                1, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING,
+                3, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK,
+                8, 5, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN,
+                8, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+
+        for (ChessMove move : game.validMoves(new ChessPosition(3, 5))) {
+            assertEquals(5, move.getEndPosition().getColumn());
+        }
+        assertEquals(6, game.validMoves(new ChessPosition(3, 5)).size());
+    }
+
+    @Test
+    void doubleCheckOnlyAllowsKingMoves() {
+        ChessGame game = gameWith(ChessGame.TeamColor.WHITE,
+                1, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING,
+                1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN,
+                8, 5, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.ROOK,
+                3, 4, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT,
+                8, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+
+        List<ChessMove> moves = game.generateLegalMoves(ChessGame.TeamColor.WHITE);
+        assertFalse(moves.isEmpty());
+        for (ChessMove move : moves) {
+            assertEquals(new ChessPosition(1, 5), move.getStartPosition());
+        }
+    }
+
+    @Test
+    void resultIsCachedUntilTheNextMove() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        List<ChessMove> first = game.generateLegalMoves(ChessGame.TeamColor.WHITE);
+        assertSame(first, game.generateLegalMoves(ChessGame.TeamColor.WHITE));
+
+        game.makeMove(new ChessMove(new ChessPosition(2, 5), new ChessPosition(4, 5), null));
+        assertNotSame(first, game.generateLegalMoves(ChessGame.TeamColor.WHITE));
+        assertEquals(20, game.generateLegalMoves(ChessGame.TeamColor.BLACK).size());
+    }
+
+    @Test
+    void legalMovesCannotBeModified() {
+        List<ChessMove> moves = new ChessGame().generateLegalMoves(ChessGame.TeamColor.WHITE);
+        assertThrows(UnsupportedOperationException.class, moves::clear);
+    }
+}
@@ -0,0 +1,66 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MoveUndoTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol, ChessPiece.PieceType promotion) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), promotion);
+    }
+
+    @Test
+    void pushAndPopRestoresCastle() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(1, 8), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(new ChessPosition(8, 5), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        ChessBoard before = new ChessBoard(board);
+
+        game.pushMove(move(1, 5, 1, 7, null));
+        assertEquals(ChessPiece.PieceType.ROOK, board.getPiece(new ChessPosition(1, 6)).getPieceType());
+        assertTrue(board.getPiece(new ChessPosition(1, 6)).hasMoved());
+        assertEquals(ChessGame.TeamColor.BLACK, game.getTeamTurn());
+
+        game.popMove();
+        assertEquals(before, board);
+        assertFalse(board.getPiece(new ChessPosition(1, 5)).hasMoved());
+        assertFalse(board.getPiece(new ChessPosition(1, 8)).hasMoved());
+        assertEquals(ChessGame.TeamColor.WHITE, game.getTeamTurn());
+    }
+
+    @Test
+    void pushAndPopRestoresEnPassantAndPromotion() throws InvalidMoveException {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(new ChessPosition(1, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(new ChessPosition(5, 5), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(7, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(7, 4), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        board.addPiece(new ChessPosition(8, 8), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        game.makeMove(move(7, 4, 5, 4, null));
+        ChessBoard before = new ChessBoard(board);
+
+        game.pushMove(move(5, 5, 6, 4, null));
+        assertNull(board.getPiece(new ChessPosition(5, 4)));
+        game.pushMove(move(8, 8, 8, 7, null));
+        game.pushMove(move(7, 1, 8, 1, ChessPiece.PieceType.QUEEN));
+        assertEquals(ChessPiece.PieceType.QUEEN, board.getPiece(new ChessPosition(8, 1)).getPieceType());
+
+        game.popMove();
+        game.popMove();
+        game.popMove();
+        assertEquals(before, board);
+        assertTrue(game.validMoves(new ChessPosition(5, 5)).contains(move(5, 5, 6, 4, null)));
+    }
+
+    @Test
+    void popWithoutPushNegative() {
+        assertThrows(IllegalStateException.class, () -> new ChessGame().popMove());
+    }
+}
@@ -0,0 +1,65 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PackedMoveTest {
+
+    @Test
+    void roundTripPositive() {
+        ChessMove promotion = new ChessMove(ChessPosition.of(7, 2), ChessPosition.of(8, 1), ChessPiece.PieceType.KNIGHT);
+        int packed = PackedMove.of(promotion);
+        assertEquals(BitboardPosition.square(7, 2), PackedMove.from(packed));
+        assertEquals(BitboardPosition.square(8, 1), PackedMove.to(packed));
+        assertEquals(ChessPiece.PieceType.KNIGHT, PackedMove.promotion(packed));
+        assertEquals(promotion, PackedMove.toChessMove(packed));
+        assertTrue(PackedMove.sameMove(packed, packed | PackedMove.CAPTURE));
+    }
+
+    @Test
+    void generatorSetsFlagsPositive() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(new ChessMove(ChessPosition.of(2, 5), ChessPosition.of(4, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 1), ChessPosition.of(6, 1), null));
+        game.makeMove(new ChessMove(ChessPosition.of(4, 5), ChessPosition.of(5, 5), null));
+        game.makeMove(new ChessMove(ChessPosition.of(7, 4), ChessPosition.of(5, 4), null));
+
+        IntMoveList moves = new IntMoveList(1);
+        game.generateLegalMoves(ChessGame.TeamColor.WHITE, moves);
+        assertEquals(game.generateLegalMoves(ChessGame.TeamColor.WHITE).size(), moves.size());
+
+        int enPassant = moves.get(moves.indexOf(PackedMove.of(BitboardPosition.square(5, 5),
+                BitboardPosition.square(6, 4), null, 0)));
+        assertTrue(PackedMove.isCapture(enPassant));
+        assertNotEquals(0, enPassant & PackedMove.EN_PASSANT);
+        int doublePush = moves.get(moves.indexOf(PackedMove.of(BitboardPosition.square(2, 1),
+                BitboardPosition.square(4, 1), null, 0)));
+        assertNotEquals(0, doublePush & PackedMove.DOUBLE_PUSH);
+        assertFalse(PackedMove.isCapture(doublePush));
+    }
+
+    @Test
+    void pushPackedMatchesPushObjectPositive() {
+        ChessGame packed = new ChessGame();
+        ChessGame objects = new ChessGame();
+        IntMoveList moves = new IntMoveList();
+        packed.generateLegalMoves(ChessGame.TeamColor.WHITE, moves);
+        for (int i = 0; i < moves.size(); i++) {
+            packed.pushMove(moves.get(i));
+            objects.pushMove(PackedMove.toChessMove(moves.get(i)));
+            assertEquals(objects.positionKey(), packed.positionKey());
+            packed.popMove();
+            objects.popMove();
+        }
+    }
+
+    @Test
+    void listBoundsNegative() {
+        IntMoveList moves = new IntMoveList();
+        moves.add(5);
+        moves.clear();
+        assertThrows(IndexOutOfBoundsException.class, () -> moves.get(0));
+        assertEquals(-1, moves.indexOf(5));
+    }
+}
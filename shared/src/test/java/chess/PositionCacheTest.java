@@ -0,0 +1,68 @@
+package chess;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionCacheTest {
+
+    @AfterEach
+    void tearDown() {
+        ChessGame.setPositionCache(null);
+    }
+
+    @Test
+    void cachedAnswersMatchGeneratedPositive() throws InvalidMoveException {
+        PositionCache cache = new PositionCache(1 << 12);
+        Random random = new Random(3);
+        for (int gameNumber = 0; gameNumber < 10; gameNumber++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 60 && !game.isGameOver(); ply++) {
+                ChessGame.setPositionCache(null);
+                List<ChessMove> expected = game.generateLegalMoves(game.getTeamTurn());
+                boolean mate = game.isInCheckmate(game.getTeamTurn());
+                boolean stalemate = game.isInStalemate(game.getTeamTurn());
+
+                ChessGame.setPositionCache(cache);
+                // Twice: once filling the cache, once reading from it
+                for (int pass = 0; pass < 2; pass++) {
+                    HashSet<ChessMove> cached = new HashSet<>();
+                    for (int row = 1; row <= 8; row++) {
+                        for (int col = 1; col <= 8; col++) {
+                            ChessPiece piece = game.getBoard().getPiece(ChessPosition.of(row, col));
+                            if (piece != null && piece.getTeamColor() == game.getTeamTurn()) {
+                                cached.addAll(game.validMoves(ChessPosition.of(row, col)));
+                            }
+                        }
+                    }
+                    assertEquals(new HashSet<>(expected), cached);
+                    assertEquals(mate, game.isInCheckmate(game.getTeamTurn()));
+                    assertEquals(stalemate, game.isInStalemate(game.getTeamTurn()));
+                }
+                game.makeMove(expected.get(random.nextInt(expected.size())));
+            }
+        }
+        assertTrue(cache.table().hitRate() > 0.5);
+    }
+
+    @Test
+    void sharedAcrossGamesPositive() {
+        PositionCache cache = new PositionCache(1 << 10);
+        ChessGame.setPositionCache(cache);
+        new ChessGame().validMoves(ChessPosition.of(2, 5));
+        long hitsBefore = cache.table().hits();
+        assertEquals(2, new ChessGame().validMoves(ChessPosition.of(1, 2)).size());
+        assertEquals(hitsBefore + 1, cache.table().hits());
+    }
+
+    @Test
+    void emptySquareNegative() {
+        ChessGame.setPositionCache(new PositionCache(16));
+        assertNull(new ChessGame().validMoves(ChessPosition.of(4, 4)));
+    }
+}
@@ -0,0 +1,75 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TranspositionTableTest {
+
+    @Test
+    void storeAndLoadPositive() {
+        TranspositionTable table = new TranspositionTable(1000);
+        assertEquals(1024, table.capacity());
+        table.put(42L, 7L, 3);
+        assertEquals(7L, table.get(42L, -1));
+        assertEquals(-1, table.get(43L, -1));
+        assertEquals(0.5, table.hitRate());
+    }
+
+    @Test
+    void deeperEntrySurvivesCollisionPositive() {
+        TranspositionTable table = new TranspositionTable(2);
+        table.put(1L, 100L, 10);
+        table.put(2L, 200L, 1);
+        table.put(3L, 300L, 1);
+        assertEquals(100L, table.get(1L, -1));
+        assertEquals(300L, table.get(3L, -1));
+        assertEquals(-1, table.get(2L, -1));
+
+        table.newGeneration();
+        table.put(4L, 400L, 1);
+        assertEquals(400L, table.get(4L, -1));
+        assertEquals(-1, table.get(1L, -1));
+    }
+
+    @Test
+    void emptyTableMissesZeroKeyNegative() {
+        TranspositionTable table = new TranspositionTable(16);
+        assertEquals(-1, table.get(0L, -1));
+        assertThrows(IllegalArgumentException.class, () -> table.put(1L, 1L, -1));
+        assertThrows(IllegalArgumentException.class, () -> new TranspositionTable(1));
+    }
+
+    @Test
+    void concurrentWritersNeverTearPositive() throws InterruptedException {
+        // Every value is a function of its key, so a torn read would show up as a mismatch
+        TranspositionTable table = new TranspositionTable(64);
+        AtomicBoolean torn = new AtomicBoolean();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            threads.add(new Thread(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                for (int i = 0; i < 200_000; i++) {
+                    long key = random.nextLong(1, 512);
+                    long found = table.get(key, Long.MIN_VALUE);
+                    if (found != Long.MIN_VALUE && found != key * 31) {
+                        torn.set(true);
+                    }
+                    table.put(key, key * 31, random.nextInt(8));
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(torn.get());
+        assertTrue(table.hits() > 0);
+    }
+}
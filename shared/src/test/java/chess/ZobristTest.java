@@ -0,0 +1,110 @@
+package chess;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ZobristTest {
+
+    private static ChessMove move(int fromRow, int fromCol, int toRow, int toCol) {
+        return new ChessMove(new ChessPosition(fromRow, fromCol), new ChessPosition(toRow, toCol), null);
+    }
+
+    private static long recomputedBoardKey(ChessBoard board) {
+        long key = 0L;
+        for (int square = 0; square < 64; square++) {
+            int kind = board.getPosition().kindAt(square);
+            if (kind != BitboardPosition.EMPTY) {
+                key ^= Zobrist.piece(kind, square);
+            }
+        }
+        return key;
+    }
+
+    @Test
+    void incrementalKeyMatchesRecomputedPositive() throws InvalidMoveException {
+        Random random = new Random(42);
+        for (int gameNumber = 0; gameNumber < 20; gameNumber++) {
+            ChessGame game = new ChessGame();
+            for (int ply = 0; ply < 80 && !game.isGameOver(); ply++) {
+                List<ChessMove> moves = game.generateLegalMoves(game.getTeamTurn());
+                long before = game.positionKey();
+                ChessMove move = moves.get(random.nextInt(moves.size()));
+
+                game.pushMove(move);
+                game.popMove();
+                assertEquals(before, game.positionKey());
+
+                game.makeMove(move);
+                assertEquals(recomputedBoardKey(game.getBoard()), game.getBoard().getPosition().key());
+            }
+        }
+    }
+
+    @Test
+    void transposedPositionsShareKeyPositive() throws InvalidMoveException {
+        ChessGame first = new ChessGame();
+        first.makeMove(move(1, 7, 3, 6));
+        first.makeMove(move(8, 7, 6, 6));
+        first.makeMove(move(1, 2, 3, 3));
+        first.makeMove(move(8, 2, 6, 3));
+
+        ChessGame second = new ChessGame();
+        second.makeMove(move(1, 2, 3, 3));
+        second.makeMove(move(8, 2, 6, 3));
+        second.makeMove(move(1, 7, 3, 6));
+        second.makeMove(move(8, 7, 6, 6));
+
+        assertEquals(first.positionKey(), second.positionKey());
+        assertEquals(first.hashCode(), second.hashCode());
+    }
+
+    @Test
+    void sideToMoveChangesKeyNegative() {
+        ChessGame game = new ChessGame();
+        long white = game.positionKey();
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+        assertNotEquals(white, game.positionKey());
+    }
+
+    @Test
+    void lostCastlingRightChangesKeyNegative() throws InvalidMoveException {
+        ChessGame moved = new ChessGame();
+        moved.makeMove(move(1, 7, 3, 6));
+        moved.makeMove(move(8, 7, 6, 6));
+        moved.makeMove(move(1, 8, 1, 7));
+        moved.makeMove(move(8, 8, 8, 7));
+        moved.makeMove(move(1, 7, 1, 8));
+        moved.makeMove(move(8, 7, 8, 8));
+
+        ChessGame fresh = new ChessGame();
+        fresh.makeMove(move(1, 7, 3, 6));
+        fresh.makeMove(move(8, 7, 6, 6));
+
+        assertEquals(fresh.getBoard(), moved.getBoard());
+        assertEquals(Zobrist.WHITE_QUEEN_SIDE | Zobrist.BLACK_QUEEN_SIDE, moved.castlingRights());
+        assertNotEquals(fresh.positionKey(), moved.positionKey());
+    }
+
+    @Test
+    void enPassantOnlyCountsWhenCapturePossible() throws InvalidMoveException {
+        ChessGame game = new ChessGame();
+        game.makeMove(move(2, 5, 4, 5));
+        assertEquals(0, game.enPassantColumn());
+        game.makeMove(move(7, 1, 6, 1));
+        game.makeMove(move(4, 5, 5, 5));
+        game.makeMove(move(7, 4, 5, 4));
+        assertEquals(4, game.enPassantColumn());
+
+        long withEnPassant = game.positionKey();
+        game.makeMove(move(1, 2, 3, 3));
+        game.makeMove(move(8, 2, 6, 3));
+        game.makeMove(move(3, 3, 1, 2));
+        game.makeMove(move(6, 3, 8, 2));
+        assertEquals(0, game.enPassantColumn());
+        assertNotEquals(withEnPassant, game.positionKey());
+    }
+}
@@ -0,0 +1,117 @@
+package chess.perft;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Node counts for the standard perft positions, as published on the Chess
+ * Programming Wiki.
+ */
+class PerftTest {
+    private static final String KIWIPETE = "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R";
+    private static final String ENDGAME = "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8";
+    private static final String PROMOTIONS = "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1";
+
+    /**
+     * Builds a game from the piece placement part of a FEN string, white to move.
+     * Every piece starts unmoved, which gives the right castling rights for the
+     * positions used here.
+     */
+    private static ChessGame game(String placement) {
+        ChessBoard board = new ChessBoard();
+        String[] rows = placement.split("/");
+        for (int i = 0; i < 8; i++) {
+            int col = 1;
+            for (char c : rows[i].toCharArray()) {
+                if (Character.isDigit(c)) {
+                    col += c - '0';
+                    continue;
+                }
+                ChessGame.TeamColor color = Character.isUpperCase(c) ? ChessGame.TeamColor.WHITE : ChessGame.TeamColor.BLACK;
+                ChessPiece.PieceType type = switch (Character.toLowerCase(c)) {
+                    case 'k' -> ChessPiece.PieceType.KING;
+                    case 'q' -> ChessPiece.PieceType.QUEEN;
+                    case 'r' -> ChessPiece.PieceType.ROOK;
+                    case 'b' -> ChessPiece.PieceType.BISHOP;
+                    case 'n' -> ChessPiece.PieceType.KNIGHT;
+                    default -> ChessPiece.PieceType.PAWN;
+                };
+                board.addPiece(new ChessPosition(8 - i, col), new ChessPiece(color, type));
+                col++;
+            }
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        return game;
+    }
+
+    @Test
+    void startingPositionPositive() {
+        ChessGame game = new ChessGame();
+        assertEquals(20, Perft.count(game, 1));
+        assertEquals(400, Perft.count(game, 2));
+        assertEquals(8902, Perft.count(game, 3));
+        assertEquals(197281, Perft.count(game, 4));
+    }
+
+    @Test
+    void kiwipetePositive() {
+        ChessGame game = game(KIWIPETE);
+        assertEquals(48, Perft.count(game, 1));
+        assertEquals(2039, Perft.count(game, 2));
+        assertEquals(97862, Perft.count(game, 3));
+    }
+
+    @Test
+    void endgamePositive() {
+        ChessGame game = game(ENDGAME);
+        assertEquals(14, Perft.count(game, 1));
+        assertEquals(191, Perft.count(game, 2));
+        assertEquals(2812, Perft.count(game, 3));
+        assertEquals(43238, Perft.count(game, 4));
+    }
+
+    @Test
+    void promotionsPositive() {
+        ChessGame game = game(PROMOTIONS);
+        assertEquals(6, Perft.count(game, 1));
+        assertEquals(264, Perft.count(game, 2));
+        assertEquals(9467, Perft.count(game, 3));
+    }
+
+    @Test
+    void parallelMatchesSerialPositive() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            ChessGame game = game(KIWIPETE);
+            assertEquals(97862, Perft.count(game, 3, pool));
+            assertEquals(197281, Perft.count(new ChessGame(), 4, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void divideSumsToTotalPositive() {
+        ChessGame game = game(KIWIPETE);
+        Map<ChessMove, Long> divided = Perft.divide(game, 3);
+        assertEquals(48, divided.size());
+        assertEquals(97862, divided.values().stream().mapToLong(Long::longValue).sum());
+        assertEquals(97862, Perft.count(game, 3));
+    }
+
+    @Test
+    void zeroDepthNegative() {
+        assertEquals(1, Perft.count(new ChessGame(), 0));
+        assertEquals(1, Perft.count(new ChessGame(), 0, ForkJoinPool.commonPool()));
+    }
+}
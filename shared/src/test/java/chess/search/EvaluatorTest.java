@@ -0,0 +1,136 @@
+package chess.search;
+
+import chess.BitboardPosition;
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.IntMoveList;
+import chess.PieceSquareTables;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EvaluatorTest {
+
+    private static void place(ChessBoard board, int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        board.addPiece(ChessPosition.of(row, col), new ChessPiece(color, type));
+    }
+
+    /**
+     * Adds up the sums the position keeps incrementally, from scratch
+     */
+    private static int[] recompute(BitboardPosition position) {
+        int[] sums = new int[3];
+        long occupied = position.occupied();
+        while (occupied != 0) {
+            int square = Long.numberOfTrailingZeros(occupied);
+            occupied &= occupied - 1;
+            int kind = position.kindAt(square);
+            sums[0] += PieceSquareTables.midgame(kind, square);
+            sums[1] += PieceSquareTables.endgame(kind, square);
+            sums[2] += PieceSquareTables.phase(kind);
+        }
+        return sums;
+    }
+
+    @Test
+    void startingPositionIsLevelPositive() {
+        ChessGame game = new ChessGame();
+        BitboardPosition position = game.getBoard().getPosition();
+        assertEquals(0, position.midgame());
+        assertEquals(0, position.endgame());
+        assertEquals(PieceSquareTables.MAX_PHASE, position.phase());
+        assertEquals(0, new Evaluator().evaluate(game));
+    }
+
+    @Test
+    void incrementalSumsMatchRecomputePositive() {
+        Random random = new Random(240);
+        ChessGame game = new ChessGame();
+        BitboardPosition position = game.getBoard().getPosition();
+        IntMoveList moves = new IntMoveList();
+        long pawnKey = position.pawnKey();
+        int played = 0;
+        for (int ply = 0; ply < 200; ply++) {
+            moves.clear();
+            game.generateLegalMoves(game.getTeamTurn(), moves);
+            if (moves.isEmpty()) {
+                break;
+            }
+            game.pushMove(moves.get(random.nextInt(moves.size())));
+            played++;
+            assertArrayEquals(recompute(position),
+                    new int[] {position.midgame(), position.endgame(), position.phase()});
+        }
+        for (int i = 0; i < played; i++) {
+            game.popMove();
+        }
+        assertArrayEquals(new int[] {0, 0, PieceSquareTables.MAX_PHASE},
+                new int[] {position.midgame(), position.endgame(), position.phase()});
+        assertEquals(pawnKey, position.pawnKey());
+    }
+
+    @Test
+    void mirroredPositionsScoreAlikePositive() {
+        ChessBoard white = new ChessBoard();
+        place(white, 1, 7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        place(white, 4, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        place(white, 2, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        place(white, 8, 3, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        ChessGame whiteToMove = new ChessGame();
+        whiteToMove.setBoard(white);
+
+        ChessBoard black = new ChessBoard();
+        place(black, 8, 7, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        place(black, 5, 5, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KNIGHT);
+        place(black, 7, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        place(black, 1, 3, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        ChessGame blackToMove = new ChessGame();
+        blackToMove.setBoard(black);
+        blackToMove.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        Evaluator evaluator = new Evaluator();
+        int score = evaluator.evaluate(whiteToMove);
+        assertTrue(score > 300);
+        assertEquals(score, evaluator.evaluate(blackToMove));
+    }
+
+    @Test
+    void passedPawnOutscoresBlockedPawnPositive() {
+        ChessBoard passed = new ChessBoard();
+        place(passed, 1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        place(passed, 8, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        place(passed, 6, 2, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        place(passed, 7, 6, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        ChessGame passedGame = new ChessGame();
+        passedGame.setBoard(passed);
+
+        ChessBoard blocked = new ChessBoard();
+        place(blocked, 1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        place(blocked, 8, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        place(blocked, 6, 2, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+        place(blocked, 7, 3, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        ChessGame blockedGame = new ChessGame();
+        blockedGame.setBoard(blocked);
+
+        Evaluator evaluator = new Evaluator();
+        assertTrue(evaluator.evaluate(passedGame) > evaluator.evaluate(blockedGame));
+    }
+
+    @Test
+    void pawnCacheReusedNegative() {
+        Evaluator evaluator = new Evaluator();
+        ChessGame game = new ChessGame();
+        evaluator.evaluate(game);
+        assertEquals(0, evaluator.pawnCacheHits());
+
+        // A knight move leaves the pawns where they were
+        game.pushMove(new ChessMove(ChessPosition.of(1, 7), ChessPosition.of(3, 6), null));
+        evaluator.evaluate(game);
+        assertEquals(1, evaluator.pawnCacheHits());
+    }
+}
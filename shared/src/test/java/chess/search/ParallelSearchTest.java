@@ -0,0 +1,55 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import chess.TranspositionTable;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSearchTest {
+
+    @Test
+    void findsMateWithHelpersPositive() {
+        ChessBoard board = new ChessBoard();
+        board.addPiece(ChessPosition.of(1, 7), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING));
+        board.addPiece(ChessPosition.of(1, 1), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK));
+        board.addPiece(ChessPosition.of(8, 7), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING));
+        for (int col = 6; col <= 8; col++) {
+            board.addPiece(ChessPosition.of(2, col), new ChessPiece(ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN));
+            board.addPiece(ChessPosition.of(7, col), new ChessPiece(ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN));
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        try (ParallelSearch search = new ParallelSearch(4, new TranspositionTable(1 << 16))) {
+            SearchResult result = search.search(game, SearchLimits.depth(5));
+            assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.bestMove());
+            assertTrue(Search.isMate(result.score()));
+        }
+    }
+
+    @Test
+    void repeatedSearchesStayLegalPositive() {
+        ChessGame game = new ChessGame();
+        long key = game.positionKey();
+        try (ParallelSearch search = new ParallelSearch(3, new TranspositionTable(1 << 16))) {
+            for (int i = 0; i < 3; i++) {
+                SearchResult result = search.search(game, SearchLimits.depth(4));
+                assertEquals(4, result.depth());
+                assertTrue(game.generateLegalMoves(ChessGame.TeamColor.WHITE).contains(result.bestMove()));
+                assertEquals(key, game.positionKey());
+            }
+            SearchResult timed = search.search(game, SearchLimits.time(100));
+            assertNotNull(timed.bestMove());
+        }
+    }
+
+    @Test
+    void zeroThreadsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new ParallelSearch(0, new TranspositionTable(16)));
+    }
+}
@@ -0,0 +1,112 @@
+package chess.search;
+
+import chess.ChessBoard;
+import chess.ChessGame;
+import chess.ChessMove;
+import chess.ChessPiece;
+import chess.ChessPosition;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchTest {
+
+    private static void place(ChessBoard board, int row, int col, ChessGame.TeamColor color, ChessPiece.PieceType type) {
+        board.addPiece(ChessPosition.of(row, col), new ChessPiece(color, type));
+    }
+
+    private static ChessGame backRankMate() {
+        ChessBoard board = new ChessBoard();
+        place(board, 1, 7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        place(board, 1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.ROOK);
+        place(board, 8, 7, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        for (int col = 6; col <= 8; col++) {
+            place(board, 2, col, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.PAWN);
+            place(board, 7, col, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        }
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        return game;
+    }
+
+    @Test
+    void findsMateInOnePositive() {
+        ChessGame game = backRankMate();
+        long key = game.positionKey();
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        assertEquals(new ChessMove(ChessPosition.of(1, 1), ChessPosition.of(8, 1), null), result.bestMove());
+        assertTrue(Search.isMate(result.score()));
+        assertTrue(result.score() > 0);
+        assertEquals(key, game.positionKey());
+    }
+
+    @Test
+    void winsHangingQueenPositive() {
+        ChessBoard board = new ChessBoard();
+        place(board, 1, 5, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        place(board, 3, 3, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KNIGHT);
+        place(board, 8, 5, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        place(board, 5, 4, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.QUEEN);
+        place(board, 7, 1, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.PAWN);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        assertEquals(new ChessMove(ChessPosition.of(3, 3), ChessPosition.of(5, 4), null), result.bestMove());
+        assertEquals(result.bestMove(), result.principalVariation().get(0));
+        assertTrue(result.score() > 100);
+    }
+
+    @Test
+    void principalVariationIsPlayablePositive() {
+        ChessGame game = new ChessGame();
+        SearchResult result = new Search().search(game, SearchLimits.depth(4));
+        assertEquals(4, result.depth());
+        assertFalse(result.principalVariation().isEmpty());
+        ChessGame replay = new ChessGame(game);
+        for (ChessMove move : result.principalVariation()) {
+            assertTrue(replay.generateLegalMoves(replay.getTeamTurn()).contains(move));
+            replay.pushMove(move);
+        }
+    }
+
+    @Test
+    void nodeLimitStillReturnsMovePositive() {
+        ChessGame game = new ChessGame();
+        SearchResult result = new Search().search(game, SearchLimits.nodes(50));
+        assertNotNull(result.bestMove());
+        assertTrue(result.nodes() <= 50);
+        assertTrue(game.generateLegalMoves(ChessGame.TeamColor.WHITE).contains(result.bestMove()));
+    }
+
+    @Test
+    void timeLimitIsRespectedPositive() {
+        long start = System.nanoTime();
+        SearchResult result = new Search().search(new ChessGame(), SearchLimits.time(200));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        assertNotNull(result.bestMove());
+        assertTrue(elapsedMillis < 1000, "took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void noMovesNegative() {
+        ChessBoard board = new ChessBoard();
+        place(board, 8, 8, ChessGame.TeamColor.BLACK, ChessPiece.PieceType.KING);
+        place(board, 6, 7, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.QUEEN);
+        place(board, 1, 1, ChessGame.TeamColor.WHITE, ChessPiece.PieceType.KING);
+        ChessGame game = new ChessGame();
+        game.setBoard(board);
+        game.setTeamTurn(ChessGame.TeamColor.BLACK);
+
+        SearchResult result = new Search().search(game, SearchLimits.depth(3));
+        assertNull(result.bestMove());
+        assertEquals(0, result.score());
+    }
+
+    @Test
+    void invalidLimitsNegative() {
+        assertThrows(IllegalArgumentException.class, () -> new SearchLimits(0, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.depth(Search.MAX_DEPTH + 1));
+        assertThrows(IllegalArgumentException.class, () -> SearchLimits.time(-1));
+    }
+}